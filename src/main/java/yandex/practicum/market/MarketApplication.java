@@ -3,10 +3,12 @@ package yandex.practicum.market;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import yandex.practicum.market.storage.StorageProperties;
 
 @SpringBootApplication
 @EnableConfigurationProperties({StorageProperties.class})
+@EnableScheduling
 public class MarketApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,66 @@
+package yandex.practicum.market.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import yandex.practicum.market.dto.ItemView;
+import yandex.practicum.market.repository.ItemRepository;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Кэш товаров по id для товаров, которых еще нет в снимке каталога.
+ * Ключи - примитивные long: обращение на каждом нажатии корзины не упаковывает id.
+ * Одновременные промахи по одному id загружают товар один раз; ошибка загрузки не кэшируется.
+ * Записи инвалидируются при сохранении товара в админке, запись, инвалидированная во время загрузки, не сохраняется.
+ * Статистика публикуется в метриках cache.* с тегом cache=item.
+ */
+@Component
+public class ItemCache {
+    public static final String CACHE_NAME = "item";
+
+    private final ItemRepository itemRepository;
+    private final LongKeyCache<ItemView> cache;
+
+    public ItemCache(
+            ItemRepository itemRepository,
+            MeterRegistry meterRegistry,
+            @Value("${cache.item.maximum-size:10000}") int maximumSize
+    ) {
+        this.itemRepository = itemRepository;
+        this.cache = new LongKeyCache<>(maximumSize);
+
+        FunctionCounter.builder("cache.gets", cache, LongKeyCache::hitCount)
+                .description("Item lookups served from the cache")
+                .tag("cache", CACHE_NAME)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", cache, LongKeyCache::missCount)
+                .description("Item lookups that loaded the item from the database")
+                .tag("cache", CACHE_NAME)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", cache, LongKeyCache::evictionCount)
+                .description("Items evicted to keep the cache within its size")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", cache, LongKeyCache::size)
+                .description("Items in the cache")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    public ItemView get(long itemId) {
+        return cache.get(itemId, this::load);
+    }
+
+    public void invalidate(long itemId) {
+        cache.invalidate(itemId);
+    }
+
+    private ItemView load(long itemId) {
+        return itemRepository.findViewById(itemId).orElseThrow(() -> new NoSuchElementException("Invalid item"));
+    }
+}
@@ -0,0 +1,154 @@
+package yandex.practicum.market.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import yandex.practicum.market.catalog.CatalogVersion;
+import yandex.practicum.market.catalog.PriceIndex;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.search.ItemDocument;
+import yandex.practicum.market.search.SearchTokenizer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Кэш результатов поиска: упорядоченные id товаров окна страницы и все найденные документы запроса.
+ * Ключ содержит версию каталога, поэтому записи, построенные до изменения каталога, больше не читаются
+ * и вытесняются по размеру или времени жизни.
+ * Статистика попаданий, промахов и вытеснений публикуется в метриках cache.* с тегами
+ * cache=itemSearch и cache=itemSearchHits.
+ */
+@Component
+public class ItemSearchCache {
+    public static final String CACHE_NAME = "itemSearch";
+    public static final String HITS_CACHE_NAME = "itemSearchHits";
+
+    private final CatalogVersion catalogVersion;
+    private final Cache<Key, Window> cache;
+    private final Cache<HitsKey, Hits> hits;
+
+    public ItemSearchCache(
+            CatalogVersion catalogVersion,
+            MeterRegistry meterRegistry,
+            @Value("${cache.item-search.maximum-size:10000}") long maximumSize,
+            @Value("${cache.item-search.ttl:10m}") Duration ttl,
+            @Value("${cache.item-search.hits.maximum-weight:1000000}") long hitsMaximumWeight
+    ) {
+        this.catalogVersion = catalogVersion;
+        // Caffeine вытесняет записи по политике W-TinyLFU: редкие запросы не вытесняют популярные
+        Cache<Key, Window> windows = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, windows, CACHE_NAME);
+        // Размер записи с найденными документами - число документов
+        Cache<HitsKey, Hits> searchHits = Caffeine.newBuilder()
+                .maximumWeight(hitsMaximumWeight)
+                .<HitsKey, Hits>weigher((key, value) -> value.size() + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.hits = CaffeineCacheMetrics.monitor(meterRegistry, searchHits, HITS_CACHE_NAME);
+    }
+
+    // Ключ строится до выполнения запроса, чтобы результат, посчитанный во время изменения каталога, попал в старую версию
+    public Key key(@Nullable String searchTerm, @NonNull Pageable pageable) {
+        return new Key(
+                catalogVersion.current(),
+                SearchTokenizer.normalize(searchTerm),
+                pageable.getSort(),
+                pageable.getOffset(),
+                pageable.getPageSize()
+        );
+    }
+
+    @Nullable
+    public Window get(@NonNull Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(@NonNull Key key, @NonNull Window window) {
+        cache.put(key, window);
+    }
+
+    // Найденные документы запроса; одновременные промахи по одному запросу выполняют поиск один раз
+    public Hits hits(@NonNull String searchTerm, @NonNull Function<String, List<ItemDocument>> search) {
+        HitsKey key = new HitsKey(catalogVersion.current(), SearchTokenizer.normalize(searchTerm));
+        return hits.get(key, ignored -> new Hits(search.apply(searchTerm)));
+    }
+
+    public record Key(long catalogVersion, String searchTerm, Sort sort, long offset, int pageSize) {
+    }
+
+    public record Window(List<Long> ids, boolean hasNext) {
+
+        public static Window of(Slice<ItemEntity> page) {
+            List<Long> ids = page.getContent().stream()
+                    .map(ItemEntity::getId)
+                    .toList();
+            return new Window(ids, page.hasNext());
+        }
+    }
+
+    private record HitsKey(long catalogVersion, String searchTerm) {
+    }
+
+    /**
+     * Найденные документы запроса. Порядок документов для каждой сортировки и отсортированные цены
+     * для гистограммы строятся один раз при первом обращении и переиспользуются всеми страницами запроса.
+     */
+    public static final class Hits {
+        private final List<ItemDocument> documents;
+        private final Map<Sort, List<ItemDocument>> sorted = new ConcurrentHashMap<>();
+        private volatile long[] prices;
+
+        public Hits(@NonNull List<ItemDocument> documents) {
+            this.documents = List.copyOf(documents);
+        }
+
+        public List<ItemDocument> documents() {
+            return documents;
+        }
+
+        public List<ItemDocument> sorted(@NonNull Sort sort) {
+            return sorted.computeIfAbsent(sort, order -> {
+                List<ItemDocument> ordered = new ArrayList<>(documents);
+                ordered.sort(ItemDocument.comparator(order));
+                return List.copyOf(ordered);
+            });
+        }
+
+        // Цены найденных товаров в копейках по возрастанию; массив не изменяется вызывающим
+        public long[] prices() {
+            long[] result = prices;
+            if (result == null) {
+                result = new long[documents.size()];
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = PriceIndex.minorUnits(documents.get(i).price());
+                }
+                Arrays.sort(result);
+                prices = result;
+            }
+            return result;
+        }
+
+        public int size() {
+            return documents.size();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package yandex.practicum.market.cache;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Read-through кэш с примитивным ключом long.
+ * Записи хранятся в сегментах с открытой адресацией (линейное пробирование), ключи не упаковываются.
+ * Размер сегмента ограничен: при заполнении запись вытесняется алгоритмом CLOCK.
+ * Одновременные промахи по одному ключу выполняют одну загрузку (single-flight).
+ * Счетчики попаданий, промахов и вытеснений - для метрик.
+ */
+public class LongKeyCache<V> {
+    private static final int MAX_SEGMENTS = 16;
+    // Меньший сегмент плохо переносит вытеснение CLOCK: горячие записи не успевают получить отметку
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
+    private final Segment<V>[] segments;
+    private final int segmentMask;
+    // Загрузки в процессе; обращения к ключу выполняются под блокировкой его сегмента
+    private final Map<Long, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public LongKeyCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+
+        int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, maximumSize / MIN_SEGMENT_CAPACITY)));
+        int segmentCapacity = (maximumSize + segmentCount - 1) / segmentCount;
+
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+        segmentMask = segmentCount - 1;
+    }
+
+    @Nullable
+    public V getIfPresent(long key) {
+        long hash = hash(key);
+        Segment<V> segment = segmentFor(hash);
+        synchronized (segment) {
+            return segment.get(key, hash);
+        }
+    }
+
+    /**
+     * Значение из кэша или результат загрузки.
+     * Исключение загрузчика получают все ожидающие потоки, значение при этом не кэшируется.
+     */
+    public V get(long key, @NonNull LongFunction<? extends V> loader) {
+        long hash = hash(key);
+        Segment<V> segment = segmentFor(hash);
+
+        CompletableFuture<V> loading;
+        boolean owner = false;
+        synchronized (segment) {
+            V value = segment.get(key, hash);
+            if (value != null) {
+                hits.increment();
+                return value;
+            }
+
+            misses.increment();
+            loading = inFlight.get(key);
+            if (loading == null) {
+                loading = new CompletableFuture<>();
+                inFlight.put(key, loading);
+                owner = true;
+            }
+        }
+
+        // Загрузка уже идет в другом потоке: ждем ее результат вне блокировки сегмента
+        if (!owner) {
+            return join(loading);
+        }
+
+        V loaded;
+        try {
+            loaded = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            synchronized (segment) {
+                inFlight.remove(key, loading);
+            }
+            loading.completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (segment) {
+            // Если ключ инвалидирован во время загрузки, значение не сохраняется
+            if (inFlight.remove(key, loading) && loaded != null) {
+                segment.put(key, hash, loaded);
+            }
+        }
+        loading.complete(loaded);
+        return loaded;
+    }
+
+    public void put(long key, @NonNull V value) {
+        long hash = hash(key);
+        Segment<V> segment = segmentFor(hash);
+        synchronized (segment) {
+            inFlight.remove(key);
+            segment.put(key, hash, value);
+        }
+    }
+
+    public void invalidate(long key) {
+        long hash = hash(key);
+        Segment<V> segment = segmentFor(hash);
+        synchronized (segment) {
+            inFlight.remove(key);
+            segment.remove(key, hash);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    // Обращения через get: найденные в кэше и потребовавшие загрузки (свою или чужую)
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        long evictions = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                evictions += segment.evictions;
+            }
+        }
+        return evictions;
+    }
+
+    private Segment<V> segmentFor(long hash) {
+        return segments[(int) (hash >>> 32) & segmentMask];
+    }
+
+    private static <V> V join(CompletableFuture<V> loading) {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Перемешивание битов ключа: последовательные id равномерно распределяются по сегментам и ячейкам
+    private static long hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static final class Segment<V> {
+        private final int capacity;
+        private final int mask;
+        private final long[] keys;
+        private final Object[] values;
+        private final boolean[] referenced;
+        private int size;
+        private int hand;
+        private long evictions;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            // Заполнение таблицы не выше половины, чтобы цепочки пробирования оставались короткими
+            int tableSize = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+            this.mask = tableSize - 1;
+            this.keys = new long[tableSize];
+            this.values = new Object[tableSize];
+            this.referenced = new boolean[tableSize];
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(long key, long hash) {
+            int index = indexOf(key, hash);
+            if (index < 0) {
+                return null;
+            }
+            referenced[index] = true;
+            return (V) values[index];
+        }
+
+        void put(long key, long hash, V value) {
+            int index = indexOf(key, hash);
+            if (index >= 0) {
+                values[index] = value;
+                referenced[index] = true;
+                return;
+            }
+
+            if (size >= capacity) {
+                evict();
+            }
+            index = slot(hash);
+            while (values[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+            referenced[index] = false;
+            size++;
+        }
+
+        void remove(long key, long hash) {
+            int index = indexOf(key, hash);
+            if (index >= 0) {
+                removeAt(index);
+            }
+        }
+
+        private int slot(long hash) {
+            return (int) hash & mask;
+        }
+
+        private int indexOf(long key, long hash) {
+            for (int index = slot(hash); values[index] != null; index = (index + 1) & mask) {
+                if (keys[index] == key) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        // CLOCK: стрелка проходит по ячейкам, у прочитанных записей снимает отметку, первую неотмеченную вытесняет
+        private void evict() {
+            while (true) {
+                int index = hand;
+                hand = (hand + 1) & mask;
+                if (values[index] == null) {
+                    continue;
+                }
+                if (referenced[index]) {
+                    referenced[index] = false;
+                    continue;
+                }
+                removeAt(index);
+                evictions++;
+                return;
+            }
+        }
+
+        // Удаление со сдвигом следующих записей цепочки назад, без маркеров удаления
+        private void removeAt(int index) {
+            values[index] = null;
+            referenced[index] = false;
+            size--;
+
+            int gap = index;
+            for (int next = (index + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+                int home = slot(hash(keys[next]));
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    referenced[gap] = referenced[next];
+                    values[next] = null;
+                    referenced[next] = false;
+                    gap = next;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package yandex.practicum.market.cart;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import yandex.practicum.market.repository.CartRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Время последней активности корзин для удаления брошенных корзин.
+ * Запись coalesced: время корзины пишется в БД не чаще раза в granularity,
+ * остальные изменения корзины в течение этого окна его не трогают.
+ */
+@Component
+public class CartActivity {
+    private final CartRepository cartRepository;
+    // Корзины, время которых записано в текущем окне
+    private final Cache<Long, Boolean> recent;
+
+    public CartActivity(
+            CartRepository cartRepository,
+            @Value("${cart.activity.granularity:5m}") Duration granularity,
+            @Value("${cart.activity.maximum-size:100000}") long maximumSize
+    ) {
+        this.cartRepository = cartRepository;
+        this.recent = Caffeine.newBuilder()
+                .expireAfterWrite(granularity)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public void touch(long cartId) {
+        if (claim(cartId)) {
+            try {
+                cartRepository.touch(cartId, LocalDateTime.now());
+            } catch (RuntimeException e) {
+                release(cartId);
+                throw e;
+            }
+        }
+    }
+
+    // true, если время активности корзины пора записать; запись выполняет вызывающий
+    public boolean claim(long cartId) {
+        return recent.asMap().putIfAbsent(cartId, Boolean.TRUE) == null;
+    }
+
+    // Время не записано: следующее изменение корзины снова попробует его записать
+    public void release(long cartId) {
+        recent.invalidate(cartId);
+    }
+}
@@ -0,0 +1,155 @@
+package yandex.practicum.market.cart;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Пакетная запись изменений корзин в carts/cart_details через JDBC.
+ * На пакет уходит не больше пяти обращений к БД: вставка новых корзин, чтение их id,
+ * пакет обновлений позиций, пакет удалений и обновление времени активности корзин.
+ */
+@Component
+public class CartBatchWriter {
+    private static final String INSERT_CART = """
+            INSERT INTO carts (session_id)
+            SELECT CAST(? AS VARCHAR(64)) WHERE NOT EXISTS (SELECT 1 FROM carts WHERE session_id = ?)
+            """;
+
+    private static final String SELECT_CART_IDS = "SELECT id, session_id FROM carts WHERE session_id IN (:sessionIds)";
+
+    private static final String UPSERT_LINE = """
+            MERGE INTO cart_details cd
+            USING (SELECT CAST(? AS BIGINT) AS session_id,
+                          CAST(? AS BIGINT) AS item_id,
+                          CAST(? AS INT) AS quantity,
+                          CAST(? AS DECIMAL(10, 2)) AS price) src
+            ON cd.session_id = src.session_id AND cd.item_id = src.item_id
+            WHEN MATCHED THEN UPDATE SET quantity = src.quantity
+            WHEN NOT MATCHED THEN INSERT (session_id, item_id, quantity, price)
+                VALUES (src.session_id, src.item_id, src.quantity, src.price)
+            """;
+
+    private static final String DELETE_LINE = "DELETE FROM cart_details WHERE session_id = ? AND item_id = ?";
+
+    private static final String TOUCH_CART = "UPDATE carts SET last_activity = ? WHERE id = ?";
+
+    private static final String INCREMENT_VERSIONS = "UPDATE carts SET version = version + 1 WHERE id IN (:cartIds)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final CartActivity cartActivity;
+
+    public CartBatchWriter(
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedJdbcTemplate,
+            CartActivity cartActivity
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.cartActivity = cartActivity;
+    }
+
+    // Возвращает id корзин пакета по id сессии
+    @Transactional
+    public Map<String, Long> write(@NonNull List<CartChanges> batch) {
+        Map<String, Long> cartIds = resolveCartIds(batch);
+
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (CartChanges changes : batch) {
+            Long cartId = cartIds.get(changes.sessionId());
+            for (Map.Entry<Long, CartChanges.Line> line : changes.lines().entrySet()) {
+                int quantity = line.getValue().quantity();
+                if (quantity > 0) {
+                    upserts.add(new Object[]{cartId, line.getKey(), quantity, line.getValue().price()});
+                } else {
+                    deletes.add(new Object[]{cartId, line.getKey()});
+                }
+            }
+        }
+
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_LINE, upserts);
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_LINE, deletes);
+        }
+        // Оформление заказа, прочитавшее корзину до этой записи, повторится с новым составом корзины
+        namedJdbcTemplate.update(INCREMENT_VERSIONS, Map.of("cartIds", cartIds.values()));
+        touch(cartIds.values());
+        return cartIds;
+    }
+
+    private void touch(Collection<Long> cartIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> touches = new ArrayList<>();
+        for (Long cartId : cartIds) {
+            if (cartActivity.claim(cartId)) {
+                touches.add(new Object[]{now, cartId});
+            }
+        }
+        if (touches.isEmpty()) {
+            return;
+        }
+        releaseOnRollback(touches);
+        jdbcTemplate.batchUpdate(TOUCH_CART, touches);
+    }
+
+    // Время активности пишется в транзакции пакета: при ее откате корзины снова доступны для записи времени
+    private void releaseOnRollback(List<Object[]> touches) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    for (Object[] touch : touches) {
+                        cartActivity.release((Long) touch[1]);
+                    }
+                }
+            }
+        });
+    }
+
+    // Корзины, id которых еще неизвестен, создаются при первой записи
+    private Map<String, Long> resolveCartIds(List<CartChanges> batch) {
+        Map<String, Long> cartIds = new HashMap<>();
+        List<String> unresolved = new ArrayList<>();
+        for (CartChanges changes : batch) {
+            if (changes.cartId() != null) {
+                cartIds.put(changes.sessionId(), changes.cartId());
+            } else {
+                unresolved.add(changes.sessionId());
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return cartIds;
+        }
+
+        List<Object[]> inserts = new ArrayList<>(unresolved.size());
+        for (String sessionId : unresolved) {
+            inserts.add(new Object[]{sessionId, sessionId});
+        }
+        jdbcTemplate.batchUpdate(INSERT_CART, inserts);
+
+        List<Map.Entry<String, Long>> created = namedJdbcTemplate.query(
+                SELECT_CART_IDS,
+                Map.of("sessionIds", unresolved),
+                (rs, rowNum) -> Map.entry(rs.getString("session_id"), rs.getLong("id"))
+        );
+        for (Map.Entry<String, Long> cart : created) {
+            cartIds.put(cart.getKey(), cart.getValue());
+        }
+        return cartIds;
+    }
+}
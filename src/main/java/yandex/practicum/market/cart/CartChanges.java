@@ -0,0 +1,15 @@
+package yandex.practicum.market.cart;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Несохраненные изменения корзины: новые количества товаров по id товара, 0 - позиция удалена.
+ * cartId равен null, пока строка корзины в таблице carts не найдена или не создана.
+ */
+public record CartChanges(String sessionId, Long cartId, Map<Long, Line> lines) {
+
+    // Цена нужна только при вставке новой позиции
+    public record Line(int quantity, BigDecimal price) {
+    }
+}
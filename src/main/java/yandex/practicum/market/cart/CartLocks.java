@@ -0,0 +1,35 @@
+package yandex.practicum.market.cart;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Блокировки изменений корзин внутри процесса, разложенные по полосам хеша сессии:
+ * изменения одной сессии и оформление ее заказа выполняются по очереди, разные сессии почти не конкурируют.
+ * Между экземплярами приложения изменения согласуются версией корзины.
+ */
+@Component
+public class CartLocks {
+    private final ReentrantLock[] stripes;
+
+    public CartLocks(@Value("${cart.locks.stripes:256}") int stripeCount) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLock(@NonNull String sessionId, @NonNull Supplier<T> action) {
+        ReentrantLock lock = stripes[Math.floorMod(sessionId.hashCode(), stripes.length)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package yandex.practicum.market.cart;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.types.ActionType;
+
+// Изменение позиции корзины из пакета: действие кнопки, а без действия - установка количества quantity
+public record CartMutation(@NonNull ItemEntity item, @Nullable ActionType action, int quantity) {
+
+    public static CartMutation of(@NonNull ItemEntity item, @NonNull ActionType action) {
+        return new CartMutation(item, action, 0);
+    }
+
+    public static CartMutation set(@NonNull ItemEntity item, int quantity) {
+        return new CartMutation(item, null, quantity);
+    }
+
+    // Изменение может добавить товар в корзину: для него нужна строка корзины
+    public boolean adds() {
+        return action == null ? quantity > 0 : action == ActionType.PLUS;
+    }
+}
@@ -0,0 +1,34 @@
+package yandex.practicum.market.cart;
+
+import org.springframework.lang.NonNull;
+import yandex.practicum.market.dto.CartQuantities;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.types.ActionType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Хранилище изменений корзин.
+ * Режим выбирается свойством cart.store.mode: database - каждое изменение сразу пишется в БД,
+ * write-behind - корзины живут в памяти и сбрасываются в БД пакетами.
+ */
+public interface CartStore {
+
+    // Возвращает новое количество товара в корзине
+    int update(@NonNull String sessionId, @NonNull ItemEntity item, @NonNull ActionType action);
+
+    // Пакет изменений корзины сессии применяется целиком: в одной транзакции или под одной блокировкой
+    void apply(@NonNull String sessionId, @NonNull List<CartMutation> mutations);
+
+    CartQuantities getQuantities(@NonNull String sessionId);
+
+    // Итог корзины по ценам позиций на момент добавления, без записи отложенных изменений
+    BigDecimal getTotalCost(@NonNull String sessionId);
+
+    // Запись изменений корзины сессии в БД перед чтением корзины из таблиц
+    void flush(@NonNull String sessionId);
+
+    // Корзина сессии очищена в БД (оформлен заказ)
+    void evict(@NonNull String sessionId);
+}
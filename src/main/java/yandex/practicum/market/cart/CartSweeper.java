@@ -0,0 +1,54 @@
+package yandex.practicum.market.cart;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import yandex.practicum.market.repository.CartRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Удаление брошенных корзин: корзин без заказов, не менявшихся дольше cart.sweeper.ttl.
+ * Корзины удаляются пачками по batch-size; каждая пачка - отдельный запрос в своей короткой транзакции,
+ * поэтому таблицы корзин не блокируются надолго.
+ * Число удаленных корзин публикуется в метрике cart.sweeper.deleted.
+ */
+@Component
+public class CartSweeper {
+    private final CartRepository cartRepository;
+    private final Duration ttl;
+    private final int batchSize;
+    private final Counter deleted;
+
+    public CartSweeper(
+            CartRepository cartRepository,
+            MeterRegistry meterRegistry,
+            @Value("${cart.sweeper.ttl:7d}") Duration ttl,
+            @Value("${cart.sweeper.batch-size:1000}") int batchSize
+    ) {
+        this.cartRepository = cartRepository;
+        this.ttl = ttl;
+        this.batchSize = batchSize;
+        this.deleted = Counter.builder("cart.sweeper.deleted")
+                .description("Abandoned carts deleted")
+                .register(meterRegistry);
+    }
+
+    // Возвращает число удаленных корзин
+    @Scheduled(initialDelayString = "${cart.sweeper.interval:1h}", fixedDelayString = "${cart.sweeper.interval:1h}")
+    public int sweep() {
+        LocalDateTime threshold = LocalDateTime.now().minus(ttl);
+        int total = 0;
+        int removed;
+        do {
+            removed = cartRepository.deleteAbandoned(threshold, batchSize);
+            total += removed;
+        } while (removed == batchSize);
+
+        deleted.increment(total);
+        return total;
+    }
+}
@@ -0,0 +1,126 @@
+package yandex.practicum.market.cart;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import yandex.practicum.market.dto.CartQuantities;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.service.CartService;
+import yandex.practicum.market.types.ActionType;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+/**
+ * Изменения корзины пишутся в БД в момент нажатия, отложенных записей нет.
+ * Изменения одной сессии выполняются по очереди под блокировкой ее полосы.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseCartStore implements CartStore {
+    private final CartService cartService;
+    private final CartActivity cartActivity;
+    private final CartLocks cartLocks;
+
+    public DatabaseCartStore(CartService cartService, CartActivity cartActivity, CartLocks cartLocks) {
+        this.cartService = cartService;
+        this.cartActivity = cartActivity;
+        this.cartLocks = cartLocks;
+    }
+
+    @Override
+    public int update(@NonNull String sessionId, @NonNull ItemEntity item, @NonNull ActionType action) {
+        return cartLocks.withLock(sessionId, () -> {
+            // Уменьшать и удалять в корзине, которой нет, нечего - строка корзины не создается
+            Integer quantity = write(sessionId, action == ActionType.PLUS,
+                    cartId -> cartService.updateQuantity(cartId, item, action));
+            return quantity == null ? 0 : quantity;
+        });
+    }
+
+    // Пакет применяется одной транзакцией: ошибка любого изменения откатывает весь пакет
+    @Override
+    public void apply(@NonNull String sessionId, @NonNull List<CartMutation> mutations) {
+        cartLocks.withLock(sessionId, () -> {
+            boolean adds = mutations.stream().anyMatch(CartMutation::adds);
+            return write(sessionId, adds, cartId -> {
+                cartService.apply(cartId, mutations);
+                return Boolean.TRUE;
+            });
+        });
+    }
+
+    @Override
+    public CartQuantities getQuantities(@NonNull String sessionId) {
+        return cartService.getQuantities(sessionId);
+    }
+
+    @Override
+    public BigDecimal getTotalCost(@NonNull String sessionId) {
+        return cartService.getTotalCost(sessionId);
+    }
+
+    @Override
+    public void flush(@NonNull String sessionId) {
+    }
+
+    @Override
+    public void evict(@NonNull String sessionId) {
+    }
+
+    // SQLState нарушения уникальности (H2, PostgreSQL)
+    private static final String UNIQUE_VIOLATION = "23505";
+    // SQLState нарушения внешнего ключа: 23503 (PostgreSQL), 23506 - родительской строки нет (H2)
+    private static final Set<String> FOREIGN_KEY_VIOLATIONS = Set.of("23503", "23506");
+
+    /*
+     * Изменение корзины сессии; null, если корзины нет, а создавать ее не нужно.
+     * Корзина или новый товар одновременно созданы в другом экземпляре приложения: вставка нарушила
+     * уникальность session_id или первичный ключ позиции. Повтор перечитает id корзины и увеличит
+     * уже вставленное количество.
+     * Корзину между чтением ее id и записью позиции удалил CartSweeper: позиция нарушила внешний ключ
+     * на carts. Повтор создаст корзину заново, а уменьшение и удаление в исчезнувшей корзине ничего не делают.
+     * Прочие нарушения целостности не повторяются
+     */
+    private <T> T write(String sessionId, boolean create, LongFunction<T> change) {
+        try {
+            return writeOnce(sessionId, create, change);
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateKey(e) && !hasSqlState(e, FOREIGN_KEY_VIOLATIONS)) {
+                throw e;
+            }
+            return writeOnce(sessionId, create, change);
+        }
+    }
+
+    private <T> T writeOnce(String sessionId, boolean create, LongFunction<T> change) {
+        Optional<Long> cartId = create
+                ? Optional.of(cartService.getOrCreateCartId(sessionId))
+                : cartService.findCartId(sessionId);
+        if (cartId.isEmpty()) {
+            return null;
+        }
+        T result = change.apply(cartId.get());
+        cartActivity.touch(cartId.get());
+        return result;
+    }
+
+    private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        return e instanceof DuplicateKeyException || hasSqlState(e, Set.of(UNIQUE_VIOLATION));
+    }
+
+    private static boolean hasSqlState(DataIntegrityViolationException e, Set<String> sqlStates) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlStates.contains(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,494 @@
+package yandex.practicum.market.cart;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import yandex.practicum.market.dto.CartLinePrice;
+import yandex.practicum.market.dto.CartQuantities;
+import yandex.practicum.market.dto.CartQuantity;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.repository.CartItemRepository;
+import yandex.practicum.market.types.ActionType;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Корзины с отложенной записью (write-behind).
+ * Изменение применяется к копии корзины в памяти и помечает корзину грязной.
+ * Грязные корзины пишутся в БД пакетами по таймеру или при накоплении batch-size корзин,
+ * а принудительно - перед чтением корзины из таблиц (страница корзины, оформление заказа) и при остановке.
+ * Изменения, не записанные до аварийной остановки приложения, теряются.
+ * Корзины разложены по полосам со своими блокировками: нажатия в разных сессиях почти не конкурируют.
+ * Изменения сессии выполняются еще и под ее блокировкой из CartLocks: нажатия ждут окончания оформления заказа,
+ * и изменение не может попасть между сбросом корзины перед заказом и ее удалением из памяти после заказа.
+ * Метрики: cart.write-behind.flush - время сброса, cart.write-behind.batch.size - корзин в пакете,
+ * cart.write-behind.lag - время от первого изменения корзины до ее записи,
+ * cart.write-behind.dirty - грязных корзин, cart.write-behind.flush.failures - неудачных сбросов.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.mode", havingValue = "write-behind")
+public class WriteBehindCartStore implements CartStore {
+    private final CartItemRepository cartItemRepository;
+    private final CartBatchWriter writer;
+    private final CartLocks cartLocks;
+    private final Stripe[] stripes;
+    private final int batchSize;
+    private final long idleTtlNanos;
+
+    // Сбросы идут по одному, чтобы старый снимок корзины не записался поверх нового
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicInteger dirtyCount = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+
+    private final Timer flushTimer;
+    private final Timer lagTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter flushFailures;
+
+    public WriteBehindCartStore(
+            CartItemRepository cartItemRepository,
+            CartBatchWriter writer,
+            CartLocks cartLocks,
+            MeterRegistry meterRegistry,
+            @Value("${cart.write-behind.stripes:64}") int stripeCount,
+            @Value("${cart.write-behind.batch-size:500}") int batchSize,
+            @Value("${cart.write-behind.flush-interval:1s}") Duration flushInterval,
+            @Value("${cart.write-behind.idle-ttl:30m}") Duration idleTtl
+    ) {
+        this.cartItemRepository = cartItemRepository;
+        this.writer = writer;
+        this.cartLocks = cartLocks;
+        this.batchSize = batchSize;
+        this.idleTtlNanos = idleTtl.toNanos();
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+
+        this.flushTimer = Timer.builder("cart.write-behind.flush")
+                .description("Duration of writing dirty carts to the database")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("cart.write-behind.lag")
+                .description("Time from the first unsaved cart change to its write")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("cart.write-behind.batch.size")
+                .description("Carts written in one batch")
+                .baseUnit("carts")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("cart.write-behind.flush.failures")
+                .description("Failed cart batch writes")
+                .register(meterRegistry);
+        Gauge.builder("cart.write-behind.dirty", dirtyCount, AtomicInteger::get)
+                .description("Carts with changes not yet written to the database")
+                .register(meterRegistry);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int update(@NonNull String sessionId, @NonNull ItemEntity item, @NonNull ActionType action) {
+        return mutate(sessionId, cart -> cart.apply(item.getId(), item.getPrice(), action, System.nanoTime()));
+    }
+
+    // Все изменения пакета применяются под одной блокировкой полосы: другие запросы не видят его частично
+    @Override
+    public void apply(@NonNull String sessionId, @NonNull List<CartMutation> mutations) {
+        mutate(sessionId, cart -> {
+            long now = System.nanoTime();
+            for (CartMutation mutation : mutations) {
+                ItemEntity item = mutation.item();
+                if (mutation.action() != null) {
+                    cart.apply(item.getId(), item.getPrice(), mutation.action(), now);
+                } else {
+                    cart.set(item.getId(), item.getPrice(), mutation.quantity(), now);
+                }
+            }
+            return 0;
+        });
+    }
+
+    // Изменение корзины сессии под блокировкой сессии и полосы; корзина, ставшая грязной, учитывается для сброса.
+    // Порядок блокировок: CartLocks, flushLock, полоса. Фоновый сброс CartLocks не берет
+    private int mutate(String sessionId, ToIntFunction<LiveCart> change) {
+        return cartLocks.withLock(sessionId, () -> mutateLocked(sessionId, change));
+    }
+
+    private int mutateLocked(String sessionId, ToIntFunction<LiveCart> change) {
+        Stripe stripe = stripe(sessionId);
+        LiveCart cart = lockCart(stripe, sessionId);
+        int quantity;
+        boolean batchFull = false;
+        try {
+            boolean wasDirty = cart.isDirty();
+            quantity = change.applyAsInt(cart);
+            if (!wasDirty && cart.isDirty()) {
+                stripe.dirty.add(sessionId);
+                batchFull = dirtyCount.incrementAndGet() >= batchSize;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        if (batchFull) {
+            requestFlush();
+        }
+        return quantity;
+    }
+
+    @Override
+    public CartQuantities getQuantities(@NonNull String sessionId) {
+        Stripe stripe = stripe(sessionId);
+        stripe.lock.lock();
+        try {
+            LiveCart cart = stripe.carts.get(sessionId);
+            if (cart != null) {
+                return cart.quantities(System.nanoTime());
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        // Корзина, которой нет в памяти, в БД актуальна
+        return CartQuantities.of(cartItemRepository.findQuantitiesBySessionId(sessionId));
+    }
+
+    // Итог считается по копии корзины в памяти: нажатие на странице корзины не вызывает записи в БД
+    @Override
+    public BigDecimal getTotalCost(@NonNull String sessionId) {
+        Stripe stripe = stripe(sessionId);
+        stripe.lock.lock();
+        try {
+            LiveCart cart = stripe.carts.get(sessionId);
+            if (cart != null) {
+                return cart.totalCost(System.nanoTime());
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        return cartItemRepository.sumCostBySessionId(sessionId);
+    }
+
+    @Override
+    public void flush(@NonNull String sessionId) {
+        flushLock.lock();
+        try {
+            Stripe stripe = stripe(sessionId);
+            Pending pending;
+            stripe.lock.lock();
+            try {
+                pending = take(stripe, sessionId);
+            } finally {
+                stripe.lock.unlock();
+            }
+            if (pending != null) {
+                long start = System.nanoTime();
+                write(List.of(pending));
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void evict(@NonNull String sessionId) {
+        Stripe stripe = stripe(sessionId);
+        stripe.lock.lock();
+        try {
+            LiveCart cart = stripe.carts.remove(sessionId);
+            if (cart != null && cart.isDirty()) {
+                stripe.dirty.remove(sessionId);
+                dirtyCount.decrementAndGet();
+            }
+            stripe.evictions++;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Запись всех грязных корзин пакетами по batch-size; заодно из памяти убираются давно не менявшиеся корзины
+    public void flushAll() {
+        flushLock.lock();
+        try {
+            long start = System.nanoTime();
+            List<Pending> pending = new ArrayList<>();
+            for (Stripe stripe : stripes) {
+                stripe.lock.lock();
+                try {
+                    evictIdle(stripe, start);
+                    for (String sessionId : List.copyOf(stripe.dirty)) {
+                        pending.add(take(stripe, sessionId));
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            int from = 0;
+            try {
+                for (; from < pending.size(); from += batchSize) {
+                    write(pending.subList(from, Math.min(from + batchSize, pending.size())));
+                }
+            } catch (RuntimeException e) {
+                restore(pending.subList(from, pending.size()));
+                throw e;
+            }
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+    }
+
+    int dirtyCount() {
+        return dirtyCount.get();
+    }
+
+    // Ошибка записи не останавливает периодический сброс: изменения остаются в памяти до следующей попытки
+    private void scheduledFlush() {
+        flushRequested.set(false);
+        try {
+            flushAll();
+        } catch (RuntimeException e) {
+            // Учтено в cart.write-behind.flush.failures
+        }
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::scheduledFlush);
+            } catch (RejectedExecutionException e) {
+                // Приложение останавливается: корзины запишет close()
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<CartChanges> changes = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            changes.add(pending.changes());
+        }
+
+        Map<String, Long> cartIds;
+        try {
+            cartIds = writer.write(changes);
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            restore(batch);
+            throw e;
+        }
+        batchSizes.record(batch.size());
+
+        long now = System.nanoTime();
+        for (Pending pending : batch) {
+            lagTimer.record(now - pending.dirtySince(), TimeUnit.NANOSECONDS);
+            String sessionId = pending.changes().sessionId();
+            Stripe stripe = stripe(sessionId);
+            stripe.lock.lock();
+            try {
+                LiveCart cart = stripe.carts.get(sessionId);
+                if (cart != null) {
+                    cart.cartId = cartIds.get(sessionId);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    // Неудачно записанные изменения возвращаются в корзины, не затирая более новые
+    private void restore(List<Pending> batch) {
+        for (Pending pending : batch) {
+            String sessionId = pending.changes().sessionId();
+            Stripe stripe = stripe(sessionId);
+            stripe.lock.lock();
+            try {
+                LiveCart cart = stripe.carts.get(sessionId);
+                if (cart != null && cart.restore(pending.changes().lines(), pending.dirtySince())) {
+                    stripe.dirty.add(sessionId);
+                    dirtyCount.incrementAndGet();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    // Вызывается при захваченной блокировке полосы; null, если у корзины нет несохраненных изменений
+    private Pending take(Stripe stripe, String sessionId) {
+        LiveCart cart = stripe.carts.get(sessionId);
+        if (cart == null || !cart.isDirty()) {
+            return null;
+        }
+        stripe.dirty.remove(sessionId);
+        dirtyCount.decrementAndGet();
+        return cart.take(sessionId);
+    }
+
+    private void evictIdle(Stripe stripe, long now) {
+        stripe.carts.values().removeIf(cart -> !cart.isDirty() && now - cart.lastAccess > idleTtlNanos);
+    }
+
+    // Возвращает корзину сессии при захваченной блокировке полосы; корзина, которой нет в памяти, загружается из БД
+    private LiveCart lockCart(Stripe stripe, String sessionId) {
+        while (true) {
+            stripe.lock.lock();
+            LiveCart cart = stripe.carts.get(sessionId);
+            if (cart != null) {
+                return cart;
+            }
+            long evictions = stripe.evictions;
+            stripe.lock.unlock();
+
+            // БД читается без блокировки; если корзину за это время очистили при заказе, загрузка повторяется
+            List<CartLinePrice> lines = cartItemRepository.findLinePricesBySessionId(sessionId);
+            stripe.lock.lock();
+            cart = stripe.carts.get(sessionId);
+            if (cart != null) {
+                return cart;
+            }
+            if (stripe.evictions == evictions) {
+                cart = new LiveCart(lines, System.nanoTime());
+                stripe.carts.put(sessionId, cart);
+                return cart;
+            }
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripe(String sessionId) {
+        return stripes[Math.floorMod(sessionId.hashCode(), stripes.length)];
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, LiveCart> carts = new HashMap<>();
+        final Set<String> dirty = new LinkedHashSet<>();
+        // Число очисток корзин после заказа: загруженная до очистки копия корзины устарела
+        long evictions;
+    }
+
+    private record Pending(CartChanges changes, long dirtySince) {
+    }
+
+    // Копия корзины в памяти; поля меняются только под блокировкой полосы
+    private static final class LiveCart {
+        private final Map<Long, Integer> quantities = new HashMap<>();
+        // Цены позиций: как и в БД, цена позиции не меняется при изменении количества
+        private final Map<Long, BigDecimal> prices = new HashMap<>();
+        private Map<Long, CartChanges.Line> changes = new HashMap<>();
+        private Long cartId;
+        private long dirtySince;
+        private long lastAccess;
+
+        LiveCart(List<CartLinePrice> loaded, long now) {
+            for (CartLinePrice line : loaded) {
+                quantities.put(line.itemId(), line.quantity());
+                prices.put(line.itemId(), line.price());
+            }
+            lastAccess = now;
+        }
+
+        boolean isDirty() {
+            return !changes.isEmpty();
+        }
+
+        int apply(long itemId, BigDecimal price, ActionType action, long now) {
+            int quantity = quantities.getOrDefault(itemId, 0);
+            int updated = switch (action) {
+                case PLUS -> quantity + 1;
+                case MINUS -> Math.max(0, quantity - 1);
+                case DELETE -> 0;
+            };
+            return set(itemId, price, updated, now);
+        }
+
+        int set(long itemId, BigDecimal price, int updated, long now) {
+            lastAccess = now;
+            int quantity = quantities.getOrDefault(itemId, 0);
+            if (updated == quantity) {
+                return quantity;
+            }
+
+            if (updated == 0) {
+                quantities.remove(itemId);
+                prices.remove(itemId);
+            } else {
+                quantities.put(itemId, updated);
+                prices.putIfAbsent(itemId, price);
+            }
+            if (changes.isEmpty()) {
+                dirtySince = now;
+            }
+            changes.put(itemId, new CartChanges.Line(updated, price));
+            return updated;
+        }
+
+        CartQuantities quantities(long now) {
+            lastAccess = now;
+            List<CartQuantity> result = new ArrayList<>(quantities.size());
+            for (Map.Entry<Long, Integer> quantity : quantities.entrySet()) {
+                result.add(new CartQuantity(quantity.getKey(), quantity.getValue()));
+            }
+            return CartQuantities.of(result);
+        }
+
+        BigDecimal totalCost(long now) {
+            lastAccess = now;
+            BigDecimal total = BigDecimal.ZERO;
+            for (Map.Entry<Long, Integer> quantity : quantities.entrySet()) {
+                total = total.add(prices.get(quantity.getKey()).multiply(BigDecimal.valueOf(quantity.getValue())));
+            }
+            return total;
+        }
+
+        Pending take(String sessionId) {
+            Pending pending = new Pending(new CartChanges(sessionId, cartId, changes), dirtySince);
+            changes = new HashMap<>();
+            return pending;
+        }
+
+        // Возвращает true, если корзина снова стала грязной
+        boolean restore(Map<Long, CartChanges.Line> lines, long since) {
+            boolean wasDirty = isDirty();
+            lines.forEach(changes::putIfAbsent);
+            dirtySince = wasDirty ? Math.min(dirtySince, since) : since;
+            return !wasDirty;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package yandex.practicum.market.catalog;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import yandex.practicum.market.dto.ItemView;
+import yandex.practicum.market.dto.factory.ItemDtoFactory;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Текущий снимок каталога.
+ * Чтение - одно обращение к volatile-ссылке без блокировок и запросов к БД;
+ * изменения каталога публикуют новый снимок с увеличенной версией каталога.
+ */
+@Component
+public class Catalog {
+    private final ItemRepository itemRepository;
+    private final ItemDtoFactory itemDtoFactory;
+    private final CatalogVersion catalogVersion;
+
+    private volatile CatalogSnapshot snapshot;
+
+    public Catalog(ItemRepository itemRepository, ItemDtoFactory itemDtoFactory, CatalogVersion catalogVersion) {
+        this.itemRepository = itemRepository;
+        this.itemDtoFactory = itemDtoFactory;
+        this.catalogVersion = catalogVersion;
+    }
+
+    // Построение снимка по таблице товаров при старте приложения
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<ItemEntity> items = itemRepository.findAll();
+
+        List<CatalogItem> catalogItems = new ArrayList<>(items.size());
+        for (ItemEntity item : items) {
+            catalogItems.add(toCatalogItem(item));
+        }
+        snapshot = CatalogSnapshot.of(catalogVersion.current(), catalogItems);
+    }
+
+    // Публикация снимка с сохраненным товаром; до построения снимка товар попадет в него при загрузке
+    public synchronized void apply(@NonNull ItemEntity item) {
+        long version = catalogVersion.increment();
+        CatalogSnapshot current = snapshot;
+        if (current != null) {
+            snapshot = current.with(version, toCatalogItem(item));
+        }
+    }
+
+    // Снимок или null, пока каталог не загружен
+    @Nullable
+    public CatalogSnapshot snapshot() {
+        return snapshot;
+    }
+
+    private CatalogItem toCatalogItem(ItemEntity item) {
+        String imageUrl = itemDtoFactory.imageUrl(item.getId(), item.getImgPath());
+        return new CatalogItem(ItemView.of(item), imageUrl);
+    }
+}
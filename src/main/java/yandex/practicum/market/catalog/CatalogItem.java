@@ -0,0 +1,23 @@
+package yandex.practicum.market.catalog;
+
+import yandex.practicum.market.dto.ItemView;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.search.TitleCollation;
+
+import java.text.CollationKey;
+
+// Товар в снимке каталога вместе с заранее вычисленными путем к изображению и ключом сортировки названия
+public record CatalogItem(ItemView item, String imageUrl, CollationKey titleKey) {
+
+    public CatalogItem(ItemView item, String imageUrl) {
+        this(item, imageUrl, item.title() == null ? null : TitleCollation.key(item.title()));
+    }
+
+    public long id() {
+        return item.id();
+    }
+
+    public ItemEntity toEntity() {
+        return item.toEntity();
+    }
+}
@@ -0,0 +1,157 @@
+package yandex.practicum.market.catalog;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import yandex.practicum.market.dto.PriceRange;
+import yandex.practicum.market.types.SortType;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Неизменяемый снимок каталога: все товары, упорядоченные для каждого варианта сортировки.
+ * Порядок по названию - по ключам сортировки русской локали, вычисленным при добавлении товара.
+ * Индекс цен повторяет порядок товаров по цене и используется для фильтра и гистограммы цен.
+ * Изменение каталога создает новый снимок, поэтому читатель, получивший снимок,
+ * до конца запроса видит одну и ту же версию каталога.
+ */
+public final class CatalogSnapshot {
+    private static final Comparator<CatalogItem> BY_ID = Comparator.comparingLong(CatalogItem::id);
+    private static final Comparator<CatalogItem> BY_TITLE =
+            Comparator.comparing(CatalogItem::titleKey).thenComparing(BY_ID);
+    private static final Comparator<CatalogItem> BY_PRICE =
+            Comparator.comparing((CatalogItem item) -> item.item().price()).thenComparing(BY_ID);
+
+    private final long version;
+    private final CatalogItem[] byId;
+    private final CatalogItem[] byTitle;
+    private final CatalogItem[] byPrice;
+    private final PriceIndex prices;
+
+    private CatalogSnapshot(long version, CatalogItem[] byId, CatalogItem[] byTitle, CatalogItem[] byPrice) {
+        this.version = version;
+        this.byId = byId;
+        this.byTitle = byTitle;
+        this.byPrice = byPrice;
+        this.prices = PriceIndex.of(byPrice);
+    }
+
+    public static CatalogSnapshot of(long version, @NonNull Collection<CatalogItem> items) {
+        CatalogItem[] byId = items.toArray(new CatalogItem[0]);
+        CatalogItem[] byTitle = byId.clone();
+        CatalogItem[] byPrice = byId.clone();
+        Arrays.sort(byId, BY_ID);
+        Arrays.sort(byTitle, BY_TITLE);
+        Arrays.sort(byPrice, BY_PRICE);
+        return new CatalogSnapshot(version, byId, byTitle, byPrice);
+    }
+
+    // Новый снимок с добавленным или замененным товаром; текущий снимок не меняется
+    public CatalogSnapshot with(long version, @NonNull CatalogItem item) {
+        CatalogItem previous = find(item.id());
+        return new CatalogSnapshot(
+                version,
+                replace(byId, previous, item, BY_ID),
+                replace(byTitle, previous, item, BY_TITLE),
+                replace(byPrice, previous, item, BY_PRICE)
+        );
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return byId.length;
+    }
+
+    public PriceIndex prices() {
+        return prices;
+    }
+
+    @Nullable
+    public CatalogItem find(long id) {
+        int low = 0;
+        int high = byId.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = byId[middle].id();
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return byId[middle];
+            }
+        }
+        return null;
+    }
+
+    public List<CatalogItem> ordered(@NonNull SortType sortType) {
+        // Без поискового запроса релевантность всех товаров одинакова: порядок как у NO
+        CatalogItem[] items = switch (sortType) {
+            case NO, RELEVANCE -> byId;
+            case ALPHA -> byTitle;
+            case PRICE -> byPrice;
+        };
+        return Collections.unmodifiableList(Arrays.asList(items));
+    }
+
+    /**
+     * Товары в диапазоне цен в заданном порядке.
+     * Диапазон - отрезок массива товаров по цене, его границы находятся бинарным поиском;
+     * для других порядков сортируется только этот отрезок.
+     */
+    public List<CatalogItem> ordered(@NonNull SortType sortType, @NonNull PriceRange range) {
+        int from = prices.from(range);
+        int to = prices.to(range);
+        if (from == 0 && to == byPrice.length) {
+            return ordered(sortType);
+        }
+        if (from >= to) {
+            return List.of();
+        }
+
+        List<CatalogItem> inRange = Arrays.asList(byPrice).subList(from, to);
+        if (sortType == SortType.PRICE) {
+            return Collections.unmodifiableList(inRange);
+        }
+        CatalogItem[] items = inRange.toArray(new CatalogItem[0]);
+        Arrays.sort(items, comparator(sortType));
+        return Collections.unmodifiableList(Arrays.asList(items));
+    }
+
+    // Порядок снимка: по ключу сортировки, при равенстве ключей - по id
+    public static Comparator<CatalogItem> comparator(@NonNull SortType sortType) {
+        return switch (sortType) {
+            case NO, RELEVANCE -> BY_ID;
+            case ALPHA -> BY_TITLE;
+            case PRICE -> BY_PRICE;
+        };
+    }
+
+    private static CatalogItem[] replace(
+            CatalogItem[] sorted,
+            @Nullable CatalogItem previous,
+            CatalogItem item,
+            Comparator<CatalogItem> comparator
+    ) {
+        CatalogItem[] source = sorted;
+        if (previous != null) {
+            int removeAt = Arrays.binarySearch(sorted, previous, comparator);
+            source = new CatalogItem[sorted.length - 1];
+            System.arraycopy(sorted, 0, source, 0, removeAt);
+            System.arraycopy(sorted, removeAt + 1, source, removeAt, source.length - removeAt);
+        }
+
+        int insertAt = -Arrays.binarySearch(source, item, comparator) - 1;
+        CatalogItem[] result = new CatalogItem[source.length + 1];
+        System.arraycopy(source, 0, result, 0, insertAt);
+        result[insertAt] = item;
+        System.arraycopy(source, insertAt, result, insertAt + 1, source.length - insertAt);
+        return result;
+    }
+}
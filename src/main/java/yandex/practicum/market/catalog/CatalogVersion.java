@@ -0,0 +1,22 @@
+package yandex.practicum.market.catalog;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версия каталога товаров: увеличивается при каждом изменении каталога.
+ * Кэши, ключи которых содержат версию, перестают отдавать устаревшие данные.
+ */
+@Component
+public class CatalogVersion {
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public long increment() {
+        return version.incrementAndGet();
+    }
+}
@@ -0,0 +1,148 @@
+package yandex.practicum.market.catalog;
+
+import org.springframework.lang.NonNull;
+import yandex.practicum.market.dto.PriceFacet;
+import yandex.practicum.market.dto.PriceRange;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Индекс цен снимка каталога: цены в копейках по возрастанию, в том же порядке, что и товары по цене.
+ * Диапазон цен находится двумя бинарными поисками.
+ * Интервалы гистограммы строятся по квантилям цен каталога, границы округляются до двух значащих цифр рублей.
+ */
+public final class PriceIndex {
+    public static final int BUCKET_COUNT = 5;
+
+    // Границы цен в рублях, представимые в копейках типом long
+    private static final BigDecimal MAX_PRICE = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+    private static final BigDecimal MIN_PRICE = BigDecimal.valueOf(Long.MIN_VALUE, 2);
+
+    private final long[] prices;
+    // Нижние границы интервалов гистограммы в копейках
+    private final long[] bounds;
+
+    private PriceIndex(long[] prices, long[] bounds) {
+        this.prices = prices;
+        this.bounds = bounds;
+    }
+
+    static PriceIndex of(CatalogItem[] byPrice) {
+        long[] prices = new long[byPrice.length];
+        for (int i = 0; i < byPrice.length; i++) {
+            prices[i] = minorUnits(byPrice[i].item().price());
+        }
+        return new PriceIndex(prices, bounds(prices));
+    }
+
+    public static long minorUnits(@NonNull BigDecimal price) {
+        return minorUnits(price, RoundingMode.HALF_UP);
+    }
+
+    public int size() {
+        return prices.length;
+    }
+
+    // Позиция первого товара в диапазоне цен (в порядке по цене)
+    public int from(@NonNull PriceRange range) {
+        return range.min() == null ? 0 : lowerBound(prices, boundUnits(range.min(), RoundingMode.CEILING));
+    }
+
+    // Позиция после последнего товара в диапазоне цен
+    public int to(@NonNull PriceRange range) {
+        if (range.max() == null) {
+            return prices.length;
+        }
+        long max = boundUnits(range.max(), RoundingMode.FLOOR);
+        return max == Long.MAX_VALUE ? prices.length : lowerBound(prices, max + 1);
+    }
+
+    // Гистограмма цен всего каталога
+    public List<PriceFacet> facets() {
+        return facets(prices);
+    }
+
+    // Гистограмма подмножества товаров с интервалами каталога. Цены подмножества (в копейках, по возрастанию)
+    // собирает и сортирует вызывающий; здесь на каждый интервал выполняются только два бинарных поиска
+    public List<PriceFacet> facets(long[] sortedPrices) {
+        List<PriceFacet> facets = new ArrayList<>(bounds.length);
+        for (int i = 0; i < bounds.length; i++) {
+            boolean last = i + 1 == bounds.length;
+            // Цены ниже первой границы (товары, добавленные после построения снимка) попадают в первый интервал
+            int from = i == 0 ? 0 : lowerBound(sortedPrices, bounds[i]);
+            int to = last ? sortedPrices.length : lowerBound(sortedPrices, bounds[i + 1]);
+            facets.add(new PriceFacet(
+                    toPrice(bounds[i]),
+                    last ? null : toPrice(bounds[i + 1] - 1),
+                    to - from
+            ));
+        }
+        return facets;
+    }
+
+    private static long[] bounds(long[] prices) {
+        if (prices.length == 0) {
+            return new long[]{0};
+        }
+
+        long[] bounds = new long[BUCKET_COUNT];
+        bounds[0] = roundDown(prices[0]);
+        int count = 1;
+        for (int i = 1; i < BUCKET_COUNT; i++) {
+            long bound = roundDown(prices[(int) ((long) prices.length * i / BUCKET_COUNT)]);
+            if (bound > bounds[count - 1]) {
+                bounds[count++] = bound;
+            }
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    // Округление вниз до двух значащих цифр рублей: 1234,56 -> 1200,00
+    static long roundDown(long minorUnits) {
+        long units = minorUnits / 100;
+        long step = 1;
+        while (units / step >= 100) {
+            step *= 10;
+        }
+        return units / step * step * 100;
+    }
+
+    // Первая позиция со значением не меньше key
+    private static int lowerBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long minorUnits(BigDecimal price, RoundingMode roundingMode) {
+        return price.movePointRight(2).setScale(0, roundingMode).longValueExact();
+    }
+
+    // Граница фильтра приходит из запроса: значения вне диапазона long прижимаются к его краям.
+    // Сравнение выполняется до перевода в копейки, чтобы огромный порядок (1e999999) не раскрывался в число
+    private static long boundUnits(BigDecimal price, RoundingMode roundingMode) {
+        if (price.compareTo(MAX_PRICE) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (price.compareTo(MIN_PRICE) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        return minorUnits(price, roundingMode);
+    }
+
+    private static BigDecimal toPrice(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, 2);
+    }
+}
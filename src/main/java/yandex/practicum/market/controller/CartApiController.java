@@ -0,0 +1,31 @@
+package yandex.practicum.market.controller;
+
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.bind.annotation.*;
+
+import yandex.practicum.market.dto.CartOperation;
+import yandex.practicum.market.dto.CartView;
+import yandex.practicum.market.service.CartOperationService;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@RestController
+@RequestMapping("/api/cart")
+public class CartApiController {
+
+    private final CartOperationService cartOperationService;
+
+    public CartApiController(CartOperationService cartOperationService) {
+        this.cartOperationService = cartOperationService;
+    }
+
+    // Пакет изменений корзины сессии одним запросом: [{"itemId": 1, "action": "PLUS"}, {"itemId": 2, "quantity": 20}]
+    @PostMapping("/items")
+    public CartView updateCart(
+            @RequestBody List<CartOperation> operations,
+            HttpSession session
+    ) throws NoSuchElementException {
+        return cartOperationService.updateCart(session.getId(), operations);
+    }
+}
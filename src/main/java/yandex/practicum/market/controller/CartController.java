@@ -8,11 +8,11 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import yandex.practicum.market.entity.CartEntity;
-import yandex.practicum.market.dto.ItemDto;
+import yandex.practicum.market.cart.CartStore;
+import yandex.practicum.market.dto.CartUpdate;
+import yandex.practicum.market.dto.CartView;
 import yandex.practicum.market.service.CartOperationService;
 import yandex.practicum.market.types.ActionType;
-import yandex.practicum.market.service.CartService;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -21,25 +21,27 @@ import yandex.practicum.market.types.SortType;
 
 @Controller
 public class CartController {
+    private static final String XHR = "X-Requested-With=XMLHttpRequest";
 
-    private final CartService cartService;
     private final CartOperationService cartOperationService;
+    private final CartStore cartStore;
 
-    public CartController(CartService cartService, CartOperationService cartOperationService) {
-        this.cartService = cartService;
+    public CartController(CartOperationService cartOperationService, CartStore cartStore) {
         this.cartOperationService = cartOperationService;
+        this.cartStore = cartStore;
     }
 
     @GetMapping("/cart/items")
     public String showCart(Model model, HttpSession session) {
         String sessionId = session.getId();
-        CartEntity cartEntity = cartService.getOrCreateSessionById(sessionId);
-        List<ItemDto> items = cartOperationService.getItemDtos(cartEntity);
-        BigDecimal totalCost = cartService.getCartTotalCostBySessionId(cartEntity.getId());
+        // Страница строится по таблицам корзины, поэтому отложенные изменения записываются до чтения
+        cartStore.flush(sessionId);
+        // Просмотр не создает корзину: у новой сессии корзина пуста
+        CartView cart = cartOperationService.getCart(sessionId);
 
-        model.addAttribute("items", items);
-        model.addAttribute("total", totalCost);
-        model.addAttribute("empty", items.isEmpty());
+        model.addAttribute("items", cart.items());
+        model.addAttribute("total", cart.totalCost());
+        model.addAttribute("empty", cart.isEmpty());
 
         return "cart";
     }
@@ -51,6 +53,9 @@ public class CartController {
             @RequestParam(name = "sort", defaultValue = "NO") SortType sortType,
             @RequestParam(defaultValue = "10") int pageSize,
             @RequestParam(defaultValue = "1") int pageNumber,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam ActionType action,
             HttpSession session,
             RedirectAttributes redirectAttributes
@@ -61,6 +66,16 @@ public class CartController {
         redirectAttributes.addAttribute("sort", sortType);
         redirectAttributes.addAttribute("pageSize", pageSize);
         redirectAttributes.addAttribute("pageNumber", pageNumber);
+        if (minPrice != null) {
+            redirectAttributes.addAttribute("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            redirectAttributes.addAttribute("maxPrice", maxPrice);
+        }
+        // Возврат на ту же keyset-страницу
+        if (cursor != null && !cursor.isEmpty()) {
+            redirectAttributes.addAttribute("cursor", cursor);
+        }
         return "redirect:/items";
     }
 
@@ -87,4 +102,40 @@ public class CartController {
 
         return "redirect:/items/" + id;
     }
+
+    /*
+     * Те же кнопки корзины, нажатые из скрипта страницы (заголовок X-Requested-With):
+     * вместо переадресации с повторным построением страницы возвращается только новое количество товара.
+     * Итог корзины считается только для страницы корзины - витрина и карточка товара его не показывают.
+     */
+
+    @PostMapping(value = "/items", headers = XHR)
+    @ResponseBody
+    public CartUpdate updateCartByMainPageXhr(
+            @RequestParam @NonNull Long id,
+            @RequestParam ActionType action,
+            HttpSession session
+    ) throws NoSuchElementException {
+        return new CartUpdate(id, cartOperationService.updateCart(session.getId(), id, action), null);
+    }
+
+    @PostMapping(value = "/cart/items", headers = XHR)
+    @ResponseBody
+    public CartUpdate updateCartByCartPageXhr(
+            @RequestParam @NonNull Long id,
+            @RequestParam ActionType action,
+            HttpSession session
+    ) throws NoSuchElementException {
+        return cartOperationService.updateCartWithTotal(session.getId(), id, action);
+    }
+
+    @PostMapping(value = "/items/{id}", headers = XHR)
+    @ResponseBody
+    public CartUpdate updateCartByItemPageXhr(
+            @PathVariable Long id,
+            @RequestParam ActionType action,
+            HttpSession session
+    ) throws NoSuchElementException {
+        return new CartUpdate(id, cartOperationService.updateCart(session.getId(), id, action), null);
+    }
 }
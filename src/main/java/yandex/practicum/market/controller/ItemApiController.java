@@ -0,0 +1,27 @@
+package yandex.practicum.market.controller;
+
+import org.springframework.web.bind.annotation.*;
+
+import yandex.practicum.market.search.ItemSuggestIndex;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/items")
+public class ItemApiController {
+
+    private final ItemSuggestIndex suggestIndex;
+
+    public ItemApiController(ItemSuggestIndex suggestIndex) {
+        this.suggestIndex = suggestIndex;
+    }
+
+    // Подсказки для строки поиска: названия товаров, начинающиеся с q
+    @GetMapping("/suggest")
+    public List<String> suggest(
+            @RequestParam(name = "q", defaultValue = "") String query,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return suggestIndex.suggest(query, limit);
+    }
+}
@@ -1,7 +1,7 @@
 package yandex.practicum.market.controller;
 
 import jakarta.servlet.http.HttpSession;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -14,8 +14,13 @@ import yandex.practicum.market.service.ItemOperationService;
 import yandex.practicum.market.service.ItemService;
 import yandex.practicum.market.types.SortType;
 import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.dto.CursorPage;
 import yandex.practicum.market.dto.ItemDto;
+import yandex.practicum.market.dto.PageCursor;
 import yandex.practicum.market.dto.PagingDto;
+import yandex.practicum.market.dto.PriceRange;
+
+import java.math.BigDecimal;
 
 import java.util.*;
 
@@ -36,22 +41,41 @@ public class ItemController {
             @RequestParam(name = "sort", defaultValue = "NO") SortType sortType,
             @RequestParam(defaultValue = "10") int pageSize,
             @RequestParam(defaultValue = "1") int pageNumber,
+            @RequestParam(name = "cursor", required = false) String cursorToken,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
             Model model,
             HttpSession session
     ) {
-        Sort sort = SortType.toSort(sortType);
         String sessionId = session.getId();
-        Pageable pageable = PageRequest.of(pageNumber - 1, pageSize, sort);
-
-        Page<ItemEntity> page = itemService.getItems(searchTerm, pageable);
+        PriceRange priceRange = new PriceRange(minPrice, maxPrice);
+        int queryHash = PageCursor.queryHash(searchTerm, priceRange);
+        // С фильтром по цене страницы выбираются по номеру, без курсора
+        PageCursor cursor = priceRange.isBounded() ? null : PageCursor.decode(cursorToken, sortType, queryHash);
 
-        PagingDto pagingDto = PagingDto.of(page);
+        List<ItemEntity> items;
+        PagingDto pagingDto;
+        if (cursor != null) {
+            // Keyset-режим: страница до/после курсора
+            CursorPage<ItemEntity> page = itemService.getItems(searchTerm, cursor, pageSize);
+            items = page.content();
+            pagingDto = PagingDto.of(page, cursor, pageSize);
+        } else {
+            Sort sort = SortType.toSort(sortType);
+            Pageable pageable = PageRequest.of(pageNumber - 1, pageSize, sort);
+            Slice<ItemEntity> page = itemService.getItems(searchTerm, priceRange, pageable);
+            items = page.getContent();
+            pagingDto = priceRange.isBounded() ? PagingDto.of(page) : PagingDto.of(page, sortType, queryHash);
+        }
         model.addAttribute("paging", pagingDto);
 
-        List<List<ItemDto>> listOfListItemDto = itemOperationService.getListOfListItemDto(sessionId, page);
+        List<List<ItemDto>> listOfListItemDto = itemOperationService.getListOfListItemDto(sessionId, items);
         model.addAttribute("items", listOfListItemDto);
         model.addAttribute("search", searchTerm);
         model.addAttribute("sort", sortType);
+        model.addAttribute("minPrice", minPrice);
+        model.addAttribute("maxPrice", maxPrice);
+        model.addAttribute("priceFacets", itemService.getPriceFacets(searchTerm));
 
         return "main";
     }
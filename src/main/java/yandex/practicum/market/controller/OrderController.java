@@ -1,62 +1,58 @@
 package yandex.practicum.market.controller;
 
 import jakarta.servlet.http.HttpSession;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
-import yandex.practicum.market.entity.CartEntity;
 import yandex.practicum.market.entity.OrderEntity;
 import yandex.practicum.market.dto.OrderDto;
+import yandex.practicum.market.dto.OrderSummary;
+import yandex.practicum.market.dto.PagingDto;
 import yandex.practicum.market.dto.factory.OrderDtoFactory;
-import yandex.practicum.market.service.CartService;
+import yandex.practicum.market.service.CheckoutService;
 import yandex.practicum.market.service.OrderService;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.NoSuchElementException;
 
 @Controller
 public class OrderController {
 
     private final OrderService orderService;
-    private final CartService cartService;
+    private final CheckoutService checkoutService;
     private final OrderDtoFactory orderDtoFactory;
 
-    public OrderController(OrderService orderService, CartService cartService, OrderDtoFactory orderDtoFactory) {
+    public OrderController(
+            OrderService orderService,
+            CheckoutService checkoutService,
+            OrderDtoFactory orderDtoFactory
+    ) {
         this.orderService = orderService;
-        this.cartService = cartService;
+        this.checkoutService = checkoutService;
         this.orderDtoFactory = orderDtoFactory;
     }
 
     @PostMapping("/buy")
     public String buyItems(HttpSession session) {
-        String sessionId = session.getId();
-        CartEntity cart = cartService.getOrCreateSessionById(sessionId);
-
-        OrderEntity order = orderService.buy(cart);
-        cartService.clear(cart);
+        OrderEntity order = checkoutService.checkout(session.getId());
 
         return "redirect:/orders/" + order.getId() + "?newOrder=true";
     }
 
     // Список заказов
     @GetMapping("/orders")
-    public String showOrders(Model model, HttpSession session) {
-        String sessionId = session.getId();
-        CartEntity cartEntity = cartService.getOrCreateSessionById(sessionId);
-
-        List<OrderEntity> orders = orderService.getAllOrdersBySessionId(cartEntity.getId());
-        List<OrderDto> orderDTOs = new ArrayList<>(orders.size());
-
-        for (OrderEntity order : orders) {
-            BigDecimal totalCost = orderService.getOrderTotalCost(order.getId());
-            OrderDto orderDto = orderDtoFactory.of(order, totalCost);
-            orderDTOs.add(orderDto);
-        }
+    public String showOrders(
+            @RequestParam(defaultValue = "20") int pageSize,
+            @RequestParam(defaultValue = "1") int pageNumber,
+            Model model,
+            HttpSession session
+    ) {
+        Slice<OrderSummary> orders = orderService.getOrderSummaries(session.getId(), PageRequest.of(pageNumber - 1, pageSize));
 
-        model.addAttribute("orders", orderDTOs);
+        model.addAttribute("orders", orders.getContent());
+        model.addAttribute("paging", PagingDto.of(orders));
 
         return "orders";
     }
@@ -68,9 +64,7 @@ public class OrderController {
             @RequestParam(defaultValue = "false") boolean newOrder,
             Model model
     ) throws NoSuchElementException {
-        OrderEntity order = orderService.getOrder(id);
-        BigDecimal totalCost = orderService.getOrderTotalCost(order.getId());
-        OrderDto orderDto = orderDtoFactory.of(order, totalCost);
+        OrderDto orderDto = orderDtoFactory.of(id, orderService.getOrderLines(id));
 
         model.addAttribute("order", orderDto);
         model.addAttribute("newOrder", newOrder);
@@ -0,0 +1,18 @@
+package yandex.practicum.market.dto;
+
+import java.math.BigDecimal;
+
+// Позиция корзины с данными товара: проекция для страницы корзины без загрузки сущностей
+public record CartLine(
+        Long itemId,
+        String title,
+        String description,
+        String imgPath,
+        Integer quantity,
+        BigDecimal price
+) {
+
+    public BigDecimal cost() {
+        return price.multiply(BigDecimal.valueOf(quantity));
+    }
+}
@@ -0,0 +1,7 @@
+package yandex.practicum.market.dto;
+
+import java.math.BigDecimal;
+
+// Количество товара в корзине и цена позиции на момент добавления: проекция для копии корзины в памяти
+public record CartLinePrice(Long itemId, Integer quantity, BigDecimal price) {
+}
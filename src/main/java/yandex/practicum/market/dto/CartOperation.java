@@ -0,0 +1,7 @@
+package yandex.practicum.market.dto;
+
+import yandex.practicum.market.types.ActionType;
+
+// Операция пакетного изменения корзины: указывается либо действие, либо абсолютное количество товара
+public record CartOperation(Long itemId, ActionType action, Integer quantity) {
+}
@@ -0,0 +1,76 @@
+package yandex.practicum.market.dto;
+
+import org.springframework.lang.NonNull;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Количества товаров в корзине по id товара.
+ * Неизменяемая таблица с открытой адресацией и примитивными ключами: поиск без упаковки id и вычисления хэшей сущностей.
+ */
+public final class CartQuantities {
+    public static final CartQuantities EMPTY = of(List.of());
+
+    private final long[] keys;
+    private final int[] quantities;
+    private final int mask;
+    private final int size;
+
+    private CartQuantities(long[] keys, int[] quantities, int size) {
+        this.keys = keys;
+        this.quantities = quantities;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    public static CartQuantities of(@NonNull Collection<CartQuantity> cartQuantities) {
+        // Заполнение таблицы не выше половины, чтобы цепочки пробирования оставались короткими
+        int tableSize = Integer.highestOneBit(Math.max(2, cartQuantities.size() * 2 - 1)) << 1;
+        long[] keys = new long[tableSize];
+        int[] quantities = new int[tableSize];
+
+        int size = 0;
+        for (CartQuantity cartQuantity : cartQuantities) {
+            if (cartQuantity.quantity() <= 0) {
+                continue;
+            }
+            long itemId = cartQuantity.itemId();
+            int index = slot(itemId, tableSize - 1);
+            // Нулевое количество - признак свободной ячейки
+            while (quantities[index] != 0 && keys[index] != itemId) {
+                index = (index + 1) & (tableSize - 1);
+            }
+            if (quantities[index] == 0) {
+                size++;
+            }
+            keys[index] = itemId;
+            quantities[index] = cartQuantity.quantity();
+        }
+        return new CartQuantities(keys, quantities, size);
+    }
+
+    // Количество товара в корзине; 0, если товара в корзине нет
+    public int get(long itemId) {
+        for (int index = slot(itemId, mask); quantities[index] != 0; index = (index + 1) & mask) {
+            if (keys[index] == itemId) {
+                return quantities[index];
+            }
+        }
+        return 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Перемешивание битов id: последовательные id равномерно распределяются по ячейкам
+    private static int slot(long itemId, int mask) {
+        long h = itemId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 29)) & mask;
+    }
+}
@@ -0,0 +1,5 @@
+package yandex.practicum.market.dto;
+
+// Количество товара в корзине: проекция позиции корзины без загрузки сущностей
+public record CartQuantity(Long itemId, Integer quantity) {
+}
@@ -0,0 +1,7 @@
+package yandex.practicum.market.dto;
+
+import java.math.BigDecimal;
+
+// Ответ на нажатие кнопки корзины без перезагрузки страницы: новое количество товара и итог корзины (null, если не нужен)
+public record CartUpdate(Long itemId, int count, BigDecimal total) {
+}
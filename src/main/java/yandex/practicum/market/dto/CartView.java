@@ -0,0 +1,13 @@
+package yandex.practicum.market.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Страница корзины: позиции и итоговая сумма
+public record CartView(List<ItemDto> items, BigDecimal totalCost) {
+    public static final CartView EMPTY = new CartView(List.of(), BigDecimal.ZERO);
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -0,0 +1,7 @@
+package yandex.practicum.market.dto;
+
+import java.util.List;
+
+// Страница keyset-пагинации: без номера страницы и общего количества
+public record CursorPage<T>(List<T> content, boolean hasPrevious, boolean hasNext) {
+}
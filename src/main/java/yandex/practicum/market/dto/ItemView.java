@@ -0,0 +1,21 @@
+package yandex.practicum.market.dto;
+
+import org.springframework.lang.NonNull;
+import yandex.practicum.market.entity.ItemEntity;
+
+import java.math.BigDecimal;
+
+/**
+ * Неизменяемое представление товара для кэша и проекций запросов каталога.
+ * Потребители получают собственную копию сущности через toEntity.
+ */
+public record ItemView(long id, String title, String description, String imgPath, BigDecimal price) {
+
+    public static ItemView of(@NonNull ItemEntity item) {
+        return new ItemView(item.getId(), item.getTitle(), item.getDescription(), item.getImgPath(), item.getPrice());
+    }
+
+    public ItemEntity toEntity() {
+        return new ItemEntity(id, title, description, imgPath, price);
+    }
+}
@@ -0,0 +1,19 @@
+package yandex.practicum.market.dto;
+
+import java.math.BigDecimal;
+
+// Позиция заказа с данными товара: проекция для страниц заказов без загрузки сущностей
+public record OrderLine(
+        Long orderId,
+        Long itemId,
+        String title,
+        String description,
+        String imgPath,
+        Integer quantity,
+        BigDecimal price
+) {
+
+    public BigDecimal cost() {
+        return price.multiply(BigDecimal.valueOf(quantity));
+    }
+}
@@ -0,0 +1,11 @@
+package yandex.practicum.market.dto;
+
+import java.math.BigDecimal;
+
+// Строка истории заказов: итоги берутся из самого заказа без чтения позиций
+public record OrderSummary(
+        Long id,
+        BigDecimal totalCost,
+        Integer itemCount
+) {
+}
@@ -0,0 +1,120 @@
+package yandex.practicum.market.dto;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.search.SearchTokenizer;
+import yandex.practicum.market.types.SortType;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Курсор keyset-пагинации: последний (или первый) показанный ключ сортировки.
+ * NO - id, ALPHA - (title, id), PRICE - (price, id).
+ * У порядка по релевантности нет ключа для курсора: его страницы выбираются по номеру.
+ * Курсор хранит хеш поискового запроса и фильтра цены, по которым он построен.
+ * Передается клиенту как непрозрачный токен.
+ */
+public record PageCursor(
+        SortType sortType,
+        Direction direction,
+        int queryHash,
+        int pageNumber,
+        long id,
+        @Nullable String title,
+        @Nullable BigDecimal price
+) {
+    private static final String SEPARATOR = "|";
+
+    public enum Direction {
+        NEXT, PREVIOUS
+    }
+
+    // Курсор на страницу после последнего товара текущей страницы
+    public static PageCursor next(@NonNull SortType sortType, int queryHash, int pageNumber, @NonNull ItemEntity lastItem) {
+        return of(sortType, Direction.NEXT, queryHash, pageNumber, lastItem);
+    }
+
+    // Курсор на страницу перед первым товаром текущей страницы
+    public static PageCursor previous(@NonNull SortType sortType, int queryHash, int pageNumber, @NonNull ItemEntity firstItem) {
+        return of(sortType, Direction.PREVIOUS, queryHash, pageNumber, firstItem);
+    }
+
+    private static PageCursor of(SortType sortType, Direction direction, int queryHash, int pageNumber, ItemEntity item) {
+        String title = sortType == SortType.ALPHA ? item.getTitle() : null;
+        BigDecimal price = sortType == SortType.PRICE ? item.getPrice() : null;
+        return new PageCursor(sortType, direction, queryHash, pageNumber, item.getId(), title, price);
+    }
+
+    // Хеш запроса и фильтра: запросы, отличающиеся только регистром, дают одни и те же результаты
+    public static int queryHash(@Nullable String searchTerm, @NonNull PriceRange priceRange) {
+        String query = String.join(SEPARATOR,
+                SearchTokenizer.normalize(searchTerm == null ? null : searchTerm.strip()),
+                bound(priceRange.min()),
+                bound(priceRange.max()));
+        return query.hashCode();
+    }
+
+    public boolean isNext() {
+        return direction == Direction.NEXT;
+    }
+
+    public String encode() {
+        String key = switch (sortType) {
+            case ALPHA -> title;
+            case PRICE -> price.toPlainString();
+            case NO, RELEVANCE -> "";
+        };
+        String raw = String.join(SEPARATOR, sortType.name(), direction.name(), Integer.toHexString(queryHash),
+                Integer.toString(pageNumber), Long.toString(id), key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Разбор токена; некорректный токен - IllegalArgumentException
+    public static PageCursor decode(@NonNull String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\|", 6);
+        if (parts.length != 6) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+
+        SortType sortType = SortType.valueOf(parts[0]);
+        Direction direction = Direction.valueOf(parts[1]);
+        int queryHash = Integer.parseUnsignedInt(parts[2], 16);
+        int pageNumber = Integer.parseInt(parts[3]);
+        long id = Long.parseLong(parts[4]);
+        String title = sortType == SortType.ALPHA ? parts[5] : null;
+        BigDecimal price = sortType == SortType.PRICE ? new BigDecimal(parts[5]) : null;
+
+        return new PageCursor(sortType, direction, queryHash, pageNumber, id, title, price);
+    }
+
+    /**
+     * Курсор из запроса; поврежденный курсор, курсор от другой сортировки или от другого запроса и фильтра
+     * игнорируется - страница выбирается по номеру. Кнопки листания отправляют всю форму поиска,
+     * поэтому новый запрос с курсором старого открывает первую страницу новых результатов.
+     */
+    @Nullable
+    public static PageCursor decode(@Nullable String token, @NonNull SortType sortType, int queryHash) {
+        if (token == null || token.isEmpty() || sortType == SortType.RELEVANCE) {
+            return null;
+        }
+
+        PageCursor cursor;
+        try {
+            cursor = decode(token);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (cursor.sortType() != sortType || cursor.queryHash() != queryHash) {
+            return null;
+        }
+        return cursor;
+    }
+
+    private static String bound(@Nullable BigDecimal price) {
+        return price == null ? "" : price.stripTrailingZeros().toPlainString();
+    }
+}
@@ -3,7 +3,11 @@ package yandex.practicum.market.dto;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.types.SortType;
+
+import java.util.List;
 
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class PagingDto {
@@ -11,6 +15,10 @@ public class PagingDto {
     private int pageSize;
     private boolean hasNext;
     private boolean hasPrevious;
+    // Токены keyset-пагинации: текущей, предыдущей и следующей страниц
+    private String cursor;
+    private String previousCursor;
+    private String nextCursor;
 
     public int pageNumber() {
         return oneBasedPageNumber;
@@ -28,13 +36,59 @@ public class PagingDto {
         return hasPrevious;
     }
 
-    public static PagingDto of(@NonNull Page<?> page) {
+    public String cursor() {
+        return cursor;
+    }
+
+    public String previousCursor() {
+        return previousCursor;
+    }
+
+    public String nextCursor() {
+        return nextCursor;
+    }
+
+    public static PagingDto of(@NonNull Slice<?> page) {
         int zeroBasedPageNumber = page.getNumber();
         int oneBasedPageNumber = zeroBasedPageNumber + 1;
         int pageSize = page.getSize();
         boolean hasNext = page.hasNext();
         boolean hasPrevious = page.hasPrevious();
 
-        return new PagingDto(oneBasedPageNumber, pageSize, hasNext, hasPrevious);
+        return new PagingDto(oneBasedPageNumber, pageSize, hasNext, hasPrevious, null, null, null);
+    }
+
+    // queryHash - хеш запроса и фильтра страницы (PageCursor.queryHash), он попадает в курсоры соседних страниц
+    public static PagingDto of(@NonNull Slice<ItemEntity> page, @NonNull SortType sortType, int queryHash) {
+        int oneBasedPageNumber = page.getNumber() + 1;
+        return of(sortType, queryHash, oneBasedPageNumber, page.getSize(), page.hasPrevious(), page.hasNext(), null, page.getContent());
+    }
+
+    public static PagingDto of(@NonNull CursorPage<ItemEntity> page, @NonNull PageCursor cursor, int pageSize) {
+        return of(cursor.sortType(), cursor.queryHash(), cursor.pageNumber(), pageSize, page.hasPrevious(), page.hasNext(), cursor.encode(), page.content());
+    }
+
+    private static PagingDto of(
+            SortType sortType,
+            int queryHash,
+            int oneBasedPageNumber,
+            int pageSize,
+            boolean hasPrevious,
+            boolean hasNext,
+            String cursor,
+            List<ItemEntity> items
+    ) {
+        String previousCursor = null;
+        String nextCursor = null;
+        if (!items.isEmpty() && sortType != SortType.RELEVANCE) {
+            if (hasPrevious) {
+                previousCursor = PageCursor.previous(sortType, queryHash, oneBasedPageNumber - 1, items.get(0)).encode();
+            }
+            if (hasNext) {
+                nextCursor = PageCursor.next(sortType, queryHash, oneBasedPageNumber + 1, items.get(items.size() - 1)).encode();
+            }
+        }
+
+        return new PagingDto(oneBasedPageNumber, pageSize, hasNext, hasPrevious, cursor, previousCursor, nextCursor);
     }
 }
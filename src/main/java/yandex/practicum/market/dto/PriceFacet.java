@@ -0,0 +1,9 @@
+package yandex.practicum.market.dto;
+
+import org.springframework.lang.Nullable;
+
+import java.math.BigDecimal;
+
+// Интервал гистограммы цен: границы включительные, у последнего интервала нет верхней границы
+public record PriceFacet(BigDecimal minPrice, @Nullable BigDecimal maxPrice, long count) {
+}
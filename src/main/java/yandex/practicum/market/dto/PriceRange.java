@@ -0,0 +1,19 @@
+package yandex.practicum.market.dto;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.math.BigDecimal;
+
+// Фильтр по цене; обе границы включительные и необязательные
+public record PriceRange(@Nullable BigDecimal min, @Nullable BigDecimal max) {
+    public static final PriceRange ANY = new PriceRange(null, null);
+
+    public boolean isBounded() {
+        return min != null || max != null;
+    }
+
+    public boolean contains(@NonNull BigDecimal price) {
+        return (min == null || price.compareTo(min) >= 0) && (max == null || price.compareTo(max) <= 0);
+    }
+}
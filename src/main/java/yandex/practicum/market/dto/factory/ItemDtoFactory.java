@@ -5,7 +5,9 @@ import lombok.Setter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
+import yandex.practicum.market.catalog.CatalogItem;
 import yandex.practicum.market.dto.ItemDto;
+import yandex.practicum.market.dto.ItemView;
 import yandex.practicum.market.entity.ItemEntity;
 
 import java.math.BigDecimal;
@@ -28,9 +30,7 @@ public class ItemDtoFactory {
         Long id = item.getId();
         String title = item.getTitle();
         String description = item.getDescription();
-
-        String itemImgPath = item.getImgPath();
-        String imgPath = itemImgPath == null ? null : imagesDir.resolve(Long.toString(id)).resolve(itemImgPath).toString();
+        String imgPath = imageUrl(id, item.getImgPath());
 
         return new ItemDto(id, title, description, imgPath, quantity, price);
     }
@@ -39,4 +39,14 @@ public class ItemDtoFactory {
         return of(item, quantity, item.getPrice());
     }
 
+    // Товар из снимка каталога: путь к изображению уже вычислен
+    public ItemDto of(@NonNull CatalogItem catalogItem, @NonNull Integer quantity) {
+        ItemView item = catalogItem.item();
+        return new ItemDto(item.id(), item.title(), item.description(), catalogItem.imageUrl(), quantity, item.price());
+    }
+
+    public String imageUrl(Long id, String itemImgPath) {
+        return itemImgPath == null ? null : imagesDir.resolve(Long.toString(id)).resolve(itemImgPath).toString();
+    }
+
 }
@@ -4,13 +4,10 @@ import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import yandex.practicum.market.dto.ItemDto;
 import yandex.practicum.market.dto.OrderDto;
-import yandex.practicum.market.entity.ItemEntity;
-import yandex.practicum.market.entity.OrderEntity;
-import yandex.practicum.market.entity.OrderItemEntity;
+import yandex.practicum.market.dto.OrderLine;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
 @Component
@@ -22,24 +19,21 @@ public class OrderDtoFactory {
         this.itemDtoFactory = itemDtoFactory;
     }
 
-    public OrderDto of(@NonNull OrderEntity order, BigDecimal totalCost) {
+    // Заказ из позиций-проекций: итоговая сумма считается по позициям без отдельного запроса
+    public OrderDto of(@NonNull Long orderId, @NonNull List<OrderLine> lines) {
         OrderDto orderDto = new OrderDto();
-        orderDto.setId(order.getId());
+        orderDto.setId(orderId);
 
-        Collection<OrderItemEntity> orderDetails = order.getItems().values();
-        List<ItemDto> items = new ArrayList<>(orderDetails.size());
+        List<ItemDto> items = new ArrayList<>(lines.size());
+        BigDecimal totalCost = BigDecimal.ZERO;
 
-        for (OrderItemEntity orderDetail : orderDetails) {
-            ItemEntity item = orderDetail.getItem();
-            Integer quantity = orderDetail.getQuantity();
-            BigDecimal price = orderDetail.getPrice();
-            ItemDto itemDto = itemDtoFactory.of(item, quantity, price);
-            items.add(itemDto);
+        for (OrderLine line : lines) {
+            String imgPath = itemDtoFactory.imageUrl(line.itemId(), line.imgPath());
+            items.add(new ItemDto(line.itemId(), line.title(), line.description(), imgPath, line.quantity(), line.price()));
+            totalCost = totalCost.add(line.cost());
         }
 
         orderDto.setItems(items);
-
-        // Подсчет итоговой суммы заказа
         orderDto.setTotalCost(totalCost);
 
         return orderDto;
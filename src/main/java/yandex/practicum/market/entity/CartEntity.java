@@ -1,18 +1,20 @@
 package yandex.practicum.market.entity;
 
 import jakarta.persistence.*;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
-import org.springframework.lang.NonNull;
+import lombok.Setter;
+import lombok.ToString;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Entity
 @Table(name = "carts")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
-@EqualsAndHashCode
 public class CartEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,9 +23,20 @@ public class CartEntity {
     @Column(name = "session_id", unique = true, nullable = false, length = 64)
     private String sessionId;
 
+    // Время последнего изменения корзины; пишется не чаще раза в cart.activity.granularity
+    @Column(name = "last_activity", nullable = false)
+    private LocalDateTime lastActivity = LocalDateTime.now();
+
+    // Растет с каждым изменением позиций корзины: оформление заказа по устаревшему составу корзины не проходит
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Позиции корзины по id товара
     @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true)
-    @MapKey(name = "item")
-    private Map<ItemEntity, CartItemEntity> items = new HashMap<>();
+    @MapKeyColumn(name = "item_id")
+    @ToString.Exclude
+    private Map<Long, CartItemEntity> items = new HashMap<>();
 
     public CartEntity(String sessionId) {
         this.sessionId = sessionId;
@@ -34,10 +47,26 @@ public class CartEntity {
         this.sessionId = sessionId;
     }
 
-    public Optional<CartItemEntity> getCartItem(@NonNull ItemEntity item) {
-        CartItemEntity cartDetail = items.get(item);
+    public Optional<CartItemEntity> getCartItem(long itemId) {
+        CartItemEntity cartDetail = items.get(itemId);
 
         return Optional.ofNullable(cartDetail);
     }
 
-}
\ No newline at end of file
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CartEntity other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return CartEntity.class.hashCode();
+    }
+
+}
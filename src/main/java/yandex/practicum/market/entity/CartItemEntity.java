@@ -1,30 +1,34 @@
 package yandex.practicum.market.entity;
 
 import jakarta.persistence.*;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import org.springframework.lang.NonNull;
 
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "cart_details")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
-@EqualsAndHashCode
 public class CartItemEntity {
     @EmbeddedId
     private CartItemIdEntity id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("cartId")
     @JoinColumn(name = "session_id", nullable = false)
+    @ToString.Exclude
     private CartEntity session;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("itemId")
     @JoinColumn(name = "item_id", nullable = false)
+    @ToString.Exclude
     private ItemEntity item;
 
     @Column(nullable = false)
@@ -40,4 +44,20 @@ public class CartItemEntity {
         this.quantity = quantity;
         this.price = price;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CartItemEntity other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return CartItemEntity.class.hashCode();
+    }
+}
@@ -8,21 +8,32 @@ import java.util.*;
 
 @Entity
 @Table(name = "orders")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
-@EqualsAndHashCode
 public class OrderEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "session_id", nullable = false)
+    @ToString.Exclude
     private CartEntity session;
 
+    // Позиции заказа по id товара
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
-    @MapKey(name = "item")
-    private Map<ItemEntity, OrderItemEntity> items = new HashMap<>();
+    @MapKeyColumn(name = "item_id")
+    @ToString.Exclude
+    private Map<Long, OrderItemEntity> items = new HashMap<>();
+
+    // Итоги заказа хранятся в строке заказа, чтобы история не суммировала позиции
+    @Column(name = "total_cost", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalCost = BigDecimal.ZERO;
+
+    @Column(name = "item_count", nullable = false)
+    private Integer itemCount = 0;
 
     public OrderEntity(@NonNull CartEntity cartEntity) {
         this.session = cartEntity;
@@ -35,7 +46,36 @@ public class OrderEntity {
             BigDecimal price = cartDetail.getPrice();
 
             OrderItemEntity orderDetail = new OrderItemEntity(this, item, quantity, price);
-            items.put(item, orderDetail);
+            items.put(item.getId(), orderDetail);
+        }
+    }
+
+    // Итоги считаются по позициям перед вставкой: после оформления заказ не меняется
+    @PrePersist
+    void calculateTotals() {
+        BigDecimal cost = BigDecimal.ZERO;
+        int count = 0;
+        for (OrderItemEntity orderItem : items.values()) {
+            cost = cost.add(orderItem.getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
+            count += orderItem.getQuantity();
         }
+        this.totalCost = cost;
+        this.itemCount = count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OrderEntity other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return OrderEntity.class.hashCode();
     }
 }
\ No newline at end of file
@@ -6,10 +6,14 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import yandex.practicum.market.dto.CartLine;
+import yandex.practicum.market.dto.CartLinePrice;
+import yandex.practicum.market.dto.CartQuantity;
 import yandex.practicum.market.entity.CartItemEntity;
 import yandex.practicum.market.entity.CartItemIdEntity;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,6 +23,92 @@ public interface CartItemRepository extends JpaRepository<CartItemEntity, CartIt
     @Query("DELETE FROM CartItemEntity cd WHERE cd.session.id = :sessionId")
     void deleteAllByCartId(Long sessionId);
 
-    @Query("SELECT SUM(cd.price * cd.quantity) FROM CartItemEntity cd WHERE cd.session.id = :sessionId")
-    Optional<BigDecimal> sumTotalCostInCartBySessionId(@Param("sessionId") Long sessionId);
+    @Query("""
+            SELECT new yandex.practicum.market.dto.CartLine(i.id, i.title, i.description, i.imgPath, cd.quantity, cd.price)
+            FROM CartItemEntity cd JOIN cd.item i
+            WHERE cd.session.sessionId = :sessionId
+            ORDER BY i.id
+            """)
+    List<CartLine> findLinesBySessionId(@Param("sessionId") String sessionId);
+
+    @Query("""
+            SELECT COALESCE(SUM(cd.price * cd.quantity), 0)
+            FROM CartItemEntity cd WHERE cd.session.sessionId = :sessionId
+            """)
+    BigDecimal sumCostBySessionId(@Param("sessionId") String sessionId);
+
+    @Query("""
+            SELECT new yandex.practicum.market.dto.CartQuantity(cd.id.itemId, cd.quantity)
+            FROM CartItemEntity cd WHERE cd.session.sessionId = :sessionId
+            """)
+    List<CartQuantity> findQuantitiesBySessionId(@Param("sessionId") String sessionId);
+
+    @Query("""
+            SELECT new yandex.practicum.market.dto.CartLinePrice(cd.id.itemId, cd.quantity, cd.price)
+            FROM CartItemEntity cd WHERE cd.session.sessionId = :sessionId
+            """)
+    List<CartLinePrice> findLinePricesBySessionId(@Param("sessionId") String sessionId);
+
+    /*
+     * Изменения одной позиции корзины по ключу (id корзины, id товара) без загрузки корзины.
+     * Количество меняется в самом запросе, поэтому одновременные нажатия не теряют изменений.
+     */
+
+    // Добавление единицы товара: новая позиция или увеличение количества; возвращает новое количество
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            SELECT quantity FROM FINAL TABLE (
+                MERGE INTO cart_details cd
+                USING (SELECT CAST(:cartId AS BIGINT) AS session_id,
+                              CAST(:itemId AS BIGINT) AS item_id,
+                              CAST(:price AS DECIMAL(10, 2)) AS price) src
+                ON cd.session_id = src.session_id AND cd.item_id = src.item_id
+                WHEN MATCHED THEN UPDATE SET quantity = cd.quantity + 1
+                WHEN NOT MATCHED THEN INSERT (session_id, item_id, quantity, price)
+                    VALUES (src.session_id, src.item_id, 1, src.price)
+            )
+            """)
+    int incrementQuantity(@Param("cartId") long cartId, @Param("itemId") long itemId, @Param("price") BigDecimal price);
+
+    // Установка количества товара: новая позиция или замена количества; нулевое количество удаляется через deleteItem
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            MERGE INTO cart_details cd
+            USING (SELECT CAST(:cartId AS BIGINT) AS session_id,
+                          CAST(:itemId AS BIGINT) AS item_id,
+                          CAST(:quantity AS INT) AS quantity,
+                          CAST(:price AS DECIMAL(10, 2)) AS price) src
+            ON cd.session_id = src.session_id AND cd.item_id = src.item_id
+            WHEN MATCHED THEN UPDATE SET quantity = src.quantity
+            WHEN NOT MATCHED THEN INSERT (session_id, item_id, quantity, price)
+                VALUES (src.session_id, src.item_id, src.quantity, src.price)
+            """)
+    int setQuantity(
+            @Param("cartId") long cartId,
+            @Param("itemId") long itemId,
+            @Param("quantity") int quantity,
+            @Param("price") BigDecimal price
+    );
+
+    // Уменьшение количества, если в корзине больше одной единицы товара; пусто, если строка не изменилась
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            SELECT quantity FROM FINAL TABLE (
+                UPDATE cart_details SET quantity = quantity - 1
+                WHERE session_id = :cartId AND item_id = :itemId AND quantity > 1
+            )
+            """)
+    Optional<Integer> decrementQuantity(@Param("cartId") long cartId, @Param("itemId") long itemId);
+
+    // Удаление позиции, в которой осталась одна единица товара
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CartItemEntity cd WHERE cd.id.cartId = :cartId AND cd.id.itemId = :itemId AND cd.quantity = 1")
+    int deleteLastUnit(@Param("cartId") long cartId, @Param("itemId") long itemId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CartItemEntity cd WHERE cd.id.cartId = :cartId AND cd.id.itemId = :itemId")
+    int deleteItem(@Param("cartId") long cartId, @Param("itemId") long itemId);
 }
@@ -1,12 +1,54 @@
 package yandex.practicum.market.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import yandex.practicum.market.entity.CartEntity;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface CartRepository extends JpaRepository<CartEntity, Long> {
+    /*
+     * Корзина для оформления заказа: позиции и их товары загружаются тем же запросом.
+     * Версия корзины увеличивается при фиксации транзакции; если позиции за это время изменились,
+     * фиксация завершится ошибкой оптимистической блокировки.
+     */
+    @EntityGraph(attributePaths = {"items", "items.item"})
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
     Optional<CartEntity> findBySessionId(String sessionId);
+
+    @Query("SELECT c.id FROM CartEntity c WHERE c.sessionId = :sessionId")
+    Optional<Long> findIdBySessionId(@Param("sessionId") String sessionId);
+
+    // Вызывается в транзакции изменения позиций корзины
+    @Modifying
+    @Query("UPDATE CartEntity c SET c.version = c.version + 1 WHERE c.id = :id")
+    int incrementVersion(@Param("id") long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CartEntity c SET c.lastActivity = :time WHERE c.id = :id")
+    int touch(@Param("id") Long id, @Param("time") LocalDateTime time);
+
+    // Удаление пачки корзин без заказов, не менявшихся с threshold; позиции удаляются каскадом
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            DELETE FROM carts WHERE id IN (
+                SELECT c.id FROM carts c
+                WHERE c.last_activity < :threshold
+                  AND NOT EXISTS (SELECT 1 FROM orders o WHERE o.session_id = c.id)
+                ORDER BY c.last_activity
+                LIMIT :limit
+            )
+            """)
+    int deleteAbandoned(@Param("threshold") LocalDateTime threshold, @Param("limit") int limit);
 }
@@ -1,14 +1,24 @@
 package yandex.practicum.market.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
+import yandex.practicum.market.dto.ItemView;
 import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.search.ItemDocument;
+import yandex.practicum.market.search.ItemTitle;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<ItemEntity, Long> {
@@ -23,5 +33,113 @@ public interface ItemRepository extends JpaRepository<ItemEntity, Long> {
             @NonNull Pageable pageable
     );
 
+    // Страница без COUNT: выбирается pageSize + 1 строк, лишняя строка определяет hasNext
+    @Query("""
+            SELECT new yandex.practicum.market.dto.ItemView(i.id, i.title, i.description, i.imgPath, i.price)
+            FROM ItemEntity i WHERE
+            (:searchTerm IS NULL OR
+            LOWER(i.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR
+            LOWER(i.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))
+            """)
+    Slice<ItemView> findSliceBySearchTerm(
+            @Nullable @Param("searchTerm") String searchTerm,
+            @NonNull Pageable pageable
+    );
+
+    // Просмотр каталога без условий поиска: порядок Pageable обслуживается индексами (title, id) и (price, id)
+    @Query("""
+            SELECT new yandex.practicum.market.dto.ItemView(i.id, i.title, i.description, i.imgPath, i.price)
+            FROM ItemEntity i
+            """)
+    Slice<ItemView> findSliceBy(@NonNull Pageable pageable);
+
+    // Страница результатов поиска с фильтром по цене; границы диапазона необязательные
+    @Query("""
+            SELECT new yandex.practicum.market.dto.ItemView(i.id, i.title, i.description, i.imgPath, i.price)
+            FROM ItemEntity i WHERE
+            (:searchTerm IS NULL OR
+            LOWER(i.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR
+            LOWER(i.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND
+            (:minPrice IS NULL OR i.price >= :minPrice) AND
+            (:maxPrice IS NULL OR i.price <= :maxPrice)
+            """)
+    Slice<ItemView> findSliceBySearchTermAndPrice(
+            @Nullable @Param("searchTerm") String searchTerm,
+            @Nullable @Param("minPrice") BigDecimal minPrice,
+            @Nullable @Param("maxPrice") BigDecimal maxPrice,
+            @NonNull Pageable pageable
+    );
+
     boolean existsByTitle(String title);
+
+    @Query("""
+            SELECT new yandex.practicum.market.search.ItemDocument(i.id, i.title, i.description, i.price)
+            FROM ItemEntity i ORDER BY i.id
+            """)
+    List<ItemDocument> findAllDocuments();
+
+    @Query("SELECT new yandex.practicum.market.search.ItemTitle(i.id, i.title) FROM ItemEntity i")
+    List<ItemTitle> findAllTitles();
+
+    // Keyset-пагинация каталога: страницы до/после курсора по индексам (id), (title, id), (price, id)
+    @Query("""
+            SELECT new yandex.practicum.market.dto.ItemView(i.id, i.title, i.description, i.imgPath, i.price)
+            FROM ItemEntity i
+            WHERE i.id > :id
+            ORDER BY i.id ASC
+            """)
+    List<ItemView> findByIdGreaterThanOrderByIdAsc(@Param("id") Long id, Limit limit);
+
+    @Query("""
+            SELECT new yandex.practicum.market.dto.ItemView(i.id, i.title, i.description, i.imgPath, i.price)
+            FROM ItemEntity i
+            WHERE i.id < :id
+            ORDER BY i.id DESC
+            """)
+    List<ItemView> findByIdLessThanOrderByIdDesc(@Param("id") Long id, Limit limit);
+
+    @Query("""
+            SELECT new yandex.practicum.market.dto.ItemView(i.id, i.title, i.description, i.imgPath, i.price)
+            FROM ItemEntity i
+            WHERE i.title > :title OR (i.title = :title AND i.id > :id)
+            ORDER BY i.title ASC, i.id ASC
+            """)
+    List<ItemView> findAfterTitle(@Param("title") String title, @Param("id") Long id, Limit limit);
+
+    @Query("""
+            SELECT new yandex.practicum.market.dto.ItemView(i.id, i.title, i.description, i.imgPath, i.price)
+            FROM ItemEntity i
+            WHERE i.title < :title OR (i.title = :title AND i.id < :id)
+            ORDER BY i.title DESC, i.id DESC
+            """)
+    List<ItemView> findBeforeTitle(@Param("title") String title, @Param("id") Long id, Limit limit);
+
+    @Query("""
+            SELECT new yandex.practicum.market.dto.ItemView(i.id, i.title, i.description, i.imgPath, i.price)
+            FROM ItemEntity i
+            WHERE i.price > :price OR (i.price = :price AND i.id > :id)
+            ORDER BY i.price ASC, i.id ASC
+            """)
+    List<ItemView> findAfterPrice(@Param("price") BigDecimal price, @Param("id") Long id, Limit limit);
+
+    @Query("""
+            SELECT new yandex.practicum.market.dto.ItemView(i.id, i.title, i.description, i.imgPath, i.price)
+            FROM ItemEntity i
+            WHERE i.price < :price OR (i.price = :price AND i.id < :id)
+            ORDER BY i.price DESC, i.id DESC
+            """)
+    List<ItemView> findBeforePrice(@Param("price") BigDecimal price, @Param("id") Long id, Limit limit);
+
+    // Товары по id без загрузки сущностей в контекст персистентности; порядок результата не определен
+    @Query("""
+            SELECT new yandex.practicum.market.dto.ItemView(i.id, i.title, i.description, i.imgPath, i.price)
+            FROM ItemEntity i WHERE i.id IN :ids
+            """)
+    List<ItemView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new yandex.practicum.market.dto.ItemView(i.id, i.title, i.description, i.imgPath, i.price)
+            FROM ItemEntity i WHERE i.id = :id
+            """)
+    Optional<ItemView> findViewById(@Param("id") Long id);
 }
@@ -4,13 +4,25 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import yandex.practicum.market.dto.OrderLine;
 import yandex.practicum.market.entity.OrderItemEntity;
+import yandex.practicum.market.search.ItemPopularity;
 
-import java.math.BigDecimal;
-import java.util.Optional;
+import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItemEntity, Long> {
-    @Query("SELECT SUM(od.price * od.quantity) FROM OrderItemEntity od WHERE od.order.id =:orderId")
-    Optional<BigDecimal> sumTotalCostInOrder(@Param("orderId") Long orderId);
+    @Query("""
+            SELECT new yandex.practicum.market.search.ItemPopularity(od.item.id, SUM(od.quantity))
+            FROM OrderItemEntity od GROUP BY od.item.id
+            """)
+    List<ItemPopularity> sumQuantityByItem();
+
+    @Query("""
+            SELECT new yandex.practicum.market.dto.OrderLine(od.order.id, i.id, i.title, i.description, i.imgPath, od.quantity, od.price)
+            FROM OrderItemEntity od JOIN od.item i
+            WHERE od.order.id = :orderId
+            ORDER BY od.id
+            """)
+    List<OrderLine> findLinesByOrderId(@Param("orderId") Long orderId);
 }
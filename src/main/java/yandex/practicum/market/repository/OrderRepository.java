@@ -1,12 +1,22 @@
 package yandex.practicum.market.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import yandex.practicum.market.dto.OrderSummary;
 import yandex.practicum.market.entity.OrderEntity;
 
-import java.util.List;
-
 @Repository
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
-    List<OrderEntity> findBySessionId(Long cartId);
+    // Slice не требует запроса количества: страница истории читается одним запросом
+    @Query("""
+            SELECT new yandex.practicum.market.dto.OrderSummary(o.id, o.totalCost, o.itemCount)
+            FROM OrderEntity o
+            WHERE o.session.sessionId = :sessionId
+            ORDER BY o.id DESC
+            """)
+    Slice<OrderSummary> findSummariesBySessionId(@Param("sessionId") String sessionId, Pageable pageable);
 }
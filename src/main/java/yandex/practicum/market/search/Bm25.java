@@ -0,0 +1,26 @@
+package yandex.practicum.market.search;
+
+/**
+ * Формула ранжирования BM25 со стандартными параметрами:
+ * k1 ограничивает вклад повторов термина, b - поправку на длину документа.
+ */
+public final class Bm25 {
+    public static final double K1 = 1.2;
+    public static final double B = 0.75;
+
+    private Bm25() {
+    }
+
+    // Редкие термины весят больше; формула не дает отрицательных значений для частых терминов
+    public static double idf(int documentFrequency, int documentCount) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    public static double score(int frequency, int length, double averageLength, double idf) {
+        if (frequency == 0) {
+            return 0;
+        }
+        double norm = K1 * (1 - B + B * length / averageLength);
+        return idf * frequency * (K1 + 1) / (frequency + norm);
+    }
+}
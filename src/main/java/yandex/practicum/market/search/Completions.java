@@ -0,0 +1,221 @@
+package yandex.practicum.market.search;
+
+import org.springframework.lang.NonNull;
+
+import java.util.*;
+
+/**
+ * Неизменяемый словарь подсказок: названия товаров, отсортированные по нормализованному названию.
+ * Названия с общим префиксом образуют непрерывный отрезок, который находится бинарным поиском.
+ * Самые популярные названия отрезка выбираются по дереву отрезков максимумов веса
+ * за O(limit * log n), независимо от длины отрезка.
+ */
+public final class Completions {
+    public static final Completions EMPTY = new Completions(new String[0], new String[0], new long[0], new long[0]);
+
+    private final String[] keys;
+    private final String[] titles;
+    private final long[] ids;
+    private final long[] weights;
+    // Дерево отрезков: в узле - позиция записи с наибольшим весом
+    private final int[] tree;
+
+    private Completions(String[] keys, String[] titles, long[] ids, long[] weights) {
+        this.keys = keys;
+        this.titles = titles;
+        this.ids = ids;
+        this.weights = weights;
+        this.tree = buildTree();
+    }
+
+    // Словарь по названиям товаров; weights - популярность товара по id, отсутствующие - 0
+    public static Completions of(@NonNull Map<Long, String> titlesById, @NonNull Map<Long, Long> weightsById) {
+        Map<Long, String> keysById = new HashMap<>(titlesById.size() * 2);
+        titlesById.forEach((id, title) -> keysById.put(id, SearchTokenizer.normalize(title)));
+
+        Long[] order = titlesById.keySet().toArray(new Long[0]);
+        Arrays.sort(order, Comparator.comparing((Long id) -> keysById.get(id)).thenComparing(Comparator.naturalOrder()));
+
+        String[] keys = new String[order.length];
+        String[] titles = new String[order.length];
+        long[] ids = new long[order.length];
+        long[] weights = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            Long id = order[i];
+            keys[i] = keysById.get(id);
+            titles[i] = titlesById.get(id);
+            ids[i] = id;
+            weights[i] = weightsById.getOrDefault(id, 0L);
+        }
+        return new Completions(keys, titles, ids, weights);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    // Новый словарь с добавленным или переименованным товаром; популярность товара сохраняется
+    public Completions with(long id, @NonNull String title) {
+        int previous = indexOf(id);
+        long weight = previous >= 0 ? weights[previous] : 0L;
+        String key = SearchTokenizer.normalize(title);
+
+        int length = previous >= 0 ? keys.length - 1 : keys.length;
+        String[] newKeys = new String[length + 1];
+        String[] newTitles = new String[length + 1];
+        long[] newIds = new long[length + 1];
+        long[] newWeights = new long[length + 1];
+
+        int target = 0;
+        boolean inserted = false;
+        for (int i = 0; i <= keys.length; i++) {
+            if (!inserted && (i == keys.length || compare(key, id, keys[i], ids[i]) < 0)) {
+                newKeys[target] = key;
+                newTitles[target] = title;
+                newIds[target] = id;
+                newWeights[target] = weight;
+                target++;
+                inserted = true;
+            }
+            if (i == keys.length) {
+                break;
+            }
+            if (i != previous) {
+                newKeys[target] = keys[i];
+                newTitles[target] = titles[i];
+                newIds[target] = ids[i];
+                newWeights[target] = weights[i];
+                target++;
+            }
+        }
+        return new Completions(newKeys, newTitles, newIds, newWeights);
+    }
+
+    // Новый словарь с увеличенной популярностью проданных товаров
+    public Completions withSales(@NonNull Map<Long, ? extends Number> quantitiesById) {
+        long[] newWeights = weights.clone();
+        for (int i = 0; i < ids.length; i++) {
+            Number quantity = quantitiesById.get(ids[i]);
+            if (quantity != null) {
+                newWeights[i] += quantity.longValue();
+            }
+        }
+        return new Completions(keys, titles, ids, newWeights);
+    }
+
+    // Не более limit различных названий с префиксом query, самые популярные первыми
+    public List<String> top(@NonNull String query, int limit) {
+        String prefix = SearchTokenizer.normalize(query);
+        int from = lowerBound(prefix);
+        int to = prefixEnd(prefix, from);
+        if (from >= to || limit <= 0) {
+            return List.of();
+        }
+
+        List<String> result = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        // Очередь отрезков по весу их лучшей записи: {from, to, позиция лучшей записи}
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> better(a[2], b[2]) == a[2] ? -1 : 1);
+        ranges.add(new int[]{from, to, best(from, to)});
+
+        while (!ranges.isEmpty() && result.size() < limit) {
+            int[] range = ranges.poll();
+            int position = range[2];
+            if (seen.add(keys[position])) {
+                result.add(titles[position]);
+            }
+            if (range[0] < position) {
+                ranges.add(new int[]{range[0], position, best(range[0], position)});
+            }
+            if (position + 1 < range[1]) {
+                ranges.add(new int[]{position + 1, range[1], best(position + 1, range[1])});
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int compare(String key, long id, String otherKey, long otherId) {
+        int result = key.compareTo(otherKey);
+        return result != 0 ? result : Long.compare(id, otherId);
+    }
+
+    // Первая позиция, ключ в которой не меньше prefix
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Первая позиция после from, ключ в которой уже не начинается с prefix
+    private int prefixEnd(String prefix, int from) {
+        int low = from;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int[] buildTree() {
+        int n = keys.length;
+        int[] nodes = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            nodes[n + i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            nodes[i] = better(nodes[2 * i], nodes[2 * i + 1]);
+        }
+        return nodes;
+    }
+
+    // Позиция записи с наибольшим весом на отрезке [from, to)
+    private int best(int from, int to) {
+        int n = keys.length;
+        int result = -1;
+        for (int low = from + n, high = to + n; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                result = better(result, tree[low++]);
+            }
+            if ((high & 1) == 1) {
+                result = better(result, tree[--high]);
+            }
+        }
+        return result;
+    }
+
+    // При равном весе выигрывает запись, которая раньше по алфавиту
+    private int better(int first, int second) {
+        if (first < 0) {
+            return second;
+        }
+        if (second < 0) {
+            return first;
+        }
+        if (weights[first] != weights[second]) {
+            return weights[first] > weights[second] ? first : second;
+        }
+        return Math.min(first, second);
+    }
+}
@@ -0,0 +1,116 @@
+package yandex.practicum.market.search;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Инвертированный индекс: токен -> отсортированный массив идентификаторов товаров.
+ * Опубликованные массивы не изменяются, поэтому чтение не требует блокировок,
+ * а запись заменяет только затронутые списки.
+ */
+public class InvertedIndex {
+
+    private final ConcurrentHashMap<String, long[]> postings;
+
+    public InvertedIndex() {
+        this.postings = new ConcurrentHashMap<>();
+    }
+
+    private InvertedIndex(Map<String, long[]> postings) {
+        this.postings = new ConcurrentHashMap<>(postings);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public void add(long id, Collection<String> tokens) {
+        for (String token : tokens) {
+            postings.compute(token, (key, ids) -> LongArrays.insert(ids, id));
+        }
+    }
+
+    public void remove(long id, Collection<String> tokens) {
+        for (String token : tokens) {
+            postings.computeIfPresent(token, (key, ids) -> {
+                long[] result = LongArrays.remove(ids, id);
+                return result.length == 0 ? null : result;
+            });
+        }
+    }
+
+    public long[] get(String token) {
+        return postings.getOrDefault(token, LongArrays.EMPTY);
+    }
+
+    // Пересечение списков всех токенов, начиная с самого короткого
+    public long[] search(Collection<String> tokens) {
+        if (tokens.isEmpty()) {
+            return LongArrays.EMPTY;
+        }
+
+        List<long[]> lists = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            long[] ids = get(token);
+            if (ids.length == 0) {
+                return LongArrays.EMPTY;
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(ids -> ids.length));
+
+        long[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = LongArrays.intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    public Set<String> terms() {
+        return Collections.unmodifiableSet(postings.keySet());
+    }
+
+    // Пакетное построение индекса при старте без копирования массивов на каждую вставку
+    public static class Builder {
+        private final Map<String, LongArrayBuilder> lists = new HashMap<>();
+
+        public Builder add(long id, Collection<String> tokens) {
+            for (String token : tokens) {
+                lists.computeIfAbsent(token, key -> new LongArrayBuilder()).add(id);
+            }
+            return this;
+        }
+
+        public InvertedIndex build() {
+            Map<String, long[]> postings = new HashMap<>(lists.size() * 2);
+            lists.forEach((token, ids) -> postings.put(token, ids.toSortedArray()));
+            return new InvertedIndex(postings);
+        }
+    }
+
+    static class LongArrayBuilder {
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toSortedArray() {
+            long[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+
+            // Убираем дубликаты, если идентификатор был добавлен несколько раз
+            int unique = 0;
+            for (int i = 0; i < result.length; i++) {
+                if (unique == 0 || result[unique - 1] != result[i]) {
+                    result[unique++] = result[i];
+                }
+            }
+            return unique == result.length ? result : Arrays.copyOf(result, unique);
+        }
+    }
+}
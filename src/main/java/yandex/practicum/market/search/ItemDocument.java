@@ -0,0 +1,42 @@
+package yandex.practicum.market.search;
+
+import org.springframework.data.domain.Sort;
+import yandex.practicum.market.entity.ItemEntity;
+
+import java.math.BigDecimal;
+import java.text.CollationKey;
+import java.util.Comparator;
+
+// Поля товара, которые хранятся в поисковом индексе, и ключ сортировки названия
+public record ItemDocument(Long id, String title, String description, BigDecimal price, CollationKey titleKey) {
+
+    // Используется в JPQL-проекции: ключ сортировки вычисляется при загрузке документа
+    public ItemDocument(Long id, String title, String description, BigDecimal price) {
+        this(id, title, description, price, title == null ? null : TitleCollation.key(title));
+    }
+
+    public static ItemDocument of(ItemEntity item) {
+        return new ItemDocument(item.getId(), item.getTitle(), item.getDescription(), item.getPrice());
+    }
+
+    // Порядок по полям Pageable (название - по правилам русского языка); при равенстве ключей - по id
+    public static Comparator<ItemDocument> comparator(Sort sort) {
+        Comparator<ItemDocument> byId = Comparator.comparing(ItemDocument::id);
+        Comparator<ItemDocument> comparator = null;
+
+        for (Sort.Order order : sort) {
+            Comparator<ItemDocument> next = switch (order.getProperty()) {
+                case "title" -> Comparator.comparing(ItemDocument::titleKey);
+                case "price" -> Comparator.comparing(ItemDocument::price);
+                case "id" -> byId;
+                default -> throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            };
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+}
@@ -0,0 +1,5 @@
+package yandex.practicum.market.search;
+
+// Популярность товара: сколько единиц товара было заказано
+public record ItemPopularity(Long itemId, Long quantity) {
+}
@@ -0,0 +1,274 @@
+package yandex.practicum.market.search;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.repository.ItemRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Поисковый индекс каталога.
+ * Поиск по подстроке (контракт LIKE '%term%') идет через триграммный индекс:
+ * кандидаты получаются пересечением списков триграмм запроса и затем проверяются по тексту.
+ * Словарный индекс токенов хранит словарь терминов каталога;
+ * по его словарю терминов идет нечеткий поиск с опечатками.
+ * Частоты терминов документов и их суммарная длина используются для ранжирования по BM25.
+ */
+@Component
+public class ItemSearchIndex {
+    private final ItemRepository itemRepository;
+
+    private volatile Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private volatile InvertedIndex tokenIndex = new InvertedIndex();
+    private volatile InvertedIndex trigramIndex = new InvertedIndex();
+    private volatile TermDictionary dictionary = TermDictionary.EMPTY;
+    private volatile long totalLength;
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    // Полное построение индекса по таблице товаров при старте приложения
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<ItemDocument> loaded = itemRepository.findAllDocuments();
+
+        Map<Long, Entry> newEntries = new ConcurrentHashMap<>(loaded.size() * 2);
+        InvertedIndex.Builder tokenBuilder = InvertedIndex.builder();
+        InvertedIndex.Builder trigramBuilder = InvertedIndex.builder();
+        long newTotalLength = 0;
+        for (ItemDocument document : loaded) {
+            Entry entry = Entry.of(document);
+            newEntries.put(document.id(), entry);
+            tokenBuilder.add(document.id(), entry.tokens());
+            trigramBuilder.add(document.id(), entry.trigrams());
+            newTotalLength += entry.terms().length();
+        }
+
+        InvertedIndex newTokenIndex = tokenBuilder.build();
+
+        entries = newEntries;
+        tokenIndex = newTokenIndex;
+        trigramIndex = trigramBuilder.build();
+        dictionary = TermDictionary.of(newTokenIndex.terms());
+        totalLength = newTotalLength;
+        ready = true;
+    }
+
+    // Обновление индекса после сохранения товара
+    public synchronized void index(@NonNull ItemEntity item) {
+        Entry entry = Entry.of(ItemDocument.of(item));
+        long id = item.getId();
+        Entry previous = entries.put(id, entry);
+
+        long lengthDelta = entry.terms().length();
+        if (previous != null) {
+            tokenIndex.remove(id, previous.tokens());
+            trigramIndex.remove(id, previous.trigrams());
+            lengthDelta -= previous.terms().length();
+        }
+        totalLength += lengthDelta;
+        List<String> tokens = entry.tokens();
+        tokenIndex.add(id, tokens);
+        trigramIndex.add(id, entry.trigrams());
+        // Термины удаленных токенов остаются в словаре, при поиске у них пустые списки товаров
+        dictionary = dictionary.with(tokens);
+    }
+
+    // Индекс отвечает на любой непустой запрос после построения
+    public boolean isSearchable(@Nullable String searchTerm) {
+        return ready && searchTerm != null && !searchTerm.isEmpty();
+    }
+
+    // Товары, у которых название или описание содержит запрос как подстроку без учета регистра
+    public List<ItemDocument> search(@NonNull String searchTerm) {
+        String query = SearchTokenizer.normalize(searchTerm);
+        Map<Long, Entry> currentEntries = entries;
+
+        if (query.length() < SearchTokenizer.TRIGRAM_LENGTH) {
+            return scan(currentEntries, query);
+        }
+
+        long[] candidates = trigramIndex.search(SearchTokenizer.trigrams(query));
+        List<ItemDocument> result = new ArrayList<>(candidates.length);
+        for (long id : candidates) {
+            Entry entry = currentEntries.get(id);
+            if (entry != null && entry.contains(query)) {
+                result.add(entry.document());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Нечеткий поиск: каждое слово запроса сопоставляется с терминами каталога
+     * на расстоянии Левенштейна до 2 (для коротких слов - меньше);
+     * найденные товары содержат для каждого слова запроса хотя бы один из похожих терминов.
+     */
+    public List<ItemDocument> searchFuzzy(@NonNull String searchTerm) {
+        Set<String> queryTokens = SearchTokenizer.tokenize(searchTerm);
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Entry> currentEntries = entries;
+        InvertedIndex currentTokenIndex = tokenIndex;
+        TermDictionary currentDictionary = dictionary;
+
+        long[] ids = null;
+        for (String token : queryTokens) {
+            long[] tokenIds = LongArrays.EMPTY;
+            for (String term : currentDictionary.search(token, maxEdits(token))) {
+                tokenIds = LongArrays.union(tokenIds, currentTokenIndex.get(term));
+            }
+            ids = ids == null ? tokenIds : LongArrays.intersect(ids, tokenIds);
+            if (ids.length == 0) {
+                return List.of();
+            }
+        }
+
+        List<ItemDocument> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Entry entry = currentEntries.get(id);
+            if (entry != null) {
+                result.add(entry.document());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Первые limit найденных документов по убыванию оценки BM25 запроса, при равных оценках - по id.
+     * Слово запроса, которого нет в словаре, оценивается по похожим терминам (лучшим из них),
+     * поэтому результаты нечеткого поиска тоже ранжируются.
+     * Отбор идет через кучу размера limit без сортировки всех найденных документов.
+     */
+    public List<ItemDocument> rank(@NonNull String searchTerm, @NonNull List<ItemDocument> hits, int limit) {
+        if (hits.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Long, Entry> currentEntries = entries;
+        InvertedIndex currentTokenIndex = tokenIndex;
+        TermDictionary currentDictionary = dictionary;
+        int documentCount = Math.max(1, currentEntries.size());
+        double averageLength = Math.max(1.0, (double) totalLength / documentCount);
+
+        // Для каждого слова запроса - термины, по которым оно оценивается, и их idf
+        List<String[]> queryTerms = new ArrayList<>();
+        List<double[]> queryIdfs = new ArrayList<>();
+        for (String token : SearchTokenizer.tokenize(searchTerm)) {
+            List<String> terms = currentTokenIndex.get(token).length > 0
+                    ? List.of(token)
+                    : currentDictionary.search(token, maxEdits(token));
+            double[] idfs = new double[terms.size()];
+            for (int i = 0; i < idfs.length; i++) {
+                idfs[i] = Bm25.idf(currentTokenIndex.get(terms.get(i)).length, documentCount);
+            }
+            queryTerms.add(terms.toArray(new String[0]));
+            queryIdfs.add(idfs);
+        }
+
+        // В вершине кучи - худший из отобранных документов
+        Comparator<ScoredDocument> worstFirst = Comparator.comparingDouble(ScoredDocument::score)
+                .thenComparing(ScoredDocument::id, Comparator.reverseOrder());
+        PriorityQueue<ScoredDocument> top = new PriorityQueue<>(Math.min(limit, hits.size()) + 1, worstFirst);
+        for (ItemDocument document : hits) {
+            Entry entry = currentEntries.get(document.id());
+            double score = entry == null ? 0 : score(entry.terms(), queryTerms, queryIdfs, averageLength);
+            ScoredDocument scored = new ScoredDocument(document, score);
+            if (top.size() < limit) {
+                top.add(scored);
+            } else if (worstFirst.compare(scored, top.peek()) > 0) {
+                top.poll();
+                top.add(scored);
+            }
+        }
+
+        ItemDocument[] ranked = new ItemDocument[top.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = top.poll().document();
+        }
+        return Arrays.asList(ranked);
+    }
+
+    private static double score(TermVector terms, List<String[]> queryTerms, List<double[]> queryIdfs, double averageLength) {
+        double score = 0;
+        for (int i = 0; i < queryTerms.size(); i++) {
+            String[] alternatives = queryTerms.get(i);
+            double[] idfs = queryIdfs.get(i);
+            double best = 0;
+            for (int j = 0; j < alternatives.length; j++) {
+                best = Math.max(best, Bm25.score(terms.frequency(alternatives[j]), terms.length(), averageLength, idfs[j]));
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    // Допустимое число опечаток: в коротких словах похожих терминов слишком много
+    static int maxEdits(String token) {
+        if (token.length() < 3) {
+            return 0;
+        }
+        return token.length() < 6 ? 1 : 2;
+    }
+
+    // Словарь терминов каталога
+    public Set<String> terms() {
+        return tokenIndex.terms();
+    }
+
+    // Запросы короче триграммы не индексируются: проверяем все товары в памяти, не обращаясь к БД
+    private static List<ItemDocument> scan(Map<Long, Entry> entries, String query) {
+        List<ItemDocument> result = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.contains(query)) {
+                result.add(entry.document());
+            }
+        }
+        result.sort(Comparator.comparing(ItemDocument::id));
+        return result;
+    }
+
+    private record ScoredDocument(ItemDocument document, double score) {
+
+        Long id() {
+            return document.id();
+        }
+    }
+
+    private record Entry(ItemDocument document, String normalizedTitle, String normalizedDescription, TermVector terms) {
+
+        static Entry of(ItemDocument document) {
+            String normalizedTitle = SearchTokenizer.normalize(document.title());
+            String normalizedDescription = SearchTokenizer.normalize(document.description());
+            return new Entry(
+                    document,
+                    normalizedTitle,
+                    normalizedDescription,
+                    TermVector.of(SearchTokenizer.words(normalizedTitle), SearchTokenizer.words(normalizedDescription))
+            );
+        }
+
+        boolean contains(String query) {
+            return normalizedTitle.contains(query) || normalizedDescription.contains(query);
+        }
+
+        List<String> tokens() {
+            return terms.terms();
+        }
+
+        Set<String> trigrams() {
+            Set<String> trigrams = SearchTokenizer.trigrams(normalizedTitle);
+            trigrams.addAll(SearchTokenizer.trigrams(normalizedDescription));
+            return trigrams;
+        }
+    }
+}
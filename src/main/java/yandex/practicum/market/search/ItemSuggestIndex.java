@@ -0,0 +1,68 @@
+package yandex.practicum.market.search;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.repository.ItemRepository;
+import yandex.practicum.market.repository.OrderItemRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Подсказки для строки поиска: названия товаров по префиксу, популярные первыми.
+ * Ответ строится по словарю в памяти без обращения к БД;
+ * изменения публикуют новый словарь, чтение - одно обращение к volatile-ссылке.
+ */
+@Component
+public class ItemSuggestIndex {
+    public static final int MAX_LIMIT = 20;
+
+    private final ItemRepository itemRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    private volatile Completions completions = Completions.EMPTY;
+
+    public ItemSuggestIndex(ItemRepository itemRepository, OrderItemRepository orderItemRepository) {
+        this.itemRepository = itemRepository;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    // Построение словаря по названиям товаров и истории заказов при старте приложения
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Map<Long, String> titles = new HashMap<>();
+        for (ItemTitle item : itemRepository.findAllTitles()) {
+            titles.put(item.id(), item.title());
+        }
+        Map<Long, Long> popularity = new HashMap<>();
+        for (ItemPopularity item : orderItemRepository.sumQuantityByItem()) {
+            popularity.put(item.itemId(), item.quantity());
+        }
+
+        completions = Completions.of(titles, popularity);
+    }
+
+    // Обновление словаря после сохранения товара
+    public synchronized void index(@NonNull ItemEntity item) {
+        completions = completions.with(item.getId(), item.getTitle());
+    }
+
+    // Учет проданных товаров в популярности: количество по id товара
+    public synchronized void recordSales(@NonNull Map<Long, Integer> quantities) {
+        if (!quantities.isEmpty()) {
+            completions = completions.withSales(quantities);
+        }
+    }
+
+    public List<String> suggest(@Nullable String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        return completions.top(query, Math.min(limit, MAX_LIMIT));
+    }
+}
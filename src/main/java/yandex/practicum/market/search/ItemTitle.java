@@ -0,0 +1,5 @@
+package yandex.practicum.market.search;
+
+// Название товара для словаря подсказок
+public record ItemTitle(Long id, String title) {
+}
@@ -0,0 +1,84 @@
+package yandex.practicum.market.search;
+
+import java.util.Arrays;
+
+// Операции над отсортированными по возрастанию массивами идентификаторов
+public final class LongArrays {
+
+    public static final long[] EMPTY = new long[0];
+
+    private LongArrays() {
+    }
+
+    public static long[] insert(long[] sorted, long value) {
+        if (sorted == null) {
+            return new long[]{value};
+        }
+
+        int position = Arrays.binarySearch(sorted, value);
+        if (position >= 0) {
+            return sorted;
+        }
+
+        int insertionPoint = -position - 1;
+        long[] result = new long[sorted.length + 1];
+        System.arraycopy(sorted, 0, result, 0, insertionPoint);
+        result[insertionPoint] = value;
+        System.arraycopy(sorted, insertionPoint, result, insertionPoint + 1, sorted.length - insertionPoint);
+        return result;
+    }
+
+    public static long[] remove(long[] sorted, long value) {
+        int position = Arrays.binarySearch(sorted, value);
+        if (position < 0) {
+            return sorted;
+        }
+
+        long[] result = new long[sorted.length - 1];
+        System.arraycopy(sorted, 0, result, 0, position);
+        System.arraycopy(sorted, position + 1, result, position, sorted.length - position - 1);
+        return result;
+    }
+
+    public static long[] union(long[] left, long[] right) {
+        long[] result = new long[left.length + right.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < left.length || j < right.length) {
+            if (j == right.length || (i < left.length && left[i] < right[j])) {
+                result[size++] = left[i++];
+            } else if (i == left.length || left[i] > right[j]) {
+                result[size++] = right[j++];
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    public static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+}
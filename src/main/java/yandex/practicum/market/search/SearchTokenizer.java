@@ -0,0 +1,58 @@
+package yandex.practicum.market.search;
+
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+public final class SearchTokenizer {
+    public static final int TRIGRAM_LENGTH = 3;
+
+    private SearchTokenizer() {
+    }
+
+    // Приведение к нижнему регистру так же, как LOWER(...) в запросах к БД
+    public static String normalize(@Nullable String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    // Разбиение текста на уникальные токены из букв и цифр
+    public static Set<String> tokenize(@Nullable String text) {
+        return new LinkedHashSet<>(words(text));
+    }
+
+    // Все токены текста по порядку, с повторами: нужны для подсчета частот
+    public static List<String> words(@Nullable String text) {
+        List<String> words = new ArrayList<>();
+        String normalized = normalize(text);
+
+        int start = -1;
+        for (int i = 0; i < normalized.length(); i++) {
+            if (Character.isLetterOrDigit(normalized.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            words.add(normalized.substring(start));
+        }
+
+        return words;
+    }
+
+    // Все подстроки длины 3 уже нормализованного текста
+    public static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + TRIGRAM_LENGTH <= normalized.length(); i++) {
+            trigrams.add(normalized.substring(i, i + TRIGRAM_LENGTH));
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,156 @@
+package yandex.practicum.market.search;
+
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Неизменяемый словарь терминов для поиска с опечатками.
+ * Термины хранятся отсортированным массивом - это неявное префиксное дерево:
+ * термины с общим префиксом образуют непрерывный отрезок.
+ * Нечеткий поиск обходит это дерево, как автомат Левенштейна: для каждого префикса
+ * вычисляется строка матрицы расстояний до запроса, и ветвь отсекается,
+ * как только минимум строки превышает допустимое расстояние.
+ */
+public final class TermDictionary {
+    public static final TermDictionary EMPTY = new TermDictionary(new String[0]);
+
+    private final String[] terms;
+
+    private TermDictionary(String[] terms) {
+        this.terms = terms;
+    }
+
+    public static TermDictionary of(@NonNull Collection<String> terms) {
+        return new TermDictionary(new TreeSet<>(terms).toArray(new String[0]));
+    }
+
+    // Новый словарь с добавленными терминами; если новых терминов нет, возвращается этот же словарь
+    public TermDictionary with(@NonNull Collection<String> added) {
+        TreeSet<String> missing = new TreeSet<>();
+        for (String term : added) {
+            if (Arrays.binarySearch(terms, term) < 0) {
+                missing.add(term);
+            }
+        }
+        if (missing.isEmpty()) {
+            return this;
+        }
+
+        String[] merged = new String[terms.length + missing.size()];
+        int i = 0;
+        int size = 0;
+        for (String term : missing) {
+            while (i < terms.length && terms[i].compareTo(term) < 0) {
+                merged[size++] = terms[i++];
+            }
+            merged[size++] = term;
+        }
+        System.arraycopy(terms, i, merged, size, terms.length - i);
+        return new TermDictionary(merged);
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    // Термины на расстоянии Левенштейна не больше maxDistance от запроса
+    public List<String> search(@NonNull String query, int maxDistance) {
+        List<String> result = new ArrayList<>();
+        Walk walk = new Walk(query, maxDistance, result);
+        for (int j = 0; j <= query.length(); j++) {
+            walk.row(0)[j] = Math.min(j, walk.infinity);
+        }
+        walk(0, terms.length, 0, walk);
+        return result;
+    }
+
+    // Обход отрезка [from, to) терминов с общим префиксом длины depth, для которого вычислена строка матрицы
+    private void walk(int from, int to, int depth, Walk walk) {
+        int[] row = walk.row(depth);
+        int length = walk.query.length();
+
+        // Префикс сам является термином и стоит первым в отрезке
+        if (from < to && terms[from].length() == depth) {
+            if (Math.abs(length - depth) <= walk.maxDistance && row[length] <= walk.maxDistance) {
+                walk.result.add(terms[from]);
+            }
+            from++;
+        }
+
+        // Значимы только ячейки полосы |i - j| <= maxDistance, остальные заведомо больше допустимого
+        int i = depth + 1;
+        int low = Math.max(1, i - walk.maxDistance);
+        int high = Math.min(length, i + walk.maxDistance);
+        while (from < to) {
+            char c = terms[from].charAt(depth);
+            int end = childEnd(from, to, depth, c);
+
+            int[] next = walk.row(depth + 1);
+            next[0] = Math.min(i, walk.infinity);
+            if (low > 1) {
+                next[low - 1] = walk.infinity;
+            }
+            int min = next[0];
+            for (int j = low; j <= high; j++) {
+                int substitution = row[j - 1] + (walk.query.charAt(j - 1) == c ? 0 : 1);
+                int value = Math.min(substitution, Math.min(row[j], next[j - 1]) + 1);
+                next[j] = Math.min(value, walk.infinity);
+                min = Math.min(min, next[j]);
+            }
+            if (high < length) {
+                next[high + 1] = walk.infinity;
+            }
+
+            if (min <= walk.maxDistance) {
+                walk(from, end, depth + 1, walk);
+            }
+            from = end;
+        }
+    }
+
+    // Конец отрезка терминов, у которых символ в позиции depth равен c
+    private int childEnd(int from, int to, int depth, char c) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (terms[middle].charAt(depth) <= c) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Состояние обхода: строки матрицы по глубине префикса переиспользуются между ветвями
+    private static final class Walk {
+        final String query;
+        final int maxDistance;
+        final int infinity;
+        final List<String> result;
+        private int[][] rows = new int[16][];
+
+        Walk(String query, int maxDistance, List<String> result) {
+            this.query = query;
+            this.maxDistance = maxDistance;
+            this.infinity = maxDistance + 1;
+            this.result = result;
+        }
+
+        int[] row(int depth) {
+            if (depth >= rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(rows.length * 2, depth + 1));
+            }
+            if (rows[depth] == null) {
+                rows[depth] = new int[query.length() + 1];
+            }
+            return rows[depth];
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package yandex.practicum.market.search;
+
+import java.util.*;
+
+/**
+ * Частоты терминов документа для ранжирования: отсортированные термины и их взвешенные частоты.
+ * Вхождение в название весит больше вхождения в описание; длина документа считается с теми же весами.
+ */
+public final class TermVector {
+    public static final int TITLE_WEIGHT = 2;
+
+    private final String[] terms;
+    private final int[] frequencies;
+    private final int length;
+
+    private TermVector(String[] terms, int[] frequencies, int length) {
+        this.terms = terms;
+        this.frequencies = frequencies;
+        this.length = length;
+    }
+
+    public static TermVector of(List<String> titleWords, List<String> descriptionWords) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String word : titleWords) {
+            counts.merge(word, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String word : descriptionWords) {
+            counts.merge(word, 1, Integer::sum);
+        }
+
+        String[] terms = counts.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        int[] frequencies = new int[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            frequencies[i] = counts.get(terms[i]);
+        }
+        return new TermVector(terms, frequencies, titleWords.size() * TITLE_WEIGHT + descriptionWords.size());
+    }
+
+    // Взвешенная частота термина; 0, если термина в документе нет
+    public int frequency(String term) {
+        int index = Arrays.binarySearch(terms, term);
+        return index >= 0 ? frequencies[index] : 0;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public List<String> terms() {
+        return Collections.unmodifiableList(Arrays.asList(terms));
+    }
+}
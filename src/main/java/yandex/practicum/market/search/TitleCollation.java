@@ -0,0 +1,26 @@
+package yandex.practicum.market.search;
+
+import org.springframework.lang.NonNull;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Locale;
+
+/**
+ * Порядок названий товаров по правилам русского языка.
+ * Ключ сортировки вычисляется один раз при добавлении товара в индекс или снимок;
+ * при сортировке сравниваются готовые ключи, без обращения к Collator.
+ */
+public final class TitleCollation {
+    public static final Locale LOCALE = Locale.forLanguageTag("ru");
+
+    // Методы RuleBasedCollator синхронизированы, ключи строятся только при изменении каталога и для курсора
+    private static final Collator COLLATOR = Collator.getInstance(LOCALE);
+
+    private TitleCollation() {
+    }
+
+    public static CollationKey key(@NonNull String title) {
+        return COLLATOR.getCollationKey(title);
+    }
+}
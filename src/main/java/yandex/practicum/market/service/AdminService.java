@@ -2,18 +2,42 @@ package yandex.practicum.market.service;
 
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import yandex.practicum.market.cache.ItemCache;
+import yandex.practicum.market.catalog.Catalog;
 import yandex.practicum.market.entity.ItemEntity;
 import yandex.practicum.market.repository.ItemRepository;
+import yandex.practicum.market.search.ItemSearchIndex;
+import yandex.practicum.market.search.ItemSuggestIndex;
 
 @Service
 public class AdminService {
     private final ItemRepository itemRepository;
+    private final ItemSearchIndex searchIndex;
+    private final Catalog catalog;
+    private final ItemCache itemCache;
+    private final ItemSuggestIndex suggestIndex;
 
-    public AdminService(ItemRepository itemRepository) {
+    public AdminService(
+            ItemRepository itemRepository,
+            ItemSearchIndex searchIndex,
+            Catalog catalog,
+            ItemCache itemCache,
+            ItemSuggestIndex suggestIndex
+    ) {
         this.itemRepository = itemRepository;
+        this.searchIndex = searchIndex;
+        this.catalog = catalog;
+        this.itemCache = itemCache;
+        this.suggestIndex = suggestIndex;
     }
 
     public ItemEntity saveItem(@NonNull ItemEntity item) {
-        return itemRepository.save(item);
+        ItemEntity savedItem = itemRepository.save(item);
+        searchIndex.index(savedItem);
+        suggestIndex.index(savedItem);
+        itemCache.invalidate(savedItem.getId());
+        // Новый снимок каталога и новая версия каталога для кэша результатов поиска
+        catalog.apply(savedItem);
+        return savedItem;
     }
 }
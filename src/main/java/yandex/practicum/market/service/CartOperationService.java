@@ -2,52 +2,121 @@ package yandex.practicum.market.service;
 
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import yandex.practicum.market.cart.CartMutation;
+import yandex.practicum.market.cart.CartStore;
+import yandex.practicum.market.dto.CartLine;
+import yandex.practicum.market.dto.CartOperation;
+import yandex.practicum.market.dto.CartUpdate;
+import yandex.practicum.market.dto.CartView;
 import yandex.practicum.market.dto.ItemDto;
 import yandex.practicum.market.dto.factory.ItemDtoFactory;
-import yandex.practicum.market.entity.CartItemEntity;
-import yandex.practicum.market.entity.CartEntity;
 import yandex.practicum.market.entity.ItemEntity;
 import yandex.practicum.market.types.ActionType;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.NoSuchElementException;
+import java.math.BigDecimal;
+import java.util.*;
 
 @Service
 public class CartOperationService {
+    private final CartStore cartStore;
     private final CartService cartService;
     private final ItemService itemService;
     private final ItemDtoFactory itemDtoFactory;
 
     public CartOperationService(
+            CartStore cartStore,
             CartService cartService,
             ItemService itemService,
             ItemDtoFactory itemDtoFactory) {
+        this.cartStore = cartStore;
         this.cartService = cartService;
         this.itemService = itemService;
         this.itemDtoFactory = itemDtoFactory;
     }
 
-   public void updateCart(
+    // Возвращает новое количество товара в корзине
+    public int updateCart(
             @NonNull String sessionId,
             @NonNull Long itemId,
             @NonNull ActionType action) throws NoSuchElementException {
         ItemEntity item = itemService.getItem(itemId);
-        CartEntity cartEntity = cartService.getOrCreateSessionById(sessionId);
-        cartService.updateCart(cartEntity, item, action);
+        return cartStore.update(sessionId, item, action);
     }
 
-    public List<ItemDto> getItemDtos(CartEntity cartEntity) {
-        Collection<CartItemEntity> cartItemEntities = cartEntity.getItems().values();
+    // Нажатие кнопки корзины без перезагрузки страницы: итог дает хранилище корзин, позиции корзины не загружаются.
+    // В режиме write-behind итог считается по корзине в памяти, запись остается сбросу по таймеру и заказу
+    public CartUpdate updateCartWithTotal(
+            @NonNull String sessionId,
+            @NonNull Long itemId,
+            @NonNull ActionType action) throws NoSuchElementException {
+        int count = updateCart(sessionId, itemId, action);
+        return new CartUpdate(itemId, count, cartStore.getTotalCost(sessionId));
+    }
+
+    /**
+     * Пакет изменений корзины: товары всех операций загружаются одним запросом,
+     * операции применяются в порядке списка и целиком.
+     * Возвращает корзину после изменений.
+     */
+    public CartView updateCart(
+            @NonNull String sessionId,
+            @NonNull List<CartOperation> operations) throws NoSuchElementException {
+        Set<Long> itemIds = new LinkedHashSet<>();
+        for (CartOperation operation : operations) {
+            validate(operation);
+            itemIds.add(operation.itemId());
+        }
+
+        Map<Long, ItemEntity> items = new HashMap<>(itemIds.size() * 2);
+        for (ItemEntity item : itemService.getItems(new ArrayList<>(itemIds))) {
+            items.put(item.getId(), item);
+        }
+
+        List<CartMutation> mutations = new ArrayList<>(operations.size());
+        for (CartOperation operation : operations) {
+            ItemEntity item = items.get(operation.itemId());
+            if (item == null) {
+                throw new NoSuchElementException("Invalid item");
+            }
+            mutations.add(operation.action() != null
+                    ? CartMutation.of(item, operation.action())
+                    : CartMutation.set(item, operation.quantity()));
+        }
+
+        if (!mutations.isEmpty()) {
+            cartStore.apply(sessionId, mutations);
+        }
+        // Корзина читается из таблиц, поэтому отложенные изменения записываются до чтения
+        cartStore.flush(sessionId);
+        return getCart(sessionId);
+    }
+
+    private static void validate(CartOperation operation) {
+        if (operation.itemId() == null) {
+            throw new IllegalArgumentException("Не указан товар");
+        }
+        if ((operation.action() == null) == (operation.quantity() == null)) {
+            throw new IllegalArgumentException("Нужно указать либо действие, либо количество товара " + operation.itemId());
+        }
+        if (operation.quantity() != null && operation.quantity() < 0) {
+            throw new IllegalArgumentException("Отрицательное количество товара " + operation.itemId());
+        }
+    }
+
+    // Позиции и итог корзины за один запрос: сумма считается в том же проходе, что и строятся DTO
+    public CartView getCart(@NonNull String sessionId) {
+        List<CartLine> lines = cartService.getLines(sessionId);
+        if (lines.isEmpty()) {
+            return CartView.EMPTY;
+        }
 
-        List<ItemDto> items = new ArrayList<>(cartItemEntities.size());
-        for(CartItemEntity cartItem : cartItemEntities) {
-            ItemEntity item = cartItem.getItem();
-            Integer quantity = cartItem.getQuantity();
-            ItemDto itemDto = itemDtoFactory.of(item, quantity);
-            items.add(itemDto);
+        List<ItemDto> items = new ArrayList<>(lines.size());
+        BigDecimal totalCost = BigDecimal.ZERO;
+        for (CartLine line : lines) {
+            String imgPath = itemDtoFactory.imageUrl(line.itemId(), line.imgPath());
+            items.add(new ItemDto(line.itemId(), line.title(), line.description(), imgPath, line.quantity(), line.price()));
+            totalCost = totalCost.add(line.cost());
         }
-        return items;
+        return new CartView(items, totalCost);
     }
 }
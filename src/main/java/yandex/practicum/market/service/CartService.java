@@ -2,9 +2,12 @@ package yandex.practicum.market.service;
 
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import yandex.practicum.market.cart.CartMutation;
+import yandex.practicum.market.dto.CartLine;
+import yandex.practicum.market.dto.CartQuantities;
 import yandex.practicum.market.types.ActionType;
 import yandex.practicum.market.entity.CartEntity;
-import yandex.practicum.market.entity.CartItemEntity;
 import yandex.practicum.market.entity.ItemEntity;
 import yandex.practicum.market.repository.CartItemRepository;
 import yandex.practicum.market.repository.CartRepository;
@@ -33,74 +36,101 @@ public class CartService {
         cartItemRepository.deleteAllByCartId(cart.getId());
     }
 
-    public void updateCart(
-            @NonNull CartEntity cartEntity,
-            @NonNull ItemEntity item,
-            @NonNull ActionType action
-    ) {
-        Optional<CartItemEntity> cartItemOptional = cartEntity.getCartItem(item);
-
-        if (cartItemOptional.isPresent()) {
-            CartItemEntity cartItem = cartItemOptional.get();
-            handleAction(cartEntity, item, action, cartItem);
-        } else if (action == ActionType.PLUS) {
-            addItemToCart(cartEntity, item);
-        }
+    /**
+     * Изменение количества товара в корзине запросами по ключу (id корзины, id товара),
+     * без загрузки корзины и ее позиций. Версия корзины увеличивается в той же транзакции.
+     * Возвращает новое количество товара в корзине; 0 - товара в корзине нет.
+     */
+    @Transactional
+    public int updateQuantity(long cartId, @NonNull ItemEntity item, @NonNull ActionType action) {
+        int quantity = changeQuantity(cartId, item, action);
+        cartRepository.incrementVersion(cartId);
+        return quantity;
+    }
 
-        saveCart(cartEntity);
+    // Установка количества товара в корзине; 0 - удаление позиции
+    @Transactional
+    public int setQuantity(long cartId, @NonNull ItemEntity item, int quantity) {
+        assignQuantity(cartId, item, quantity);
+        cartRepository.incrementVersion(cartId);
+        return quantity;
     }
 
-    private void handleAction(CartEntity cartEntity, ItemEntity item, ActionType action, CartItemEntity cartItem) {
-        switch (action) {
-            case PLUS -> increaseQuantity(cartItem);
-            case MINUS -> decreaseQuantity(cartEntity, item, cartItem);
-            case DELETE -> removeItemFromCart(cartEntity, item);
+    // Пакет изменений корзины в одной транзакции; версия корзины увеличивается один раз
+    @Transactional
+    public void apply(long cartId, @NonNull List<CartMutation> mutations) {
+        for (CartMutation mutation : mutations) {
+            if (mutation.action() != null) {
+                changeQuantity(cartId, mutation.item(), mutation.action());
+            } else {
+                assignQuantity(cartId, mutation.item(), mutation.quantity());
+            }
         }
+        cartRepository.incrementVersion(cartId);
     }
 
-    private void increaseQuantity(CartItemEntity cartItem) {
-        int quantity = cartItem.getQuantity();
-        cartItem.setQuantity(quantity + 1);
+    private int changeQuantity(long cartId, ItemEntity item, ActionType action) {
+        long itemId = item.getId();
+        return switch (action) {
+            case PLUS -> cartItemRepository.incrementQuantity(cartId, itemId, item.getPrice());
+            case MINUS -> decreaseQuantity(cartId, itemId);
+            case DELETE -> {
+                cartItemRepository.deleteItem(cartId, itemId);
+                yield 0;
+            }
+        };
     }
 
-    private void decreaseQuantity(CartEntity cartEntity, ItemEntity item, CartItemEntity cartItem) {
-        int quantity = cartItem.getQuantity();
-        if (quantity > 1) {
-            cartItem.setQuantity(quantity - 1);
+    private void assignQuantity(long cartId, ItemEntity item, int quantity) {
+        if (quantity == 0) {
+            cartItemRepository.deleteItem(cartId, item.getId());
         } else {
-            removeItemFromCart(cartEntity, item);
+            cartItemRepository.setQuantity(cartId, item.getId(), quantity, item.getPrice());
+        }
+    }
+
+    private int decreaseQuantity(long cartId, long itemId) {
+        Optional<Integer> quantity = cartItemRepository.decrementQuantity(cartId, itemId);
+        if (quantity.isPresent()) {
+            return quantity.get();
+        }
+        if (cartItemRepository.deleteLastUnit(cartId, itemId) > 0) {
+            return 0;
         }
+        // Позиции нет, либо между запросами количество выросло - тогда уменьшаем его повторно
+        return cartItemRepository.decrementQuantity(cartId, itemId).orElse(0);
     }
 
-    private void removeItemFromCart(CartEntity cartEntity, ItemEntity item) {
-        cartEntity.getItems().remove(item);
+    // id корзины сессии без загрузки корзины; корзина создается при первом изменении
+    public long getOrCreateCartId(@NonNull String sessionId) {
+        return findCartId(sessionId)
+                .orElseGet(() -> cartRepository.save(new CartEntity(sessionId)).getId());
     }
 
-    private void addItemToCart(CartEntity cartEntity, ItemEntity item) {
-        int quantity = 1;
-        BigDecimal price = item.getPrice();
-        CartItemEntity cartDetail = new CartItemEntity(cartEntity, item, quantity, price);
-        cartEntity.getItems().put(item, cartDetail);
+    public Optional<Long> findCartId(@NonNull String sessionId) {
+        return cartRepository.findIdBySessionId(sessionId);
     }
 
-    private void saveCart(CartEntity cartEntity) {
-        cartRepository.save(cartEntity);
+    // Корзина сессии с позициями; корзина не создается
+    public Optional<CartEntity> findSession(@NonNull String sessionId) {
+        return cartRepository.findBySessionId(sessionId);
     }
 
-    public CartEntity getOrCreateSessionById(@NonNull String sessionId) {
-        Optional<CartEntity> cartOptional = cartRepository.findBySessionId(sessionId);
-        if (cartOptional.isPresent()) {
-            return cartOptional.get();
-        } else {
-            return saveSession(new CartEntity(sessionId));
-        }
+    // Количества товаров в корзине сессии по id товара; корзина не загружается и не создается
+    @Transactional(readOnly = true)
+    public CartQuantities getQuantities(@NonNull String sessionId) {
+        return CartQuantities.of(cartItemRepository.findQuantitiesBySessionId(sessionId));
     }
 
-    public CartEntity saveSession(@NonNull CartEntity cartEntity) {
-        return cartRepository.save(cartEntity);
+    // Позиции корзины сессии с данными товаров одним запросом; корзина не загружается и не создается
+    @Transactional(readOnly = true)
+    public List<CartLine> getLines(@NonNull String sessionId) {
+        return cartItemRepository.findLinesBySessionId(sessionId);
     }
 
-    public BigDecimal getCartTotalCostBySessionId(@NonNull Long sessionId) {
-        return cartItemRepository.sumTotalCostInCartBySessionId(sessionId).orElse(BigDecimal.ZERO);
+    // Итог корзины сессии одним агрегирующим запросом; у сессии без корзины - 0
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalCost(@NonNull String sessionId) {
+        return cartItemRepository.sumCostBySessionId(sessionId);
     }
 }
@@ -0,0 +1,57 @@
+package yandex.practicum.market.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import yandex.practicum.market.cart.CartLocks;
+import yandex.practicum.market.cart.CartStore;
+import yandex.practicum.market.entity.OrderEntity;
+
+/**
+ * Оформление заказа под блокировкой сессии: нажатия в этом экземпляре приложения ждут окончания заказа,
+ * поэтому между сбросом отложенных изменений, заказом и очисткой корзины в памяти изменений нет.
+ * Изменение корзины из другого экземпляра обнаруживается по версии корзины,
+ * и заказ собирается заново по новому составу корзины - не более max-attempts раз.
+ */
+@Service
+public class CheckoutService {
+    private final OrderService orderService;
+    private final CartStore cartStore;
+    private final CartLocks cartLocks;
+    private final int maxAttempts;
+
+    public CheckoutService(
+            OrderService orderService,
+            CartStore cartStore,
+            CartLocks cartLocks,
+            @Value("${cart.checkout.max-attempts:3}") int maxAttempts
+    ) {
+        this.orderService = orderService;
+        this.cartStore = cartStore;
+        this.cartLocks = cartLocks;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public OrderEntity checkout(@NonNull String sessionId) {
+        return cartLocks.withLock(sessionId, () -> {
+            // Заказ собирается из таблиц корзины: все отложенные изменения должны быть записаны
+            cartStore.flush(sessionId);
+            OrderEntity order = checkoutWithRetry(sessionId);
+            cartStore.evict(sessionId);
+            return order;
+        });
+    }
+
+    private OrderEntity checkoutWithRetry(String sessionId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return orderService.checkout(sessionId);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
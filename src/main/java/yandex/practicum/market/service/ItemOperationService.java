@@ -3,18 +3,20 @@ package yandex.practicum.market.service;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import yandex.practicum.market.cart.CartStore;
+import yandex.practicum.market.catalog.Catalog;
+import yandex.practicum.market.catalog.CatalogItem;
+import yandex.practicum.market.catalog.CatalogSnapshot;
+import yandex.practicum.market.dto.CartQuantities;
 import yandex.practicum.market.dto.ItemDto;
 import yandex.practicum.market.dto.factory.ItemDtoFactory;
-import yandex.practicum.market.entity.CartItemEntity;
-import yandex.practicum.market.entity.CartEntity;
 import yandex.practicum.market.entity.ItemEntity;
 
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 public class ItemOperationService {
@@ -24,19 +26,30 @@ public class ItemOperationService {
     private int itemRowSize;
 
     private final ItemDtoFactory itemDtoFactory;
-    private final CartService cartService;
+    private final CartStore cartStore;
     private final ItemService itemService;
+    private final Catalog catalog;
 
-    public ItemOperationService(ItemDtoFactory itemDtoFactory, CartService cartService, ItemService itemService) {
+    public ItemOperationService(
+            ItemDtoFactory itemDtoFactory,
+            CartStore cartStore,
+            ItemService itemService,
+            Catalog catalog
+    ) {
         this.itemDtoFactory = itemDtoFactory;
-        this.cartService = cartService;
+        this.cartStore = cartStore;
         this.itemService = itemService;
+        this.catalog = catalog;
     }
 
-    public List<List<ItemDto>> getListOfListItemDto(String sessionId, Page<ItemEntity> page) {
-        CartEntity cart = cartService.getOrCreateSessionById(sessionId);
+    public List<List<ItemDto>> getListOfListItemDto(String sessionId, Slice<ItemEntity> page) {
+        return getListOfListItemDto(sessionId, page.getContent());
+    }
+
+    public List<List<ItemDto>> getListOfListItemDto(String sessionId, List<ItemEntity> items) {
+        CartQuantities quantities = cartStore.getQuantities(sessionId);
+        CatalogSnapshot snapshot = catalog.snapshot();
 
-        List<ItemEntity> items = page.getContent();
         List<List<ItemDto>> listOfListItemDto  = new LinkedList<>();
 
         int count = 0;
@@ -44,13 +57,8 @@ public class ItemOperationService {
         listOfListItemDto .add(listItemDto);
 
         for (ItemEntity item : items) {
-            Integer quantity = 0;
-            Optional<CartItemEntity> cartItemOptional = cart.getCartItem(item);
-            if (cartItemOptional.isPresent()) {
-                CartItemEntity cartItem = cartItemOptional.get();
-                quantity = cartItem.getQuantity();
-            }
-            ItemDto itemDto = itemDtoFactory.of(item, quantity);
+            Integer quantity = item.getId() != null ? quantities.get(item.getId()) : 0;
+            ItemDto itemDto = toItemDto(snapshot, item, quantity);
             listItemDto.add(itemDto);
 
             if (count < itemRowSize - 1) {
@@ -65,16 +73,18 @@ public class ItemOperationService {
     }
     public ItemDto getItem(Long id, String sessionId) {
         ItemEntity item = itemService.getItem(id);
-        CartEntity cartEntity = cartService.getOrCreateSessionById(sessionId);
-        Optional<CartItemEntity> cartItemOptional = cartEntity.getCartItem(item);
-
-        Integer quantity = 0;
-        if (cartItemOptional.isPresent()) {
-            CartItemEntity cartItem = cartItemOptional.get();
-            quantity = cartItem.getQuantity();
-        }
+        Integer quantity = cartStore.getQuantities(sessionId).get(item.getId());
 
-        ItemDto itemDto = itemDtoFactory.of(item, quantity);
+        ItemDto itemDto = toItemDto(catalog.snapshot(), item, quantity);
         return itemDto;
     }
+
+    // Для товара из снимка каталога путь к изображению уже вычислен
+    private ItemDto toItemDto(CatalogSnapshot snapshot, ItemEntity item, Integer quantity) {
+        CatalogItem catalogItem = snapshot != null && item.getId() != null ? snapshot.find(item.getId()) : null;
+        if (catalogItem != null) {
+            return itemDtoFactory.of(catalogItem, quantity);
+        }
+        return itemDtoFactory.of(item, quantity);
+    }
 }
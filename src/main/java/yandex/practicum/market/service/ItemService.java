@@ -1,32 +1,374 @@
 package yandex.practicum.market.service;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import yandex.practicum.market.cache.ItemCache;
+import yandex.practicum.market.cache.ItemSearchCache;
+import yandex.practicum.market.catalog.Catalog;
+import yandex.practicum.market.catalog.CatalogItem;
+import yandex.practicum.market.catalog.CatalogSnapshot;
+import yandex.practicum.market.dto.CursorPage;
+import yandex.practicum.market.dto.ItemView;
+import yandex.practicum.market.dto.PageCursor;
+import yandex.practicum.market.dto.PriceFacet;
+import yandex.practicum.market.dto.PriceRange;
 import yandex.practicum.market.entity.ItemEntity;
 import yandex.practicum.market.repository.ItemRepository;
+import yandex.practicum.market.search.ItemDocument;
+import yandex.practicum.market.search.ItemSearchIndex;
+import yandex.practicum.market.types.SortType;
 
-import java.util.NoSuchElementException;
-import java.util.Optional;
+import java.util.*;
 
+/**
+ * Чтение каталога. Товары из БД выбираются проекцией в ItemView, сущности в контекст персистентности не попадают;
+ * возвращаемые ItemEntity - отсоединенные копии представлений.
+ * Сервис не открывает транзакций: страницы из снимка каталога и кэшей не берут соединение из пула,
+ * а запросы к БД выполняются в read-only транзакциях репозитория.
+ */
 @Service
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final ItemSearchIndex searchIndex;
+    private final ItemSearchCache searchCache;
+    private final ItemCache itemCache;
+    private final Catalog catalog;
 
-    public ItemService(ItemRepository itemRepository) {
+    public ItemService(
+            ItemRepository itemRepository,
+            ItemSearchIndex searchIndex,
+            ItemSearchCache searchCache,
+            ItemCache itemCache,
+            Catalog catalog
+    ) {
         this.itemRepository = itemRepository;
+        this.searchIndex = searchIndex;
+        this.searchCache = searchCache;
+        this.itemCache = itemCache;
+        this.catalog = catalog;
     }
 
-    public Page<ItemEntity> getItems(@Nullable String searchTerm, @NonNull Pageable pageable) {
-        return itemRepository.findAllBySearchTerm(searchTerm, pageable);
+    // Страница каталога без COUNT-запроса: для навигации достаточно hasNext/hasPrevious
+    public Slice<ItemEntity> getItems(@Nullable String searchTerm, @NonNull Pageable pageable) {
+        return getItems(searchTerm, PriceRange.ANY, pageable);
     }
 
+    public Slice<ItemEntity> getItems(@Nullable String searchTerm, @NonNull PriceRange priceRange, @NonNull Pageable pageable) {
+        // Снимок читается один раз: вся страница строится по одной версии каталога
+        CatalogSnapshot snapshot = catalog.snapshot();
+        SortType sortType = SortType.of(pageable.getSort());
+        if (snapshot != null && sortType != null && isBrowse(searchTerm)) {
+            return browse(snapshot, sortType, priceRange, pageable);
+        }
+
+        // Страницы с фильтром по цене не кэшируются: сочетаний границ слишком много
+        if (pageable.isUnpaged() || priceRange.isBounded()) {
+            return findItems(snapshot, searchTerm, priceRange, pageable);
+        }
+
+        // Повторный запрос той же страницы берет из кэша только id, товары берутся из снимка или по первичному ключу
+        ItemSearchCache.Key key = searchCache.key(searchTerm, pageable);
+        ItemSearchCache.Window window = searchCache.get(key);
+        if (window != null) {
+            return new SliceImpl<>(getItemsByIds(snapshot, window.ids()), pageable, window.hasNext());
+        }
+
+        Slice<ItemEntity> page = findItems(snapshot, searchTerm, PriceRange.ANY, pageable);
+        searchCache.put(key, ItemSearchCache.Window.of(page));
+        return page;
+    }
+
+    private Slice<ItemEntity> findItems(
+            @Nullable CatalogSnapshot snapshot,
+            @Nullable String searchTerm,
+            @NonNull PriceRange priceRange,
+            @NonNull Pageable pageable
+    ) {
+        if (isBrowse(searchTerm)) {
+            return browse(priceRange, pageable);
+        }
+        if (!searchIndex.isSearchable(searchTerm)) {
+            Pageable sortable = withoutRelevance(pageable);
+            Slice<ItemView> page = priceRange.isBounded()
+                    ? itemRepository.findSliceBySearchTermAndPrice(searchTerm, priceRange.min(), priceRange.max(), sortable)
+                    : itemRepository.findSliceBySearchTerm(searchTerm, sortable);
+            return page.map(ItemView::toEntity);
+        }
+
+        if (SortType.of(pageable.getSort()) == SortType.RELEVANCE) {
+            return rankItems(snapshot, searchTerm, findHits(searchTerm, priceRange), pageable);
+        }
+
+        // Найденные документы упорядочены один раз на запрос, из БД загружаются только товары текущей страницы
+        List<ItemDocument> hits = inRange(searchHits(searchTerm).sorted(pageable.getSort()), priceRange);
+
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), hits.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), hits.size()) : hits.size();
+
+        return new PageImpl<>(getItemsByDocuments(snapshot, hits.subList(from, to)), pageable, hits.size());
+    }
+
+    // Ранжирование по релевантности: из найденных отбираются только первые offset + pageSize документов
+    private Slice<ItemEntity> rankItems(
+            @Nullable CatalogSnapshot snapshot,
+            @NonNull String searchTerm,
+            @NonNull List<ItemDocument> hits,
+            @NonNull Pageable pageable
+    ) {
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), hits.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), hits.size()) : hits.size();
+        List<ItemDocument> top = searchIndex.rank(searchTerm, hits, to);
+
+        return new PageImpl<>(getItemsByDocuments(snapshot, top.subList(from, top.size())), pageable, hits.size());
+    }
+
+    // Просмотр каталога по БД без условия LIKE: порядок с id в конце совпадает с индексами (title, id) и (price, id)
+    private Slice<ItemEntity> browse(@NonNull PriceRange priceRange, @NonNull Pageable pageable) {
+        Pageable indexed = withIdOrder(withoutRelevance(pageable));
+        Slice<ItemView> page = priceRange.isBounded()
+                ? itemRepository.findSliceBySearchTermAndPrice(null, priceRange.min(), priceRange.max(), indexed)
+                : itemRepository.findSliceBy(indexed);
+        return page.map(ItemView::toEntity);
+    }
+
+    private static Pageable withIdOrder(@NonNull Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.getOrderFor("id") != null) {
+            return pageable;
+        }
+        Sort ordered = sort.and(Sort.by("id"));
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ordered) : Pageable.unpaged(ordered);
+    }
+
+    // В БД нет оценки релевантности: без индекса товары возвращаются в порядке по умолчанию
+    private static Pageable withoutRelevance(@NonNull Pageable pageable) {
+        if (pageable.getSort().getOrderFor(SortType.RELEVANCE_PROPERTY) == null) {
+            return pageable;
+        }
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()) : Pageable.unpaged();
+    }
+
+    // Keyset-пагинация: страница до или после курсора без OFFSET и COUNT
+    public CursorPage<ItemEntity> getItems(@Nullable String searchTerm, @NonNull PageCursor cursor, int pageSize) {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        if (isBrowse(searchTerm)) {
+            return snapshot != null ? browse(snapshot, cursor, pageSize) : browse(cursor, pageSize);
+        }
+
+        Sort sort = SortType.toSort(cursor.sortType());
+        if (!searchIndex.isSearchable(searchTerm)) {
+            // Пока индекс не построен, курсор переводится в номер страницы
+            Pageable pageable = PageRequest.of(cursor.pageNumber() - 1, pageSize, sort);
+            Slice<ItemEntity> page = itemRepository.findSliceBySearchTerm(searchTerm, pageable).map(ItemView::toEntity);
+            return new CursorPage<>(page.getContent(), page.hasPrevious(), page.hasNext());
+        }
+
+        // Позиция курсора в отсортированных результатах поиска - бинарным поиском
+        List<ItemDocument> hits = searchHits(searchTerm).sorted(sort);
+        ItemDocument key = new ItemDocument(cursor.id(), cursor.title(), null, cursor.price());
+        Range range = Range.around(hits, key, ItemDocument.comparator(sort), cursor, pageSize);
+
+        List<ItemEntity> items = getItemsByDocuments(snapshot, hits.subList(range.from(), range.to()));
+        return new CursorPage<>(items, range.from() > 0, range.to() < hits.size());
+    }
+
+    /**
+     * Гистограмма цен найденных товаров по интервалам каталога; текущий фильтр по цене не учитывается,
+     * чтобы можно было перейти к другому интервалу. Цены берутся из закэшированного результата того же запроса,
+     * который уже построила страница товаров: поиск не выполняется повторно, запросов к БД нет.
+     * Пока снимок каталога или индекс не построен, гистограмма пустая.
+     */
+    public List<PriceFacet> getPriceFacets(@Nullable String searchTerm) {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        if (snapshot == null) {
+            return List.of();
+        }
+        if (isBrowse(searchTerm)) {
+            return snapshot.prices().facets();
+        }
+        if (!searchIndex.isSearchable(searchTerm)) {
+            return List.of();
+        }
+        return snapshot.prices().facets(searchHits(searchTerm).prices());
+    }
+
+    // Каждый вызов получает свою копию сущности, в снимке и кэше хранится неизменяемое представление
     public ItemEntity getItem(@NonNull Long itemId) {
-        return itemRepository.findById(itemId).orElseThrow(() -> new NoSuchElementException("Invalid item"));
+        return getItemView(itemId).toEntity();
+    }
+
+    // Товары по списку id одним запросом к БД (товары из снимка каталога не запрашиваются); отсутствующие пропускаются
+    public List<ItemEntity> getItems(@NonNull List<Long> ids) {
+        return getItemsByIds(catalog.snapshot(), ids);
+    }
+
+    public ItemView getItemView(long itemId) {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        CatalogItem catalogItem = snapshot != null ? snapshot.find(itemId) : null;
+        if (catalogItem != null) {
+            return catalogItem.item();
+        }
+        return itemCache.get(itemId);
+    }
+
+    // Пустой или состоящий из пробелов запрос - просмотр каталога без поиска
+    private static boolean isBrowse(@Nullable String searchTerm) {
+        return searchTerm == null || searchTerm.isBlank();
+    }
+
+    private List<ItemDocument> findHits(String searchTerm, PriceRange priceRange) {
+        return inRange(findHits(searchTerm), priceRange);
+    }
+
+    private List<ItemDocument> findHits(String searchTerm) {
+        return searchHits(searchTerm).documents();
+    }
+
+    // Результат поиска берется из кэша до изменения каталога: повторные страницы запроса не ищут заново
+    private ItemSearchCache.Hits searchHits(String searchTerm) {
+        return searchCache.hits(searchTerm, this::search);
+    }
+
+    // Точный поиск по подстроке; если он ничего не нашел - поиск с опечатками
+    private List<ItemDocument> search(String searchTerm) {
+        List<ItemDocument> hits = searchIndex.search(searchTerm);
+        return hits.isEmpty() ? searchIndex.searchFuzzy(searchTerm) : hits;
+    }
+
+    // Фильтр по цене сохраняет порядок документов
+    private static List<ItemDocument> inRange(List<ItemDocument> hits, PriceRange priceRange) {
+        if (!priceRange.isBounded()) {
+            return hits;
+        }
+
+        List<ItemDocument> inRange = new ArrayList<>();
+        for (ItemDocument hit : hits) {
+            if (priceRange.contains(hit.price())) {
+                inRange.add(hit);
+            }
+        }
+        return inRange;
+    }
+
+    // Просмотр каталога по снимку: страница - отрезок заранее упорядоченного списка
+    private static Slice<ItemEntity> browse(CatalogSnapshot snapshot, SortType sortType, PriceRange priceRange, Pageable pageable) {
+        List<CatalogItem> ordered = snapshot.ordered(sortType, priceRange);
+
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), ordered.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), ordered.size()) : ordered.size();
+
+        return new SliceImpl<>(toEntities(ordered.subList(from, to)), pageable, to < ordered.size());
+    }
+
+    private static CursorPage<ItemEntity> browse(CatalogSnapshot snapshot, PageCursor cursor, int pageSize) {
+        List<CatalogItem> ordered = snapshot.ordered(cursor.sortType());
+        CatalogItem key = new CatalogItem(new ItemView(cursor.id(), cursor.title(), null, null, cursor.price()), null);
+        Range range = Range.around(ordered, key, CatalogSnapshot.comparator(cursor.sortType()), cursor, pageSize);
+
+        List<ItemEntity> items = toEntities(ordered.subList(range.from(), range.to()));
+        return new CursorPage<>(items, range.from() > 0, range.to() < ordered.size());
+    }
+
+    // Просмотр каталога без поиска: запрос по составному индексу, лишняя строка показывает наличие продолжения
+    private CursorPage<ItemEntity> browse(PageCursor cursor, int pageSize) {
+        Limit limit = Limit.of(pageSize + 1);
+        boolean next = cursor.isNext();
+
+        List<ItemView> views = switch (cursor.sortType()) {
+            case NO, RELEVANCE -> next
+                    ? itemRepository.findByIdGreaterThanOrderByIdAsc(cursor.id(), limit)
+                    : itemRepository.findByIdLessThanOrderByIdDesc(cursor.id(), limit);
+            case ALPHA -> next
+                    ? itemRepository.findAfterTitle(cursor.title(), cursor.id(), limit)
+                    : itemRepository.findBeforeTitle(cursor.title(), cursor.id(), limit);
+            case PRICE -> next
+                    ? itemRepository.findAfterPrice(cursor.price(), cursor.id(), limit)
+                    : itemRepository.findBeforePrice(cursor.price(), cursor.id(), limit);
+        };
+
+        boolean hasMore = views.size() > pageSize;
+        List<ItemEntity> content = new ArrayList<>(Math.min(pageSize, views.size()));
+        for (ItemView view : views.subList(0, Math.min(pageSize, views.size()))) {
+            content.add(view.toEntity());
+        }
+        if (!next) {
+            Collections.reverse(content);
+        }
+
+        return next ? new CursorPage<>(content, true, hasMore) : new CursorPage<>(content, hasMore, true);
+    }
+
+    private static List<ItemEntity> toEntities(List<CatalogItem> catalogItems) {
+        List<ItemEntity> items = new ArrayList<>(catalogItems.size());
+        for (CatalogItem catalogItem : catalogItems) {
+            items.add(catalogItem.toEntity());
+        }
+        return items;
+    }
+
+    // Загрузка товаров найденных документов с сохранением их порядка
+    private List<ItemEntity> getItemsByDocuments(@Nullable CatalogSnapshot snapshot, List<ItemDocument> documents) {
+        List<Long> ids = new ArrayList<>(documents.size());
+        for (ItemDocument document : documents) {
+            ids.add(document.id());
+        }
+        return getItemsByIds(snapshot, ids);
+    }
+
+    // Товары по списку id с сохранением порядка списка: из снимка, а отсутствующие в нем - из БД
+    private List<ItemEntity> getItemsByIds(@Nullable CatalogSnapshot snapshot, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ItemEntity> itemsById = new HashMap<>(ids.size() * 2);
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            CatalogItem catalogItem = snapshot != null ? snapshot.find(id) : null;
+            if (catalogItem != null) {
+                itemsById.put(id, catalogItem.toEntity());
+            } else {
+                missingIds.add(id);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            for (ItemView view : itemRepository.findViewsByIdIn(missingIds)) {
+                itemsById.put(view.id(), view.toEntity());
+            }
+        }
+
+        List<ItemEntity> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ItemEntity item = itemsById.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    // Границы страницы до или после курсора в отсортированном списке
+    private record Range(int from, int to) {
+
+        static <T> Range around(List<T> sorted, T key, Comparator<? super T> comparator, PageCursor cursor, int pageSize) {
+            int position = Collections.binarySearch(sorted, key, comparator);
+            if (cursor.isNext()) {
+                int from = position >= 0 ? position + 1 : -position - 1;
+                return new Range(from, Math.min(from + pageSize, sorted.size()));
+            }
+            int to = position >= 0 ? position : -position - 1;
+            return new Range(Math.max(0, to - pageSize), to);
+        }
     }
 
 }
@@ -1,41 +1,99 @@
 package yandex.practicum.market.service;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import yandex.practicum.market.dto.OrderLine;
+import yandex.practicum.market.dto.OrderSummary;
 import yandex.practicum.market.entity.CartEntity;
 import yandex.practicum.market.entity.OrderEntity;
+import yandex.practicum.market.entity.OrderItemEntity;
 import yandex.practicum.market.repository.OrderItemRepository;
 import yandex.practicum.market.repository.OrderRepository;
+import yandex.practicum.market.search.ItemSuggestIndex;
 
-import java.math.BigDecimal;
 import java.util.*;
 
 @Service
 public class OrderService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
+    private final ItemSuggestIndex suggestIndex;
+    private final CartService cartService;
 
-    public OrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository) {
+    public OrderService(
+            OrderRepository orderRepository,
+            OrderItemRepository orderItemRepository,
+            ItemSuggestIndex suggestIndex,
+            CartService cartService
+    ) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
+        this.suggestIndex = suggestIndex;
+        this.cartService = cartService;
+    }
+
+    /**
+     * Заказ из корзины сессии и очистка корзины в одной транзакции.
+     * Если позиции корзины изменились после ее чтения, фиксация завершается
+     * ошибкой оптимистической блокировки, и заказ не создается.
+     * Пустую корзину, как и отсутствующую, заказать нельзя; корзина при этом не создается.
+     */
+    @Transactional
+    public OrderEntity checkout(@NonNull String sessionId) {
+        CartEntity cart = cartService.findSession(sessionId)
+                .filter(session -> !session.getItems().isEmpty())
+                .orElseThrow(() -> new IllegalArgumentException("Корзина пуста"));
+        OrderEntity order = buy(cart);
+        cartService.clear(cart);
+        return order;
     }
 
     public OrderEntity buy(@NonNull CartEntity cartEntity) {
         OrderEntity order = new OrderEntity(cartEntity);
         OrderEntity savedOrder = orderRepository.save(order);
 
+        // Заказанные товары поднимаются в подсказках поиска
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItemEntity orderItem : savedOrder.getItems().values()) {
+            quantities.merge(orderItem.getItem().getId(), orderItem.getQuantity(), Integer::sum);
+        }
+        recordSalesAfterCommit(quantities);
+
         return savedOrder;
     }
 
-    public List<OrderEntity> getAllOrdersBySessionId(@NonNull Long id) {
-        return orderRepository.findBySessionId(id);
+    // Индекс подсказок в памяти не откатывается: продажи учитываются только после фиксации заказа,
+    // иначе заказ, повторенный после ошибки оптимистической блокировки, был бы учтен несколько раз
+    private void recordSalesAfterCommit(Map<Long, Integer> quantities) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            suggestIndex.recordSales(quantities);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                suggestIndex.recordSales(quantities);
+            }
+        });
     }
 
-    public OrderEntity getOrder(@NonNull Long id) {
-        return orderRepository.findById(id).orElseThrow(() -> new NoSuchElementException("Invalid order"));
+    // История заказов сессии, новые сверху; позиции читаются только на карточке заказа
+    @Transactional(readOnly = true)
+    public Slice<OrderSummary> getOrderSummaries(@NonNull String sessionId, @NonNull Pageable pageable) {
+        return orderRepository.findSummariesBySessionId(sessionId, pageable);
     }
 
-    public BigDecimal getOrderTotalCost(@NonNull Long id) {
-        return orderItemRepository.sumTotalCostInOrder(id).orElse(BigDecimal.ZERO);
+    @Transactional(readOnly = true)
+    public List<OrderLine> getOrderLines(@NonNull Long id) {
+        List<OrderLine> lines = orderItemRepository.findLinesByOrderId(id);
+        if (lines.isEmpty() && !orderRepository.existsById(id)) {
+            throw new NoSuchElementException("Invalid order");
+        }
+        return lines;
     }
 }
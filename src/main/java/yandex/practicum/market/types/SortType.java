@@ -3,7 +3,11 @@ package yandex.practicum.market.types;
 import org.springframework.data.domain.Sort;
 
 public enum SortType {
-    NO, ALPHA, PRICE;
+    NO, ALPHA, PRICE, RELEVANCE;
+
+    // Порядок по релевантности вычисляет поисковый индекс, в БД такого поля нет
+    public static final String RELEVANCE_PROPERTY = "relevance";
+
     public static Sort toSort(SortType sortType) {
         if (sortType == null) {
             return Sort.unsorted();
@@ -14,9 +18,21 @@ public enum SortType {
                 return Sort.by(Sort.Direction.ASC, "title");
             case PRICE:
                 return Sort.by(Sort.Direction.ASC, "price");
+            case RELEVANCE:
+                return Sort.by(Sort.Direction.DESC, RELEVANCE_PROPERTY);
             case NO:
             default:
                 return Sort.unsorted();
         }
     }
+
+    // Обратное преобразование; null, если порядок не соответствует ни одному варианту
+    public static SortType of(Sort sort) {
+        for (SortType sortType : values()) {
+            if (toSort(sortType).equals(sort)) {
+                return sortType;
+            }
+        }
+        return null;
+    }
 }
@@ -14,12 +14,21 @@ CREATE TABLE items (
     price DECIMAL(10,2) NOT NULL DEFAULT 0.0 CHECK (price >= 0.0)
 );
 
+-- Индексы для keyset-пагинации по сортировкам каталога
+CREATE INDEX idx_items_title_id ON items(title, id);
+CREATE INDEX idx_items_price_id ON items(price, id);
+
 -- Таблица сессий
 CREATE TABLE carts (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    session_id VARCHAR(64) UNIQUE
+    session_id VARCHAR(64) UNIQUE,
+    last_activity TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
+-- Индекс для удаления брошенных корзин
+CREATE INDEX idx_carts_last_activity ON carts(last_activity);
+
 -- Таблица деталей корзин
 CREATE TABLE cart_details (
     session_id BIGINT NOT NULL,
@@ -36,11 +45,13 @@ CREATE TABLE cart_details (
 CREATE TABLE orders (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     session_id BIGINT NOT NULL,
+    total_cost DECIMAL(12,2) NOT NULL DEFAULT 0.0,
+    item_count INT NOT NULL DEFAULT 0,
 
     FOREIGN KEY (session_id) REFERENCES carts(id) ON DELETE RESTRICT
 );
 
-CREATE INDEX idx_session_id ON orders(session_id);
+CREATE INDEX idx_session_id ON orders(session_id, id);
 
 -- Таблица деталей заказов
 CREATE TABLE order_details (
@@ -0,0 +1,68 @@
+// Кнопки корзины без перезагрузки страницы: форма отправляется запросом с заголовком X-Requested-With,
+// ответ {itemId, count, total} обновляет счетчик товара и итог корзины.
+// Без скрипта или при ошибке запроса форма отправляется как обычно, с переадресацией.
+(function () {
+    document.querySelectorAll('form[data-cart]').forEach(function (form) {
+        form.addEventListener('submit', function (event) {
+            const button = event.submitter;
+            if (!button || !button.name) {
+                return;
+            }
+            event.preventDefault();
+
+            const data = new FormData(form);
+            data.append(button.name, button.value);
+            fetch(form.action, {
+                method: 'POST',
+                headers: {'X-Requested-With': 'XMLHttpRequest'},
+                body: new URLSearchParams(data)
+            })
+                .then(function (response) {
+                    if (!response.ok) {
+                        throw new Error(response.statusText);
+                    }
+                    return response.json();
+                })
+                .then(function (update) {
+                    render(form, update);
+                })
+                .catch(function () {
+                    submit(form, button);
+                });
+        });
+    });
+
+    function render(form, update) {
+        form.querySelectorAll('[data-cart-count]').forEach(function (count) {
+            count.textContent = update.count;
+        });
+        form.querySelectorAll('[data-cart-add]').forEach(function (add) {
+            add.hidden = update.count !== 0;
+        });
+
+        const line = form.closest('[data-cart-line]');
+        if (line && update.count === 0) {
+            line.remove();
+            if (!document.querySelector('[data-cart-line]')) {
+                // Корзина опустела: страница пустой корзины строится сервером
+                location.reload();
+                return;
+            }
+        }
+        if (update.total !== null) {
+            document.querySelectorAll('[data-cart-total]').forEach(function (total) {
+                total.textContent = 'Итого: ' + Number(update.total).toFixed(2) + ' руб.';
+            });
+        }
+    }
+
+    // Обычная отправка формы: submit() не вызывает обработчик и не передает нажатую кнопку
+    function submit(form, button) {
+        const action = document.createElement('input');
+        action.type = 'hidden';
+        action.name = button.name;
+        action.value = button.value;
+        form.appendChild(action);
+        form.submit();
+    }
+})();
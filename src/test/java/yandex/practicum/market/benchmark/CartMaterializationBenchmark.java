@@ -0,0 +1,104 @@
+package yandex.practicum.market.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import yandex.practicum.market.catalog.Catalog;
+import yandex.practicum.market.search.ItemSearchIndex;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Нагрузка уникальными посетителями: каждый листает каталог, открывает товар, корзину и заказы,
+// небольшая доля добавляет товар в корзину. Вставки в carts должны идти только от добавивших товар.
+// Запуск: gradle benchmark
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Tag("benchmark")
+class CartMaterializationBenchmark {
+    private static final int ITEM_COUNT = 1_000;
+    private static final int BUYER_PERCENT = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemSearchIndex searchIndex;
+
+    @Autowired
+    private Catalog catalog;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000})
+    void cartInsertsPerUniqueVisitor(int visitorCount) throws Exception {
+        List<Long> itemIds = fillItems();
+        searchIndex.rebuild();
+        catalog.rebuild();
+        Random random = new Random(42);
+
+        long cartsBefore = countCarts();
+        int buyers = 0;
+        long start = System.nanoTime();
+        for (int visitor = 0; visitor < visitorCount; visitor++) {
+            MockHttpSession session = new MockHttpSession(null, "visitor-" + visitor);
+            long itemId = itemIds.get(random.nextInt(itemIds.size()));
+
+            mockMvc.perform(get("/items").session(session)).andExpect(status().isOk());
+            mockMvc.perform(get("/items/" + itemId).session(session)).andExpect(status().isOk());
+            mockMvc.perform(get("/cart/items").session(session)).andExpect(status().isOk());
+            mockMvc.perform(get("/orders").session(session)).andExpect(status().isOk());
+
+            if (random.nextInt(100) < BUYER_PERCENT) {
+                buyers++;
+                mockMvc.perform(post("/items/" + itemId).session(session).param("action", "PLUS"))
+                        .andExpect(status().is3xxRedirection());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        long inserts = countCarts() - cartsBefore;
+
+        System.out.printf("%n=== %,d unique visitors, %d%% add to cart ===%n", visitorCount, BUYER_PERCENT);
+        System.out.printf("visitors: %9.1f /s%n", visitorCount / seconds);
+        System.out.printf("inserts:  %9.1f /s (%,d carts, %.3f per visitor)%n",
+                inserts / seconds, inserts, (double) inserts / visitorCount);
+
+        assertEquals(buyers, inserts);
+    }
+
+    private List<Long> fillItems() {
+        jdbcTemplate.execute("DELETE FROM order_details");
+        jdbcTemplate.execute("DELETE FROM orders");
+        jdbcTemplate.execute("DELETE FROM cart_details");
+        jdbcTemplate.execute("DELETE FROM carts");
+        jdbcTemplate.execute("DELETE FROM items");
+
+        List<Object[]> batch = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            batch.add(new Object[]{"item" + i, "description" + i, BigDecimal.valueOf(i, 2)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (title, description, price) VALUES (?, ?, ?)", batch);
+        return jdbcTemplate.queryForList("SELECT id FROM items", Long.class);
+    }
+
+    private long countCarts() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM carts", Long.class);
+    }
+}
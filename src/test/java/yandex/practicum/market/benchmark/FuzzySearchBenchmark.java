@@ -0,0 +1,116 @@
+package yandex.practicum.market.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import yandex.practicum.market.search.TermDictionary;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// Стоимость нечеткого поиска по словарю из 1 000 000 терминов в сравнении с перебором всех терминов.
+// Запуск: gradle benchmark
+@Tag("benchmark")
+class FuzzySearchBenchmark {
+    private static final String[] SYLLABLES = {
+            "ма", "мя", "ко", "ра", "ло", "ны", "ти", "ве", "да", "су", "пе", "ль", "ка", "ро", "ни",
+            "ст", "ба", "жи", "зо", "ту", "ше", "фа", "ха", "цы", "че", "щу", "ю", "я", "ё", "ой"
+    };
+    private static final int TERM_COUNT = 1_000_000;
+    private static final int QUERY_COUNT = 200;
+    private static final int WARMUP_ROUNDS = 3;
+
+    @Test
+    void fuzzySearchOnMillionTerms() {
+        Random random = new Random(42);
+        Set<String> terms = new LinkedHashSet<>();
+        while (terms.size() < TERM_COUNT) {
+            terms.add(word(random));
+        }
+        List<String> termList = new ArrayList<>(terms);
+
+        long start = System.nanoTime();
+        TermDictionary dictionary = TermDictionary.of(terms);
+        System.out.printf("%n=== %,d terms, built in %.0f ms ===%n", dictionary.size(), (System.nanoTime() - start) / 1_000_000.0);
+
+        List<String> queries = new ArrayList<>(QUERY_COUNT);
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries.add(misspell(termList.get(random.nextInt(termList.size())), random));
+        }
+
+        for (int maxDistance = 1; maxDistance <= 2; maxDistance++) {
+            int distance = maxDistance;
+            double automatonMillis = measure(() -> {
+                int found = 0;
+                for (String query : queries) {
+                    found += dictionary.search(query, distance).size();
+                }
+                return found;
+            });
+            double scanMillis = measure(() -> {
+                int found = 0;
+                for (String query : queries) {
+                    for (String term : termList) {
+                        if (levenshtein(query, term) <= distance) {
+                            found++;
+                        }
+                    }
+                }
+                return found;
+            });
+            System.out.printf("distance %d   automaton: %8.3f ms/query   scan: %8.3f ms/query%n",
+                    maxDistance, automatonMillis / QUERY_COUNT, scanMillis / QUERY_COUNT);
+        }
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(4);
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    // Одна опечатка: замена, пропуск или лишняя буква
+    private static String misspell(String term, Random random) {
+        int position = random.nextInt(term.length());
+        char letter = (char) ('а' + random.nextInt(32));
+        return switch (random.nextInt(3)) {
+            case 0 -> term.substring(0, position) + letter + term.substring(position + 1);
+            case 1 -> term.substring(0, position) + term.substring(position + 1);
+            default -> term.substring(0, position) + letter + term.substring(position);
+        };
+    }
+
+    private static int levenshtein(String left, String right) {
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= right.length(); j++) {
+                int substitution = previous[j - 1] + (left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[right.length()];
+    }
+
+    private static double measure(Supplier<?> action) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            action.get();
+        }
+        long start = System.nanoTime();
+        action.get();
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+}
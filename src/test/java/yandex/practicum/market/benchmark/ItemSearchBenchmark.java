@@ -0,0 +1,107 @@
+package yandex.practicum.market.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import yandex.practicum.market.catalog.Catalog;
+import yandex.practicum.market.repository.ItemRepository;
+import yandex.practicum.market.search.ItemSearchIndex;
+import yandex.practicum.market.service.ItemService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+// Сравнение поиска по индексу с запросом LIKE '%term%'.
+// Запуск: gradle benchmark
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+class ItemSearchBenchmark {
+    private static final String[] ADJECTIVES = {
+            "красный", "синий", "зеленый", "большой", "маленький", "деревянный", "пластиковый",
+            "кожаный", "умный", "быстрый", "теплый", "легкий", "прочный", "складной", "детский"
+    };
+    private static final String[] NOUNS = {
+            "мяч", "стол", "стул", "рюкзак", "чайник", "фонарь", "зонт", "кошелек", "плед", "часы",
+            "ноутбук", "телефон", "велосипед", "самокат", "лампа", "кружка", "ботинок", "шарф"
+    };
+    private static final String[] QUERIES = {"мяч", "синий", "ноутбук", "кожаный кошелек", "item777"};
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemSearchIndex searchIndex;
+
+    @Autowired
+    private Catalog catalog;
+
+    @ParameterizedTest
+    @ValueSource(ints = {100_000, 1_000_000})
+    void searchIndexVersusLikeQuery(int itemCount) {
+        fillItems(itemCount);
+        searchIndex.rebuild();
+        catalog.rebuild();
+
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("title"));
+        System.out.printf("%n=== %,d items ===%n", itemCount);
+        for (String query : QUERIES) {
+            double likeMillis = measure(() -> itemRepository.findAllBySearchTerm(query, pageable));
+            double indexMillis = measure(() -> itemService.getItems(query, pageable));
+            System.out.printf("%-20s LIKE: %9.2f ms   index: %9.2f ms%n", query, likeMillis, indexMillis);
+        }
+    }
+
+    private void fillItems(int itemCount) {
+        jdbcTemplate.execute("DELETE FROM order_details");
+        jdbcTemplate.execute("DELETE FROM orders");
+        jdbcTemplate.execute("DELETE FROM cart_details");
+        jdbcTemplate.execute("DELETE FROM carts");
+        jdbcTemplate.execute("DELETE FROM items");
+
+        Random random = new Random(42);
+        int batchSize = 10_000;
+        for (int offset = 0; offset < itemCount; offset += batchSize) {
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            for (int i = offset; i < Math.min(offset + batchSize, itemCount); i++) {
+                String title = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                        + NOUNS[random.nextInt(NOUNS.length)] + " item" + i;
+                String description = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                        + NOUNS[random.nextInt(NOUNS.length)] + " для дома";
+                batch.add(new Object[]{title, description, BigDecimal.valueOf(random.nextInt(100_000), 2)});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO items (title, description, price) VALUES (?, ?, ?)", batch);
+        }
+    }
+
+    private static double measure(Supplier<?> action) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            action.get();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            action.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ITERATIONS;
+    }
+}
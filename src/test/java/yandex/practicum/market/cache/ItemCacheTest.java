@@ -0,0 +1,68 @@
+package yandex.practicum.market.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import yandex.practicum.market.dto.ItemView;
+import yandex.practicum.market.repository.ItemRepository;
+
+import java.math.BigDecimal;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ItemCacheTest {
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ItemCache itemCache = new ItemCache(itemRepository, meterRegistry, 100);
+
+    private final ItemView item = new ItemView(1L, "title1", "desc1", "img1.jpg", BigDecimal.ONE);
+
+    @Test
+    void get_shouldLoadOnceAndServeFromCache() {
+        // Arrange
+        when(itemRepository.findViewById(1L)).thenReturn(Optional.of(item));
+
+        // Act
+        ItemView first = itemCache.get(1L);
+        ItemView second = itemCache.get(1L);
+
+        // Assert
+        assertEquals(item, first);
+        assertSame(first, second);
+        verify(itemRepository, times(1)).findViewById(1L);
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tags("cache", ItemCache.CACHE_NAME, "result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tags("cache", ItemCache.CACHE_NAME, "result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void get_shouldNotCacheMissingItem() {
+        // Arrange
+        when(itemRepository.findViewById(2L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> itemCache.get(2L));
+        assertThrows(NoSuchElementException.class, () -> itemCache.get(2L));
+        verify(itemRepository, times(2)).findViewById(2L);
+    }
+
+    @Test
+    void invalidate_shouldReloadItem() {
+        // Arrange
+        ItemView updated = new ItemView(1L, "title2", "desc2", "img2.jpg", BigDecimal.TEN);
+        when(itemRepository.findViewById(1L)).thenReturn(Optional.of(item), Optional.of(updated));
+        itemCache.get(1L);
+
+        // Act
+        itemCache.invalidate(1L);
+
+        // Assert
+        assertEquals(updated, itemCache.get(1L));
+    }
+}
@@ -0,0 +1,108 @@
+package yandex.practicum.market.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import yandex.practicum.market.catalog.CatalogVersion;
+import yandex.practicum.market.search.ItemDocument;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSearchCacheTest {
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ItemSearchCache searchCache = new ItemSearchCache(catalogVersion, meterRegistry, 100, Duration.ofMinutes(10), 1000);
+
+    private final Pageable pageable = PageRequest.of(0, 10, Sort.by("price"));
+
+    @Test
+    void get_shouldReturnWindowForNormalizedSearchTerm() {
+        // Arrange
+        ItemSearchCache.Window window = new ItemSearchCache.Window(List.of(3L, 1L), true);
+        searchCache.put(searchCache.key("Мяч", pageable), window);
+
+        // Act
+        ItemSearchCache.Window result = searchCache.get(searchCache.key("мяЧ", pageable));
+
+        // Assert
+        assertEquals(window, result);
+        assertNull(searchCache.get(searchCache.key("мяч", PageRequest.of(1, 10, Sort.by("price")))));
+        assertNull(searchCache.get(searchCache.key("мяч", PageRequest.of(0, 10, Sort.by("title")))));
+    }
+
+    @Test
+    void get_shouldMissAfterCatalogChange() {
+        // Arrange
+        searchCache.put(searchCache.key(null, pageable), new ItemSearchCache.Window(List.of(1L), false));
+
+        // Act
+        catalogVersion.increment();
+
+        // Assert
+        assertNull(searchCache.get(searchCache.key(null, pageable)));
+    }
+
+    @Test
+    void get_shouldPublishHitAndMissStatistics() {
+        // Arrange
+        ItemSearchCache.Key key = searchCache.key("term", pageable);
+        searchCache.get(key);
+        searchCache.put(key, new ItemSearchCache.Window(List.of(1L), false));
+
+        // Act
+        searchCache.get(key);
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tags("cache", ItemSearchCache.CACHE_NAME, "result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tags("cache", ItemSearchCache.CACHE_NAME, "result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void hits_shouldSearchOncePerCatalogVersionAndSortOnce() {
+        // Arrange
+        AtomicInteger searches = new AtomicInteger();
+        List<ItemDocument> documents = List.of(
+                new ItemDocument(1L, "b", "desc1", BigDecimal.valueOf(30)),
+                new ItemDocument(2L, "a", "desc2", BigDecimal.valueOf(10))
+        );
+
+        // Act
+        ItemSearchCache.Hits first = searchCache.hits("Мяч", term -> {
+            searches.incrementAndGet();
+            return documents;
+        });
+        ItemSearchCache.Hits second = searchCache.hits("мяч", term -> {
+            searches.incrementAndGet();
+            return documents;
+        });
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, searches.get());
+        List<ItemDocument> byPrice = first.sorted(Sort.by("price"));
+        assertEquals(List.of(2L, 1L), byPrice.stream().map(ItemDocument::id).toList());
+        assertSame(byPrice, second.sorted(Sort.by("price")));
+        assertArrayEquals(new long[]{1000, 3000}, first.prices());
+        assertSame(first.prices(), second.prices());
+
+        catalogVersion.increment();
+        searchCache.hits("мяч", term -> {
+            searches.incrementAndGet();
+            return documents;
+        });
+        assertEquals(2, searches.get());
+    }
+}
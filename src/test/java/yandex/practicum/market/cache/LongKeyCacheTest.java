@@ -0,0 +1,182 @@
+package yandex.practicum.market.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongKeyCacheTest {
+
+    @Test
+    void get_shouldLoadOnceAndServeFromCache() {
+        // Arrange
+        LongKeyCache<String> cache = new LongKeyCache<>(100);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        String first = cache.get(1L, id -> "item" + id + "#" + loads.incrementAndGet());
+        String second = cache.get(1L, id -> "item" + id + "#" + loads.incrementAndGet());
+
+        // Assert
+        assertEquals("item1#1", first);
+        assertEquals(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void put_shouldKeepSizeWithinBound() {
+        // Arrange
+        LongKeyCache<Long> cache = new LongKeyCache<>(100);
+
+        // Act
+        for (long id = 0; id < 10_000; id++) {
+            cache.put(id, id);
+        }
+
+        // Assert
+        assertTrue(cache.size() <= 100);
+        int found = 0;
+        for (long id = 0; id < 10_000; id++) {
+            if (cache.getIfPresent(id) != null) {
+                found++;
+            }
+        }
+        assertEquals(cache.size(), found);
+        assertEquals(10_000 - cache.size(), cache.evictionCount());
+    }
+
+    @Test
+    void put_shouldKeepRecentlyReadEntryOnEviction() {
+        // Arrange
+        LongKeyCache<Long> cache = new LongKeyCache<>(16);
+        cache.put(-1L, -1L);
+
+        // Act
+        for (long id = 0; id < 1_000; id++) {
+            cache.getIfPresent(-1L);
+            cache.put(id, id);
+        }
+
+        // Assert
+        assertEquals(-1L, cache.getIfPresent(-1L));
+    }
+
+    @Test
+    void invalidate_shouldKeepOtherEntriesReachable() {
+        // Arrange
+        LongKeyCache<Long> cache = new LongKeyCache<>(10_000);
+        for (long id = 0; id < 5_000; id++) {
+            cache.put(id, id);
+        }
+
+        // Act
+        for (long id = 0; id < 5_000; id += 3) {
+            cache.invalidate(id);
+        }
+
+        // Assert
+        for (long id = 0; id < 5_000; id++) {
+            if (id % 3 == 0) {
+                assertNull(cache.getIfPresent(id));
+            } else {
+                assertEquals(id, cache.getIfPresent(id));
+            }
+        }
+    }
+
+    @Test
+    void get_shouldRunSingleLoadForConcurrentMisses() throws Exception {
+        // Arrange
+        LongKeyCache<String> cache = new LongKeyCache<>(100);
+        AtomicInteger loads = new AtomicInteger();
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.get(42L, id -> {
+                    loads.incrementAndGet();
+                    sleep();
+                    return "item42";
+                });
+            }));
+        }
+        start.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            assertEquals("item42", result.get());
+        }
+        assertEquals(1, loads.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void get_shouldPropagateLoaderExceptionWithoutCaching() throws Exception {
+        // Arrange
+        LongKeyCache<String> cache = new LongKeyCache<>(100);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.get(7L, id -> {
+                    sleep();
+                    throw new NoSuchElementException("Invalid item");
+                });
+            }));
+        }
+        start.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+            assertInstanceOf(NoSuchElementException.class, exception.getCause());
+        }
+        assertNull(cache.getIfPresent(7L));
+        executor.shutdown();
+    }
+
+    @Test
+    void invalidate_duringLoad_shouldNotStoreStaleValue() {
+        // Arrange
+        LongKeyCache<String> cache = new LongKeyCache<>(100);
+
+        // Act
+        String stale = cache.get(1L, id -> {
+            cache.invalidate(id);
+            return "old";
+        });
+
+        // Assert
+        assertEquals("old", stale);
+        assertNull(cache.getIfPresent(1L));
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package yandex.practicum.market.cart;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+import yandex.practicum.market.dto.CartQuantity;
+import yandex.practicum.market.entity.CartEntity;
+import yandex.practicum.market.entity.CartItemEntity;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.repository.CartItemRepository;
+import yandex.practicum.market.repository.CartRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({CartBatchWriter.class, CartActivity.class})
+class CartBatchWriterTest {
+
+    @Autowired
+    private CartBatchWriter writer;
+
+    @Autowired
+    private CartActivity cartActivity;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void write_shouldCreateCartsAndApplyChangedLines() {
+        // Arrange
+        ItemEntity item1 = entityManager.persist(new ItemEntity("title1", "desc1", "img1.jpg", BigDecimal.ONE));
+        ItemEntity item2 = entityManager.persist(new ItemEntity("title2", "desc2", "img2.jpg", BigDecimal.TWO));
+        ItemEntity item3 = entityManager.persist(new ItemEntity("title3", "desc3", "img3.jpg", BigDecimal.TEN));
+
+        CartEntity existing = entityManager.persist(new CartEntity("s1"));
+        entityManager.persist(new CartItemEntity(existing, item1, 1, item1.getPrice()));
+        entityManager.persist(new CartItemEntity(existing, item2, 2, item2.getPrice()));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<CartChanges> batch = List.of(
+                new CartChanges("s1", existing.getId(), Map.of(
+                        item1.getId(), new CartChanges.Line(3, item1.getPrice()),
+                        item2.getId(), new CartChanges.Line(0, item2.getPrice())
+                )),
+                new CartChanges("s2", null, Map.of(item3.getId(), new CartChanges.Line(1, item3.getPrice())))
+        );
+
+        // Act
+        Map<String, Long> cartIds = writer.write(batch);
+
+        // Assert
+        assertEquals(existing.getId(), cartIds.get("s1"));
+        assertEquals(cartRepository.findIdBySessionId("s2").orElseThrow(), cartIds.get("s2"));
+        assertEquals(Set.of(new CartQuantity(item1.getId(), 3)), Set.copyOf(cartItemRepository.findQuantitiesBySessionId("s1")));
+        assertEquals(Set.of(new CartQuantity(item3.getId(), 1)), Set.copyOf(cartItemRepository.findQuantitiesBySessionId("s2")));
+    }
+
+    @Test
+    void write_shouldReleaseActivityClaimsWhenTransactionRollsBack() {
+        // Arrange
+        ItemEntity item = entityManager.persist(new ItemEntity("title1", "desc1", "img1.jpg", BigDecimal.ONE));
+        CartEntity cart = entityManager.persist(new CartEntity("s1"));
+        entityManager.flush();
+        writer.write(List.of(new CartChanges("s1", cart.getId(), Map.of(item.getId(), new CartChanges.Line(1, item.getPrice())))));
+
+        // Act: транзакция с записью пакета откатывается
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+
+        // Assert: время активности корзины не записано, и следующая запись снова его захватывает
+        assertTrue(cartActivity.claim(cart.getId()));
+    }
+}
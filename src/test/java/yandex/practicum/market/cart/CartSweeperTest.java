@@ -0,0 +1,59 @@
+package yandex.practicum.market.cart;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import yandex.practicum.market.repository.CartRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartSweeperTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    private CartSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new CartSweeper(cartRepository, new SimpleMeterRegistry(), Duration.ofDays(7), 2);
+    }
+
+    @Test
+    void sweep_shouldDeleteInBatchesUntilBatchIsNotFull() {
+        // Arrange
+        when(cartRepository.deleteAbandoned(any(LocalDateTime.class), eq(2))).thenReturn(2, 2, 1);
+
+        // Act
+        int deleted = sweeper.sweep();
+
+        // Assert
+        assertEquals(5, deleted);
+        verify(cartRepository, times(3)).deleteAbandoned(any(LocalDateTime.class), eq(2));
+    }
+
+    @Test
+    void sweep_shouldUseTtlAsIdleThreshold() {
+        // Arrange
+        LocalDateTime before = LocalDateTime.now().minusDays(7);
+
+        // Act
+        sweeper.sweep();
+
+        // Assert
+        verify(cartRepository).deleteAbandoned(
+                argThat(threshold -> !threshold.isBefore(before) && threshold.isBefore(LocalDateTime.now().minusDays(6))),
+                eq(2)
+        );
+    }
+}
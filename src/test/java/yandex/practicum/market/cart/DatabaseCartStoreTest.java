@@ -0,0 +1,239 @@
+package yandex.practicum.market.cart;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.service.CartService;
+import yandex.practicum.market.types.ActionType;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseCartStoreTest {
+
+    @Mock
+    private CartService cartService;
+
+    @Mock
+    private CartActivity cartActivity;
+
+    @Spy
+    private CartLocks cartLocks = new CartLocks(4);
+
+    @InjectMocks
+    private DatabaseCartStore cartStore;
+
+    private final ItemEntity item = new ItemEntity(1L, "title1", "desc1", "img1.jpg", BigDecimal.TEN);
+
+    @Test
+    void update_shouldCreateCartOnFirstPlus() {
+        // Arrange
+        when(cartService.getOrCreateCartId("s1")).thenReturn(5L);
+        when(cartService.updateQuantity(5L, item, ActionType.PLUS)).thenReturn(1);
+
+        // Act
+        int result = cartStore.update("s1", item, ActionType.PLUS);
+
+        // Assert
+        assertEquals(1, result);
+        verify(cartActivity).touch(5L);
+    }
+
+    @Test
+    void update_shouldTouchActivityWhenMinusOrDeleteChangesExistingCart() {
+        // Arrange
+        when(cartService.findCartId("s1")).thenReturn(Optional.of(5L));
+        when(cartService.updateQuantity(5L, item, ActionType.MINUS)).thenReturn(1);
+        when(cartService.updateQuantity(5L, item, ActionType.DELETE)).thenReturn(0);
+
+        // Act
+        int minus = cartStore.update("s1", item, ActionType.MINUS);
+        int delete = cartStore.update("s1", item, ActionType.DELETE);
+
+        // Assert
+        assertEquals(1, minus);
+        assertEquals(0, delete);
+        verify(cartService, never()).getOrCreateCartId(anyString());
+        verify(cartActivity, times(2)).touch(5L);
+    }
+
+    @Test
+    void update_shouldNotCreateCartWhenMinusOrDeleteHasNothingToChange() {
+        // Arrange
+        when(cartService.findCartId("s1")).thenReturn(Optional.empty());
+
+        // Act
+        int minus = cartStore.update("s1", item, ActionType.MINUS);
+        int delete = cartStore.update("s1", item, ActionType.DELETE);
+
+        // Assert
+        assertEquals(0, minus);
+        assertEquals(0, delete);
+        verify(cartService, never()).getOrCreateCartId(anyString());
+        verify(cartService, never()).updateQuantity(anyLong(), any(), any());
+        verifyNoInteractions(cartActivity);
+    }
+
+    @Test
+    void update_shouldRetryWhenConcurrentInsertOfSameItemWins() {
+        // Arrange
+        when(cartService.getOrCreateCartId("s1")).thenReturn(5L);
+        when(cartService.updateQuantity(5L, item, ActionType.PLUS))
+                .thenThrow(new DuplicateKeyException("duplicate key"))
+                .thenReturn(2);
+
+        // Act
+        int result = cartStore.update("s1", item, ActionType.PLUS);
+
+        // Assert
+        assertEquals(2, result);
+        verify(cartService, times(2)).updateQuantity(5L, item, ActionType.PLUS);
+        verify(cartLocks, times(1)).withLock(eq("s1"), any());
+    }
+
+    @Test
+    void update_shouldReadCartIdAgainWhenConcurrentCartCreationWins() {
+        // Arrange
+        when(cartService.getOrCreateCartId("s1"))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("Unique index or primary key violation", "23505")))
+                .thenReturn(5L);
+        when(cartService.updateQuantity(5L, item, ActionType.PLUS)).thenReturn(1);
+
+        // Act
+        int result = cartStore.update("s1", item, ActionType.PLUS);
+
+        // Assert
+        assertEquals(1, result);
+        verify(cartService, times(2)).getOrCreateCartId("s1");
+        verify(cartService, times(1)).updateQuantity(5L, item, ActionType.PLUS);
+        verify(cartActivity).touch(5L);
+    }
+
+    @Test
+    void update_shouldRetryWhenUniqueViolationIsWrapped() {
+        // Arrange
+        when(cartService.getOrCreateCartId("s1")).thenReturn(5L);
+        when(cartService.updateQuantity(5L, item, ActionType.PLUS))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("Unique index or primary key violation", "23505")))
+                .thenReturn(2);
+
+        // Act
+        int result = cartStore.update("s1", item, ActionType.PLUS);
+
+        // Assert
+        assertEquals(2, result);
+        verify(cartService, times(2)).updateQuantity(5L, item, ActionType.PLUS);
+    }
+
+    @Test
+    void update_shouldRecreateCartDeletedBySweeperDuringWrite() {
+        // Arrange: корзину удалили между чтением id и записью позиции
+        when(cartService.getOrCreateCartId("s1")).thenReturn(5L, 6L);
+        when(cartService.updateQuantity(5L, item, ActionType.PLUS))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("Referential integrity constraint violation", "23506")));
+        when(cartService.updateQuantity(6L, item, ActionType.PLUS)).thenReturn(1);
+
+        // Act
+        int result = cartStore.update("s1", item, ActionType.PLUS);
+
+        // Assert
+        assertEquals(1, result);
+        verify(cartActivity, never()).touch(5L);
+        verify(cartActivity).touch(6L);
+    }
+
+    @Test
+    void update_shouldNotRecreateDeletedCartForMinus() {
+        // Arrange
+        when(cartService.findCartId("s1")).thenReturn(Optional.of(5L), Optional.empty());
+        when(cartService.updateQuantity(5L, item, ActionType.MINUS))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("Referential integrity constraint violation", "23503")));
+
+        // Act
+        int result = cartStore.update("s1", item, ActionType.MINUS);
+
+        // Assert
+        assertEquals(0, result);
+        verify(cartService, never()).getOrCreateCartId(anyString());
+        verifyNoInteractions(cartActivity);
+    }
+
+    @Test
+    void update_shouldNotRetryOtherIntegrityViolations() {
+        // Arrange
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("could not execute statement",
+                new SQLException("NULL not allowed for column", "23502"));
+        when(cartService.getOrCreateCartId("s1")).thenReturn(5L);
+        when(cartService.updateQuantity(5L, item, ActionType.PLUS)).thenThrow(violation);
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> cartStore.update("s1", item, ActionType.PLUS));
+        verify(cartService, times(1)).updateQuantity(5L, item, ActionType.PLUS);
+        verifyNoInteractions(cartActivity);
+    }
+
+    @Test
+    void apply_shouldApplyAllMutationsToOneCart() {
+        // Arrange
+        ItemEntity item2 = new ItemEntity(2L, "title2", "desc2", "img2.jpg", BigDecimal.ONE);
+        List<CartMutation> mutations = List.of(
+                CartMutation.set(item, 20),
+                CartMutation.of(item2, ActionType.DELETE)
+        );
+        when(cartService.getOrCreateCartId("s1")).thenReturn(5L);
+
+        // Act
+        cartStore.apply("s1", mutations);
+
+        // Assert
+        verify(cartService, times(1)).getOrCreateCartId("s1");
+        verify(cartService, times(1)).apply(5L, mutations);
+        verify(cartActivity).touch(5L);
+    }
+
+    @Test
+    void apply_shouldTouchActivityWhenBatchOnlyRemovesItems() {
+        // Arrange
+        List<CartMutation> mutations = List.of(CartMutation.of(item, ActionType.DELETE));
+        when(cartService.findCartId("s1")).thenReturn(Optional.of(5L));
+
+        // Act
+        cartStore.apply("s1", mutations);
+
+        // Assert
+        verify(cartService, times(1)).apply(5L, mutations);
+        verify(cartActivity).touch(5L);
+    }
+
+    @Test
+    void apply_shouldNotCreateCartWhenBatchOnlyRemovesItems() {
+        // Arrange
+        when(cartService.findCartId("s1")).thenReturn(Optional.empty());
+
+        // Act
+        cartStore.apply("s1", List.of(CartMutation.set(item, 0), CartMutation.of(item, ActionType.MINUS)));
+
+        // Assert
+        verify(cartService, never()).getOrCreateCartId(anyString());
+        verify(cartService, never()).apply(anyLong(), anyList());
+        verifyNoInteractions(cartActivity);
+    }
+}
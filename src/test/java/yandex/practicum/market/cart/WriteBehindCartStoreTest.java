@@ -0,0 +1,187 @@
+package yandex.practicum.market.cart;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import yandex.practicum.market.dto.CartQuantities;
+import yandex.practicum.market.dto.CartLinePrice;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.repository.CartItemRepository;
+import yandex.practicum.market.types.ActionType;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindCartStoreTest {
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private CartBatchWriter writer;
+
+    @Captor
+    private ArgumentCaptor<List<CartChanges>> batchCaptor;
+
+    private final CartLocks cartLocks = spy(new CartLocks(4));
+
+    private WriteBehindCartStore store;
+
+    private final ItemEntity item1 = new ItemEntity(1L, "title1", "desc1", "img1.jpg", BigDecimal.ONE);
+    private final ItemEntity item2 = new ItemEntity(2L, "title2", "desc2", "img2.jpg", BigDecimal.TEN);
+
+    @BeforeEach
+    void setUp() {
+        // Таймер не срабатывает во время теста: сбросы вызываются явно
+        store = new WriteBehindCartStore(
+                cartItemRepository, writer, cartLocks, new SimpleMeterRegistry(),
+                4, 100, Duration.ofHours(1), Duration.ofHours(1)
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void update_shouldKeepChangesInMemoryUntilFlush() {
+        // Arrange
+        when(cartItemRepository.findLinePricesBySessionId("s1")).thenReturn(List.of(new CartLinePrice(1L, 2, BigDecimal.ONE)));
+
+        // Act
+        int quantity = store.update("s1", item1, ActionType.PLUS);
+        CartQuantities quantities = store.getQuantities("s1");
+
+        // Assert
+        assertEquals(3, quantity);
+        assertEquals(3, quantities.get(1L));
+        assertEquals(1, store.dirtyCount());
+        verify(cartItemRepository, times(1)).findLinePricesBySessionId("s1");
+        verify(cartLocks, times(1)).withLock(eq("s1"), any());
+        verifyNoInteractions(writer);
+    }
+
+    @Test
+    void getTotalCost_shouldSumLiveCartWithoutWriting() {
+        // Arrange: цена позиции, уже лежащей в корзине, не меняется вслед за ценой товара
+        when(cartItemRepository.findLinePricesBySessionId("s1")).thenReturn(List.of(new CartLinePrice(1L, 2, new BigDecimal("0.50"))));
+        store.update("s1", item1, ActionType.PLUS);
+        store.update("s1", item2, ActionType.PLUS);
+        store.update("s1", item2, ActionType.PLUS);
+
+        // Act
+        BigDecimal total = store.getTotalCost("s1");
+
+        // Assert
+        assertEquals(0, new BigDecimal("21.50").compareTo(total));
+        assertEquals(1, store.dirtyCount());
+        verify(cartItemRepository, never()).sumCostBySessionId("s1");
+        verifyNoInteractions(writer);
+    }
+
+    @Test
+    void flushAll_shouldWriteLatestQuantityOfEachChangedItemOnce() {
+        // Arrange
+        when(cartItemRepository.findLinePricesBySessionId("s1")).thenReturn(List.of());
+        store.update("s1", item1, ActionType.PLUS);
+        store.update("s1", item1, ActionType.PLUS);
+        store.update("s1", item1, ActionType.MINUS);
+        store.update("s1", item2, ActionType.PLUS);
+        store.update("s1", item2, ActionType.DELETE);
+
+        // Act
+        store.flushAll();
+        store.flushAll();
+
+        // Assert
+        verify(writer, times(1)).write(batchCaptor.capture());
+        List<CartChanges> batch = batchCaptor.getValue();
+        assertEquals(1, batch.size());
+        assertEquals("s1", batch.get(0).sessionId());
+        assertNull(batch.get(0).cartId());
+        assertEquals(
+                Map.of(1L, new CartChanges.Line(1, BigDecimal.ONE), 2L, new CartChanges.Line(0, BigDecimal.TEN)),
+                batch.get(0).lines()
+        );
+        assertEquals(0, store.dirtyCount());
+    }
+
+    @Test
+    void flush_shouldKeepChangesWhenWriteFails() {
+        // Arrange
+        when(cartItemRepository.findLinePricesBySessionId("s1")).thenReturn(List.of());
+        when(writer.write(anyList()))
+                .thenThrow(new IllegalStateException("database is unavailable"))
+                .thenReturn(Map.of("s1", 7L));
+        store.update("s1", item1, ActionType.PLUS);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> store.flush("s1"));
+        assertEquals(1, store.dirtyCount());
+
+        store.update("s1", item1, ActionType.PLUS);
+        store.flush("s1");
+
+        verify(writer, times(2)).write(batchCaptor.capture());
+        assertEquals(Map.of(1L, new CartChanges.Line(2, BigDecimal.ONE)), batchCaptor.getValue().get(0).lines());
+        assertEquals(0, store.dirtyCount());
+    }
+
+    @Test
+    void evict_shouldDropLiveCartAfterCheckout() {
+        // Arrange
+        when(cartItemRepository.findLinePricesBySessionId("s1")).thenReturn(List.of());
+        store.update("s1", item1, ActionType.PLUS);
+
+        // Act
+        store.evict("s1");
+
+        // Assert
+        assertTrue(store.getQuantities("s1").isEmpty());
+        assertEquals(0, store.dirtyCount());
+        verify(cartItemRepository, times(1)).findLinePricesBySessionId("s1");
+        verify(cartItemRepository, times(1)).findQuantitiesBySessionId("s1");
+        store.flushAll();
+        verifyNoInteractions(writer);
+    }
+
+    @Test
+    void apply_shouldApplyWholeBatchAsOneChangeOfCart() {
+        // Arrange
+        when(cartItemRepository.findLinePricesBySessionId("s1")).thenReturn(List.of(new CartLinePrice(1L, 2, BigDecimal.ONE)));
+
+        // Act
+        store.apply("s1", List.of(
+                CartMutation.set(item1, 20),
+                CartMutation.of(item1, ActionType.MINUS),
+                CartMutation.of(item2, ActionType.PLUS)
+        ));
+        CartQuantities quantities = store.getQuantities("s1");
+        store.flushAll();
+
+        // Assert
+        assertEquals(19, quantities.get(1L));
+        assertEquals(1, quantities.get(2L));
+        verify(writer, times(1)).write(batchCaptor.capture());
+        assertEquals(
+                Map.of(1L, new CartChanges.Line(19, BigDecimal.ONE), 2L, new CartChanges.Line(1, BigDecimal.TEN)),
+                batchCaptor.getValue().get(0).lines()
+        );
+    }
+}
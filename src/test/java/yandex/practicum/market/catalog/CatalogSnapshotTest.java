@@ -0,0 +1,115 @@
+package yandex.practicum.market.catalog;
+
+import org.junit.jupiter.api.Test;
+import yandex.practicum.market.dto.ItemView;
+import yandex.practicum.market.dto.PriceRange;
+import yandex.practicum.market.types.SortType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    private final CatalogItem item1 = item(1L, "b", 30);
+    private final CatalogItem item2 = item(2L, "a", 10);
+    private final CatalogItem item3 = item(3L, "c", 20);
+
+    private final CatalogSnapshot snapshot = CatalogSnapshot.of(1L, List.of(item3, item1, item2));
+
+    @Test
+    void of_shouldOrderItemsForEachSortType() {
+        // Assert
+        assertEquals(List.of(item1, item2, item3), snapshot.ordered(SortType.NO));
+        assertEquals(List.of(item2, item1, item3), snapshot.ordered(SortType.ALPHA));
+        assertEquals(List.of(item2, item3, item1), snapshot.ordered(SortType.PRICE));
+        assertEquals(3, snapshot.size());
+    }
+
+    @Test
+    void find_shouldLookUpItemById() {
+        // Act & Assert
+        assertEquals(item3, snapshot.find(3L));
+        assertNull(snapshot.find(4L));
+    }
+
+    @Test
+    void with_shouldReplaceItemInEveryOrderWithoutChangingSnapshot() {
+        // Arrange
+        CatalogItem updated = item(2L, "d", 40);
+
+        // Act
+        CatalogSnapshot next = snapshot.with(2L, updated);
+
+        // Assert
+        assertEquals(2L, next.version());
+        assertEquals(updated, next.find(2L));
+        assertEquals(List.of(item1, updated, item3), next.ordered(SortType.NO));
+        assertEquals(List.of(item1, item3, updated), next.ordered(SortType.ALPHA));
+        assertEquals(List.of(item3, item1, updated), next.ordered(SortType.PRICE));
+
+        assertEquals(1L, snapshot.version());
+        assertEquals(item2, snapshot.find(2L));
+        assertEquals(List.of(item2, item1, item3), snapshot.ordered(SortType.ALPHA));
+    }
+
+    @Test
+    void with_shouldInsertNewItem() {
+        // Arrange
+        CatalogItem added = item(4L, "a", 20);
+
+        // Act
+        CatalogSnapshot next = snapshot.with(2L, added);
+
+        // Assert
+        assertEquals(4, next.size());
+        assertEquals(List.of(item2, added, item1, item3), next.ordered(SortType.ALPHA));
+        assertEquals(List.of(item2, item3, added, item1), next.ordered(SortType.PRICE));
+        assertEquals(3, snapshot.size());
+    }
+
+    @Test
+    void ordered_shouldSortRussianTitlesByCollation() {
+        // Arrange
+        List<String> titles = List.of("яблоко", "Банан", "арбуз", "Ель", "апельсин");
+        List<CatalogItem> items = new ArrayList<>();
+        for (int i = 0; i < titles.size(); i++) {
+            items.add(item(i + 1, titles.get(i), 10));
+        }
+
+        // Act
+        CatalogSnapshot russian = CatalogSnapshot.of(1L, items)
+                .with(2L, item(6L, "абрикос", 10));
+
+        // Assert
+        assertEquals(
+                List.of("абрикос", "апельсин", "арбуз", "Банан", "Ель", "яблоко"),
+                russian.ordered(SortType.ALPHA).stream().map(item -> item.item().title()).toList()
+        );
+    }
+
+    @Test
+    void ordered_withPriceRange_shouldKeepOnlyItemsInRange() {
+        // Arrange
+        PriceRange range = new PriceRange(BigDecimal.valueOf(15), BigDecimal.valueOf(30));
+
+        // Act & Assert
+        assertEquals(List.of(item3, item1), snapshot.ordered(SortType.PRICE, range));
+        assertEquals(List.of(item1, item3), snapshot.ordered(SortType.ALPHA, range));
+        assertEquals(List.of(item1, item3), snapshot.ordered(SortType.NO, range));
+        assertEquals(List.of(item2), snapshot.ordered(SortType.NO, new PriceRange(null, BigDecimal.valueOf(10))));
+        assertEquals(List.of(), snapshot.ordered(SortType.NO, new PriceRange(BigDecimal.valueOf(31), null)));
+        assertEquals(List.of(), snapshot.ordered(SortType.NO, new PriceRange(BigDecimal.valueOf(30), BigDecimal.valueOf(10))));
+    }
+
+    @Test
+    void ordered_shouldBeReadOnly() {
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.ordered(SortType.NO).set(0, item3));
+    }
+
+    private static CatalogItem item(long id, String title, int price) {
+        return new CatalogItem(new ItemView(id, title, "desc" + id, null, BigDecimal.valueOf(price)), null);
+    }
+}
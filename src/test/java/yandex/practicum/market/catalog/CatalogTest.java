@@ -0,0 +1,75 @@
+package yandex.practicum.market.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import yandex.practicum.market.dto.factory.ItemDtoFactory;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.repository.ItemRepository;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Spy
+    private ItemDtoFactory itemDtoFactory = new ItemDtoFactory();
+
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion();
+
+    @InjectMocks
+    private Catalog catalog;
+
+    @Test
+    void snapshot_shouldBeNullBeforeRebuild() {
+        assertNull(catalog.snapshot());
+    }
+
+    @Test
+    void rebuild_shouldLoadItemsWithImageUrls() {
+        // Arrange
+        itemDtoFactory.setImagesDir(Path.of("images"));
+        when(itemRepository.findAll()).thenReturn(List.of(
+                new ItemEntity(1L, "title1", "desc1", "image1.jpg", BigDecimal.ONE)
+        ));
+
+        // Act
+        catalog.rebuild();
+
+        // Assert
+        CatalogItem item = catalog.snapshot().find(1L);
+        assertNotNull(item);
+        assertEquals(Path.of("images", "1", "image1.jpg").toString(), item.imageUrl());
+    }
+
+    @Test
+    void apply_shouldPublishNewSnapshotWithNextCatalogVersion() {
+        // Arrange
+        when(itemRepository.findAll()).thenReturn(List.of());
+        catalog.rebuild();
+        CatalogSnapshot before = catalog.snapshot();
+
+        // Act
+        catalog.apply(new ItemEntity(5L, "title5", "desc5", null, BigDecimal.TEN));
+
+        // Assert
+        CatalogSnapshot after = catalog.snapshot();
+        assertNotSame(before, after);
+        assertEquals(0, before.size());
+        assertEquals(1, after.size());
+        assertEquals(1L, after.version());
+        assertEquals(1L, catalogVersion.current());
+    }
+}
@@ -0,0 +1,92 @@
+package yandex.practicum.market.catalog;
+
+import org.junit.jupiter.api.Test;
+import yandex.practicum.market.dto.ItemView;
+import yandex.practicum.market.dto.PriceFacet;
+import yandex.practicum.market.dto.PriceRange;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceIndexTest {
+
+    @Test
+    void fromAndTo_shouldFindInclusiveRangeByBinarySearch() {
+        // Arrange
+        PriceIndex index = PriceIndex.of(items("1.00", "2.50", "2.50", "10.00"));
+
+        // Act & Assert
+        assertEquals(1, index.from(new PriceRange(new BigDecimal("2.5"), null)));
+        assertEquals(3, index.to(new PriceRange(null, new BigDecimal("2.50"))));
+        assertEquals(3, index.from(new PriceRange(new BigDecimal("2.501"), null)));
+        assertEquals(1, index.to(new PriceRange(null, new BigDecimal("2.499"))));
+        assertEquals(0, index.from(PriceRange.ANY));
+        assertEquals(4, index.to(PriceRange.ANY));
+    }
+
+    @Test
+    void fromAndTo_shouldClampBoundsOutsideLongRange() {
+        // Arrange
+        PriceIndex index = PriceIndex.of(items("1.00", "2.50", "10.00"));
+
+        // Act & Assert
+        assertEquals(3, index.to(new PriceRange(null, new BigDecimal("1e20"))));
+        assertEquals(3, index.to(new PriceRange(null, BigDecimal.valueOf(Long.MAX_VALUE, 2))));
+        assertEquals(0, index.to(new PriceRange(null, new BigDecimal("-1e20"))));
+        assertEquals(0, index.from(new PriceRange(new BigDecimal("-1e999999"), null)));
+        assertEquals(3, index.from(new PriceRange(new BigDecimal("1e999999"), null)));
+    }
+
+    @Test
+    void facets_shouldCountCatalogPricesInQuantileBuckets() {
+        // Arrange
+        List<String> prices = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            prices.add(i * 100 + ".00");
+        }
+        PriceIndex index = PriceIndex.of(items(prices.toArray(new String[0])));
+
+        // Act
+        List<PriceFacet> facets = index.facets();
+
+        // Assert
+        assertEquals(List.of(
+                new PriceFacet(new BigDecimal("100.00"), new BigDecimal("299.99"), 2),
+                new PriceFacet(new BigDecimal("300.00"), new BigDecimal("499.99"), 2),
+                new PriceFacet(new BigDecimal("500.00"), new BigDecimal("699.99"), 2),
+                new PriceFacet(new BigDecimal("700.00"), new BigDecimal("899.99"), 2),
+                new PriceFacet(new BigDecimal("900.00"), null, 2)
+        ), facets);
+    }
+
+    @Test
+    void facets_shouldCountSubsetWithCatalogBuckets() {
+        // Arrange
+        PriceIndex index = PriceIndex.of(items("1.00", "2.00", "3.00", "4.00", "5.00"));
+
+        // Act
+        List<PriceFacet> facets = index.facets(new long[]{50, 100, 450, 500});
+
+        // Assert
+        assertEquals(List.of(2L, 0L, 0L, 1L, 1L), facets.stream().map(PriceFacet::count).toList());
+        assertEquals(new BigDecimal("2.00"), facets.get(1).minPrice());
+    }
+
+    @Test
+    void roundDown_shouldKeepTwoSignificantDigits() {
+        assertEquals(123_400_00L - 3_400_00L, PriceIndex.roundDown(123_456_78L));
+        assertEquals(99_00L, PriceIndex.roundDown(99_99L));
+        assertEquals(0L, PriceIndex.roundDown(50L));
+    }
+
+    private static CatalogItem[] items(String... prices) {
+        CatalogItem[] items = new CatalogItem[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            items[i] = new CatalogItem(new ItemView(i + 1, "item" + i, null, null, new BigDecimal(prices[i])), null);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,109 @@
+package yandex.practicum.market.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import yandex.practicum.market.cart.CartMutation;
+import yandex.practicum.market.cart.CartStore;
+import yandex.practicum.market.dto.CartLine;
+import yandex.practicum.market.dto.factory.ItemDtoFactory;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.service.CartOperationService;
+import yandex.practicum.market.service.CartService;
+import yandex.practicum.market.service.ItemService;
+import yandex.practicum.market.types.ActionType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CartApiController.class)
+@Import({ItemDtoFactory.class, CartOperationService.class})
+class CartApiControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CartService cartService;
+
+    @MockitoBean
+    private ItemService itemService;
+
+    @MockitoBean
+    private CartStore cartStore;
+
+    private final String sessionId = "1";
+    private final ItemEntity item1 = new ItemEntity(1L, "Item", "Desc", "img.jpg", BigDecimal.ONE);
+    private final ItemEntity item2 = new ItemEntity(2L, "Item 2", "Desc 2", "img2.jpg", BigDecimal.TEN);
+
+    @Test
+    void updateCart_shouldApplyOperationsInOneBatchAndReturnCart() throws Exception {
+        // Подготовка тестовых данных
+        when(itemService.getItems(List.of(1L, 2L))).thenReturn(List.of(item1, item2));
+        when(cartService.getLines(sessionId)).thenReturn(List.of(
+                new CartLine(1L, "Item", "Desc", "img.jpg", 20, BigDecimal.ONE),
+                new CartLine(2L, "Item 2", "Desc 2", "img2.jpg", 1, BigDecimal.TEN)
+        ));
+
+        // Тестируемое действие и проверка результатов
+        mockMvc.perform(post("/api/cart/items")
+                        .session(new MockHttpSession(null, sessionId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"itemId": 1, "quantity": 20}, {"itemId": 2, "action": "PLUS"}, {"itemId": 1, "action": "PLUS"}]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].count").value(20))
+                .andExpect(jsonPath("$.totalCost").value(30));
+
+        verify(itemService, times(1)).getItems(List.of(1L, 2L));
+        verify(cartStore, times(1)).apply(sessionId, List.of(
+                CartMutation.set(item1, 20),
+                CartMutation.of(item2, ActionType.PLUS),
+                CartMutation.of(item1, ActionType.PLUS)
+        ));
+        verify(cartStore).flush(sessionId);
+    }
+
+    @Test
+    void updateCart_shouldRejectOperationWithBothActionAndQuantity() throws Exception {
+        // Тестируемое действие и проверка результатов
+        mockMvc.perform(post("/api/cart/items")
+                        .session(new MockHttpSession(null, sessionId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"itemId": 1, "action": "PLUS", "quantity": 3}]
+                                """))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemService, cartStore);
+    }
+
+    @Test
+    void updateCart_shouldNotChangeCartWhenItemIsUnknown() throws Exception {
+        // Подготовка тестовых данных
+        when(itemService.getItems(List.of(1L, 99L))).thenReturn(List.of(item1));
+
+        // Тестируемое действие и проверка результатов
+        mockMvc.perform(post("/api/cart/items")
+                        .session(new MockHttpSession(null, sessionId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"itemId": 1, "action": "PLUS"}, {"itemId": 99, "quantity": 2}]
+                                """))
+                .andExpect(status().isNotFound());
+
+        verify(cartStore, never()).apply(anyString(), anyList());
+    }
+}
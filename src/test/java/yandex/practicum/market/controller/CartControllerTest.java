@@ -7,8 +7,9 @@ import org.springframework.context.annotation.Import;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import yandex.practicum.market.cart.CartStore;
+import yandex.practicum.market.dto.CartLine;
 import yandex.practicum.market.dto.factory.ItemDtoFactory;
-import yandex.practicum.market.entity.CartEntity;
 import yandex.practicum.market.entity.ItemEntity;
 import yandex.practicum.market.service.CartOperationService;
 import yandex.practicum.market.service.CartService;
@@ -16,6 +17,7 @@ import yandex.practicum.market.service.ItemService;
 
 import jakarta.servlet.http.HttpSession;
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -23,7 +25,6 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
 
-import yandex.practicum.market.entity.CartItemEntity;
 import yandex.practicum.market.types.ActionType;
 
 @WebMvcTest(CartController.class)
@@ -39,27 +40,24 @@ public class CartControllerTest {
     @MockitoBean
     private ItemService itemService;
 
+    @MockitoBean
+    private CartStore cartStore;
+
     @MockitoBean
     private HttpSession session;
 
     private final String sessionId = "1";
-    private CartEntity testSession;
     private ItemEntity testItem;
 
 
     @Test
     void showCart_shouldReturnCartViewWithItems() throws Exception {
         // Подготовка данных корзины
-        testItem = new ItemEntity(1L, "Item", "Desc", "img.jpg", BigDecimal.ONE);
-        testSession = new CartEntity(1L, sessionId);
-
         when(session.getId()).thenReturn(sessionId);
-        when(cartService.getOrCreateSessionById(sessionId)).thenReturn(testSession);
-
-        CartItemEntity cartDetail = new CartItemEntity(testSession, testItem, 2, testItem.getPrice());
-        testSession.getItems().put(testItem, cartDetail);
-
-        when(cartService.getCartTotalCostBySessionId(testSession.getId())).thenReturn(BigDecimal.valueOf(2));
+        when(cartService.getLines(sessionId)).thenReturn(List.of(
+                new CartLine(1L, "Item", "Desc", "img.jpg", 2, BigDecimal.ONE),
+                new CartLine(2L, "Item 2", "Desc 2", null, 1, BigDecimal.TEN)
+        ));
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
 
@@ -68,37 +66,34 @@ public class CartControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(view().name("cart"))
                 .andExpect(model().attributeExists("items"))
-                .andExpect(model().attribute("total", BigDecimal.valueOf(2)))
+                .andExpect(model().attribute("total", new BigDecimal("12")))
                 .andExpect(model().attribute("empty", false))
-                .andExpect(model().attribute("items", hasSize(1)));
+                .andExpect(model().attribute("items", hasSize(2)));
+
+        verify(cartStore).flush(sessionId);
+        verify(cartService, times(1)).getLines(sessionId);
+        verifyNoMoreInteractions(cartService);
     }
 
     @Test
-    void showCart_shouldReturnEmptyCart() throws Exception {
-        testSession = new CartEntity(1L, sessionId);
-
-        when(session.getId()).thenReturn(sessionId);
-        when(cartService.getOrCreateSessionById(sessionId)).thenReturn(testSession);
-
-        when(cartService.getCartTotalCostBySessionId(testSession.getId()))
-                .thenReturn(BigDecimal.ZERO);
+    void showCart_shouldShowEmptyCartWithoutCreatingItForNewSession() throws Exception {
+        when(cartService.getLines(sessionId)).thenReturn(List.of());
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
 
         mockMvc.perform(get("/cart/items").session(mockSession))
                 .andExpect(status().isOk())
                 .andExpect(model().attribute("empty", true))
+                .andExpect(model().attribute("total", BigDecimal.ZERO))
                 .andExpect(model().attribute("items", empty()));
+
+        verify(cartService, never()).getOrCreateCartId(anyString());
     }
 
     @Test
     void updateCartByMainPage_shouldRedirectToMain() throws Exception {
         testItem = new ItemEntity(1L, "Item", "Desc", "img.jpg", BigDecimal.ONE);
-        testSession = new CartEntity(1L, sessionId);
-
         when(session.getId()).thenReturn(sessionId);
-        when(cartService.getOrCreateSessionById(sessionId)).thenReturn(testSession);
-
         when(itemService.getItem(1L)).thenReturn(testItem);
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
@@ -109,17 +104,13 @@ public class CartControllerTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/items/1"));
 
-        verify(cartService).updateCart(eq(testSession), eq(testItem), eq(ActionType.PLUS));
+        verify(cartStore).update(eq(sessionId), eq(testItem), eq(ActionType.PLUS));
     }
 
     @Test
     void updateCartByCartPage_shouldRedirectToCart() throws Exception {
         testItem = new ItemEntity(1L, "Item", "Desc", "img.jpg", BigDecimal.ONE);
-        testSession = new CartEntity(1L, sessionId);
-
         when(session.getId()).thenReturn(sessionId);
-        when(cartService.getOrCreateSessionById(sessionId)).thenReturn(testSession);
-
         when(itemService.getItem(1L)).thenReturn(testItem);
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
@@ -131,17 +122,13 @@ public class CartControllerTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/cart/items"));
 
-        verify(cartService).updateCart(eq(testSession), eq(testItem), eq(ActionType.DELETE));
+        verify(cartStore).update(eq(sessionId), eq(testItem), eq(ActionType.DELETE));
     }
 
     @Test
     void updateCartByItemPage_shouldRedirectToItemPage() throws Exception {
         testItem = new ItemEntity(1L, "Item", "Desc", "img.jpg", BigDecimal.ONE);
-        testSession = new CartEntity(1L, sessionId);
-
         when(session.getId()).thenReturn(sessionId);
-        when(cartService.getOrCreateSessionById(sessionId)).thenReturn(testSession);
-
         when(itemService.getItem(1L)).thenReturn(testItem);
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
@@ -152,16 +139,59 @@ public class CartControllerTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/items/1"));
 
-        verify(cartService).updateCart(eq(testSession), eq(testItem), eq(ActionType.MINUS));
+        verify(cartStore).update(eq(sessionId), eq(testItem), eq(ActionType.MINUS));
     }
 
     @Test
-    void updateCart_shouldThrowExceptionWhenItemNotFound() throws Exception {
-        testSession = new CartEntity(1L, sessionId);
+    void updateCartByMainPage_shouldReturnCountWithoutRedirectForXhr() throws Exception {
+        testItem = new ItemEntity(1L, "Item", "Desc", "img.jpg", BigDecimal.ONE);
+        when(itemService.getItem(1L)).thenReturn(testItem);
+        when(cartStore.update(sessionId, testItem, ActionType.PLUS)).thenReturn(3);
 
-        when(session.getId()).thenReturn(sessionId);
-        when(cartService.getOrCreateSessionById(sessionId)).thenReturn(testSession);
+        MockHttpSession mockSession = new MockHttpSession(null, sessionId);
 
+        mockMvc.perform(post("/items")
+                        .session(mockSession)
+                        .header("X-Requested-With", "XMLHttpRequest")
+                        .param("id", "1")
+                        .param("search", "мяч")
+                        .param("action", "PLUS"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId").value(1))
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.total").doesNotExist());
+
+        // Страница витрины не перестраивается, корзина не читается
+        verify(itemService, times(1)).getItem(1L);
+        verifyNoMoreInteractions(itemService);
+        verifyNoInteractions(cartService);
+    }
+
+    @Test
+    void updateCartByCartPage_shouldReturnCountAndTotalForXhr() throws Exception {
+        testItem = new ItemEntity(1L, "Item", "Desc", "img.jpg", BigDecimal.ONE);
+        when(itemService.getItem(1L)).thenReturn(testItem);
+        when(cartStore.update(sessionId, testItem, ActionType.MINUS)).thenReturn(1);
+        when(cartService.getTotalCost(sessionId)).thenReturn(new BigDecimal("11.00"));
+
+        MockHttpSession mockSession = new MockHttpSession(null, sessionId);
+
+        mockMvc.perform(post("/cart/items")
+                        .session(mockSession)
+                        .header("X-Requested-With", "XMLHttpRequest")
+                        .param("id", "1")
+                        .param("action", "MINUS"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.total").value(11.0));
+
+        verify(cartStore).flush(sessionId);
+        verify(cartService, never()).getLines(anyString());
+    }
+
+    @Test
+    void updateCart_shouldThrowExceptionWhenItemNotFound() throws Exception {
+        when(session.getId()).thenReturn(sessionId);
         when(itemService.getItem(0L)).thenReturn(null);
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
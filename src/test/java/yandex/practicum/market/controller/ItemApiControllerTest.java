@@ -0,0 +1,49 @@
+package yandex.practicum.market.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import yandex.practicum.market.search.ItemSuggestIndex;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ItemApiController.class)
+class ItemApiControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ItemSuggestIndex suggestIndex;
+
+    @Test
+    void suggest_shouldReturnTitles() throws Exception {
+        // Подготовка тестовых данных
+        when(suggestIndex.suggest("мя", 5)).thenReturn(List.of("Мяч баскетбольный", "Мяч теннисный"));
+
+        // Тестируемое действие и проверка результатов
+        mockMvc.perform(get("/api/items/suggest").param("q", "мя").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0]").value("Мяч баскетбольный"));
+
+        verify(suggestIndex, times(1)).suggest("мя", 5);
+    }
+
+    @Test
+    void suggest_shouldUseDefaultLimit() throws Exception {
+        // Подготовка тестовых данных
+        when(suggestIndex.suggest("", 10)).thenReturn(List.of());
+
+        // Тестируемое действие и проверка результатов
+        mockMvc.perform(get("/api/items/suggest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+}
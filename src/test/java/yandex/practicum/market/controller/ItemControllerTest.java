@@ -13,7 +13,6 @@ import org.springframework.data.domain.Pageable;
 import jakarta.servlet.http.HttpSession;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 
@@ -28,14 +27,21 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
 import org.springframework.ui.Model;
+import yandex.practicum.market.cart.CartStore;
+import yandex.practicum.market.catalog.Catalog;
 import yandex.practicum.market.dto.factory.ItemDtoFactory;
-import yandex.practicum.market.entity.CartEntity;
-import yandex.practicum.market.entity.CartItemEntity;
+import yandex.practicum.market.dto.CartQuantities;
+import yandex.practicum.market.dto.CartQuantity;
+import yandex.practicum.market.dto.CursorPage;
+import yandex.practicum.market.dto.PageCursor;
+import yandex.practicum.market.dto.PriceFacet;
+import yandex.practicum.market.dto.PriceRange;
 import yandex.practicum.market.entity.ItemEntity;
 import yandex.practicum.market.dto.ItemDto;
 import yandex.practicum.market.service.ItemOperationService;
 import yandex.practicum.market.service.CartService;
 import yandex.practicum.market.service.ItemService;
+import yandex.practicum.market.types.SortType;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -52,6 +58,12 @@ public class ItemControllerTest {
     @MockitoBean
     private CartService cartService;
 
+    @MockitoBean
+    private CartStore cartStore;
+
+    @MockitoBean
+    private Catalog catalog;
+
     @MockitoBean
     private HttpSession session;
 
@@ -64,21 +76,14 @@ public class ItemControllerTest {
         // Подготовка тестовых данных
         String sessionId = "1";
 
-        ItemEntity item1 = new ItemEntity("Item 1", "Desc 1", null, BigDecimal.ONE);
-        ItemEntity item2 = new ItemEntity("Item 2", "Desc 2", null, BigDecimal.TWO);
+        ItemEntity item1 = new ItemEntity(1L, "Item 1", "Desc 1", null, BigDecimal.ONE);
+        ItemEntity item2 = new ItemEntity(2L, "Item 2", "Desc 2", null, BigDecimal.TWO);
         List<ItemEntity> testItems = List.of(item1, item2);
         Page<ItemEntity> page = new PageImpl<>(testItems);
 
-        CartEntity cart = new CartEntity(1L, sessionId);
-        CartItemEntity cartDetail1 = new CartItemEntity(cart, item1, 1, item1.getPrice());
-        CartItemEntity cartDetail2 = new CartItemEntity(cart, item2, 2, item2.getPrice());
-
-        cart.getItems().put(item1, cartDetail1);
-        cart.getItems().put(item2, cartDetail2);
-
-        when(itemService.getItems(anyString(), any(Pageable.class))).thenReturn(page);
+        when(itemService.getItems(anyString(), any(PriceRange.class), any(Pageable.class))).thenReturn(page);
         when(session.getId()).thenReturn(sessionId);
-        when(cartService.getOrCreateSessionById(sessionId)).thenReturn(cart);
+        when(cartStore.getQuantities(sessionId)).thenReturn(CartQuantities.of(List.of(new CartQuantity(1L, 1), new CartQuantity(2L, 2))));
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
 
@@ -103,7 +108,7 @@ public class ItemControllerTest {
 
         when(itemService.getItem(1L)).thenReturn(testItem);
         when(session.getId()).thenReturn(sessionId);
-        when(cartService.getOrCreateSessionById(anyString())).thenReturn(new CartEntity(1L, sessionId));
+        when(cartStore.getQuantities(anyString())).thenReturn(CartQuantities.EMPTY);
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
 
@@ -142,9 +147,9 @@ public class ItemControllerTest {
         );
 
         Page<ItemEntity> page = new PageImpl<>(testItems);
-        when(itemService.getItems(anyString(), any(Pageable.class))).thenReturn(page);
+        when(itemService.getItems(anyString(), any(PriceRange.class), any(Pageable.class))).thenReturn(page);
         when(session.getId()).thenReturn(sessionId);
-        when(cartService.getOrCreateSessionById(sessionId)).thenReturn(new CartEntity(1L, sessionId));
+        when(cartStore.getQuantities(sessionId)).thenReturn(CartQuantities.EMPTY);
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
 
@@ -178,8 +183,91 @@ public class ItemControllerTest {
                 );
 
         // Проверка вызовов сервисов
-        verify(itemService).getItems(eq(""), any(Pageable.class));
-        verify(cartService).getOrCreateSessionById(sessionId);
+        verify(itemService).getItems(eq(""), eq(PriceRange.ANY), any(Pageable.class));
+        verify(cartService).getQuantities(sessionId);
+        verify(cartService, never()).getOrCreateCartId(anyString());
+    }
+
+    @Test
+    void showItems_withCursor_shouldUseKeysetPage() throws Exception {
+        // Arrange
+        String sessionId = "1";
+        ItemEntity cursorItem = new ItemEntity(1L, "Item 1", "Desc 1", null, BigDecimal.ONE);
+        ItemEntity item2 = new ItemEntity(2L, "Item 2", "Desc 2", null, BigDecimal.TWO);
+        PageCursor cursor = PageCursor.next(SortType.PRICE, PageCursor.queryHash("", PriceRange.ANY), 2, cursorItem);
+
+        when(itemService.getItems(eq(""), eq(cursor), eq(1))).thenReturn(new CursorPage<>(List.of(item2), true, false));
+        when(cartStore.getQuantities(sessionId)).thenReturn(CartQuantities.EMPTY);
+
+        MockHttpSession mockSession = new MockHttpSession(null, sessionId);
+
+        // Act & Assert
+        mockMvc.perform(get("/items")
+                        .session(mockSession)
+                        .param("sort", "PRICE")
+                        .param("pageSize", "1")
+                        .param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("main"))
+                .andExpect(model().attribute("items", hasSize(1)));
+
+        verify(itemService, never()).getItems(anyString(), any(PriceRange.class), any(Pageable.class));
+    }
+
+    @Test
+    void showItems_withCursorOfAnotherSearch_shouldShowFirstPageOfNewSearch() throws Exception {
+        // Arrange
+        String sessionId = "1";
+        ItemEntity cursorItem = new ItemEntity(1L, "Item 1", "Desc 1", null, BigDecimal.ONE);
+        PageCursor cursor = PageCursor.next(SortType.PRICE, PageCursor.queryHash("мяч", PriceRange.ANY), 2, cursorItem);
+
+        when(itemService.getItems(eq("кукла"), eq(PriceRange.ANY), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(cursorItem)));
+        when(itemService.getPriceFacets("кукла")).thenReturn(List.of());
+        when(cartStore.getQuantities(sessionId)).thenReturn(CartQuantities.EMPTY);
+
+        // Act & Assert
+        mockMvc.perform(get("/items")
+                        .session(new MockHttpSession(null, sessionId))
+                        .param("search", "кукла")
+                        .param("sort", "PRICE")
+                        .param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("main"))
+                .andExpect(model().attribute("items", hasSize(1)));
+
+        verify(itemService, never()).getItems(anyString(), any(PageCursor.class), anyInt());
+        verify(itemService).getItems(eq("кукла"), eq(PriceRange.ANY), argThat(pageable -> pageable.getPageNumber() == 0));
+    }
+
+    @Test
+    void showItems_withPriceRange_shouldFilterByPageNumberAndShowFacets() throws Exception {
+        // Arrange
+        String sessionId = "1";
+        ItemEntity item1 = new ItemEntity(1L, "Item 1", "Desc 1", null, BigDecimal.TEN);
+        PageCursor cursor = PageCursor.next(SortType.NO, PageCursor.queryHash("", PriceRange.ANY), 2, item1);
+        PriceRange priceRange = new PriceRange(BigDecimal.valueOf(5), BigDecimal.valueOf(20));
+        List<PriceFacet> facets = List.of(new PriceFacet(BigDecimal.ZERO, null, 1));
+
+        when(itemService.getItems(eq(""), eq(priceRange), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(item1)));
+        when(itemService.getPriceFacets("")).thenReturn(facets);
+        when(cartStore.getQuantities(sessionId)).thenReturn(CartQuantities.EMPTY);
+
+        MockHttpSession mockSession = new MockHttpSession(null, sessionId);
+
+        // Act & Assert
+        mockMvc.perform(get("/items")
+                        .session(mockSession)
+                        .param("minPrice", "5")
+                        .param("maxPrice", "20")
+                        .param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("main"))
+                .andExpect(model().attribute("items", hasSize(1)))
+                .andExpect(model().attribute("priceFacets", facets))
+                .andExpect(model().attribute("minPrice", BigDecimal.valueOf(5)));
+
+        verify(itemService, never()).getItems(anyString(), any(PageCursor.class), anyInt());
     }
 
 }
@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -16,16 +19,19 @@ import yandex.practicum.market.entity.CartItemEntity;
 import yandex.practicum.market.entity.ItemEntity;
 import yandex.practicum.market.entity.OrderEntity;
 import yandex.practicum.market.dto.OrderDto;
+import yandex.practicum.market.dto.OrderLine;
+import yandex.practicum.market.dto.OrderSummary;
+import yandex.practicum.market.dto.PagingDto;
 import yandex.practicum.market.dto.factory.OrderDtoFactory;
-import yandex.practicum.market.service.CartService;
+import yandex.practicum.market.service.CheckoutService;
 import yandex.practicum.market.service.OrderService;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 
-import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,7 +46,7 @@ class OrderControllerTest {
     private OrderService orderService;
 
     @MockitoBean
-    private CartService cartService;
+    private CheckoutService checkoutService;
 
     @MockitoBean
     private HttpSession session;
@@ -59,18 +65,13 @@ class OrderControllerTest {
         testItem = new ItemEntity(1L, "Item", "Desc", "img.jpg", BigDecimal.ONE);
         testCart = new CartEntity(1L, sessionId);
 
-        when(session.getId()).thenReturn(sessionId);
-        when(cartService.getOrCreateSessionById(sessionId)).thenReturn(testCart);
-
         CartItemEntity cartDetail = new CartItemEntity(testCart, testItem, 2, testItem.getPrice());
-        testCart.getItems().put(testItem, cartDetail);
+        testCart.getItems().put(testItem.getId(), cartDetail);
 
         OrderEntity order = new OrderEntity(testCart);
         order.setId(1L);
 
-        when(session.getId()).thenReturn(sessionId);
-        when(cartService.getOrCreateSessionById(sessionId)).thenReturn(testCart);
-        when(orderService.buy(testCart)).thenReturn(order);
+        when(checkoutService.checkout(sessionId)).thenReturn(order);
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
 
@@ -79,32 +80,53 @@ class OrderControllerTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/orders/1?newOrder=true"));
 
-        verify(cartService).clear(testCart);
+        verify(checkoutService, times(1)).checkout(sessionId);
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void buyItems_WithEmptyCart_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        String sessionId = "1";
+        when(checkoutService.checkout(sessionId)).thenThrow(new IllegalArgumentException("Корзина пуста"));
+        MockHttpSession mockSession = new MockHttpSession(null, sessionId);
+
+        // Act & Assert
+        mockMvc.perform(post("/buy").session(mockSession))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     void showOrders_ShouldReturnOrdersView() throws Exception {
         // Arrange
         String sessionId = "2";
-        CartEntity cartEntity = new CartEntity();
-        List<OrderEntity> orders = new ArrayList<>();
-        OrderEntity order = new OrderEntity();
-        orders.add(order);
-        OrderDto orderDto = new OrderDtoFactory(new ItemDtoFactory()).of(order, BigDecimal.ZERO);
+        List<OrderSummary> summaries = List.of(
+                new OrderSummary(2L, BigDecimal.ZERO, 0),
+                new OrderSummary(1L, BigDecimal.valueOf(12), 3)
+        );
 
-        when(session.getId()).thenReturn(sessionId);
-        when(cartService.getOrCreateSessionById(sessionId)).thenReturn(cartEntity);
-        when(orderService.getAllOrdersBySessionId(cartEntity.getId())).thenReturn(orders);
-        when(orderService.getOrderTotalCost(order.getId())).thenReturn(BigDecimal.ZERO);
+        when(orderService.getOrderSummaries(eq(sessionId), any(Pageable.class)))
+                .thenAnswer(invocation -> new SliceImpl<>(summaries, invocation.getArgument(1), true));
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
 
         // Act
-        mockMvc.perform(get("/orders").session(mockSession))
+        mockMvc.perform(get("/orders").param("pageNumber", "2").param("pageSize", "2").session(mockSession))
                 .andExpect(status().isOk())
                 .andExpect(view().name("orders"))
-                .andExpect(model().attributeExists("orders"))
-                .andExpect(model().attribute("orders", List.of(orderDto)));
+                .andExpect(model().attribute("orders", summaries))
+                .andExpect(model().attributeExists("paging"))
+                .andDo(result -> {
+                    PagingDto paging = (PagingDto) result.getModelAndView().getModel().get("paging");
+                    assertEquals(2, paging.pageNumber());
+                    assertTrue(paging.hasPrevious());
+                    assertTrue(paging.hasNext());
+                });
+
+        // Assert
+        verify(orderService).getOrderSummaries(sessionId, PageRequest.of(1, 2));
+        verify(orderService, never()).getOrderLines(anyLong());
+        verifyNoInteractions(checkoutService);
     }
 
     @Test
@@ -112,11 +134,9 @@ class OrderControllerTest {
         // Arrange
         String sessionId = "3";
         Long orderId = 1L;
-        OrderEntity order = new OrderEntity();
-        order.setId(orderId);
+        OrderLine line = new OrderLine(orderId, 1L, "Item", "Desc", null, 2, BigDecimal.valueOf(5));
 
-        when(orderService.getOrder(orderId)).thenReturn(order);
-        when(orderService.getOrderTotalCost(order.getId())).thenReturn(BigDecimal.TEN);
+        when(orderService.getOrderLines(orderId)).thenReturn(List.of(line));
 
         // Act
         //String viewName = orderController.showOrder(orderId, false, model);
@@ -127,15 +147,19 @@ class OrderControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(view().name("order"))
                 .andExpect(model().attributeExists("order"))
-                .andExpect(model().attribute("newOrder", false)
-                );
+                .andExpect(model().attribute("newOrder", false))
+                .andDo(result -> {
+                    OrderDto orderDto = (OrderDto) result.getModelAndView().getModel().get("order");
+                    assertEquals(orderId, orderDto.getId());
+                    assertEquals(BigDecimal.TEN, orderDto.getTotalCost());
+                });
     }
 
     @Test
     void showOrder_ShouldThrowNoSuchElementException_WhenOrderNotFound() throws Exception {
         // Arrange
         String sessionId = "4";
-        when(orderService.getOrder(0L)).thenThrow(NoSuchElementException.class);
+        when(orderService.getOrderLines(0L)).thenThrow(NoSuchElementException.class);
 
         // Act & Assert
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
@@ -0,0 +1,47 @@
+package yandex.practicum.market.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartQuantitiesTest {
+
+    @Test
+    void get_shouldFindEveryQuantityOfLargeCart() {
+        // Arrange
+        List<CartQuantity> lines = new ArrayList<>();
+        for (long itemId = 1; itemId <= 100; itemId++) {
+            lines.add(new CartQuantity(itemId * 16, (int) itemId));
+        }
+
+        // Act
+        CartQuantities quantities = CartQuantities.of(lines);
+
+        // Assert
+        assertEquals(100, quantities.size());
+        for (long itemId = 1; itemId <= 100; itemId++) {
+            assertEquals((int) itemId, quantities.get(itemId * 16));
+        }
+        assertEquals(0, quantities.get(17L));
+        assertEquals(0, quantities.get(0L));
+    }
+
+    @Test
+    void of_shouldKeepLastQuantityOfRepeatedItemAndSkipEmptyLines() {
+        // Act
+        CartQuantities quantities = CartQuantities.of(List.of(
+                new CartQuantity(1L, 2),
+                new CartQuantity(1L, 3),
+                new CartQuantity(2L, 0)
+        ));
+
+        // Assert
+        assertEquals(1, quantities.size());
+        assertEquals(3, quantities.get(1L));
+        assertEquals(0, quantities.get(2L));
+        assertTrue(CartQuantities.EMPTY.isEmpty());
+    }
+}
@@ -0,0 +1,73 @@
+package yandex.practicum.market.dto;
+
+import org.junit.jupiter.api.Test;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.types.SortType;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    private final ItemEntity item = new ItemEntity(7L, "Мяч | футбольный", "desc", "img.jpg", new BigDecimal("1500.50"));
+
+    @Test
+    void encode_shouldRoundTripSortKey() {
+        // Arrange
+        PageCursor alpha = PageCursor.next(SortType.ALPHA, 42, 3, item);
+        PageCursor price = PageCursor.previous(SortType.PRICE, -7, 2, item);
+
+        // Act
+        PageCursor decodedAlpha = PageCursor.decode(alpha.encode());
+        PageCursor decodedPrice = PageCursor.decode(price.encode());
+
+        // Assert
+        assertEquals(alpha, decodedAlpha);
+        assertEquals("Мяч | футбольный", decodedAlpha.title());
+        assertTrue(decodedAlpha.isNext());
+        assertEquals(42, decodedAlpha.queryHash());
+        assertEquals(price, decodedPrice);
+        assertNull(decodedPrice.title());
+        assertFalse(decodedPrice.isNext());
+    }
+
+    @Test
+    void decode_shouldIgnoreCursorOfAnotherSort() {
+        // Arrange
+        String token = PageCursor.next(SortType.PRICE, 0, 2, item).encode();
+
+        // Act & Assert
+        assertNull(PageCursor.decode(token, SortType.ALPHA, 0));
+        assertNull(PageCursor.decode("", SortType.ALPHA, 0));
+        assertNotNull(PageCursor.decode(token, SortType.PRICE, 0));
+    }
+
+    @Test
+    void decode_shouldIgnoreCursorForRelevanceSort() {
+        // Arrange
+        String token = new PageCursor(SortType.RELEVANCE, PageCursor.Direction.NEXT, 0, 2, 1L, null, null).encode();
+
+        // Act & Assert
+        assertNull(PageCursor.decode(token, SortType.RELEVANCE, 0));
+    }
+
+    @Test
+    void decode_shouldRejectInvalidToken() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("QUJD"));
+        assertNull(PageCursor.decode("not a cursor", SortType.NO, 0));
+    }
+
+    @Test
+    void decode_shouldIgnoreCursorOfAnotherSearch() {
+        // Arrange
+        int queryHash = PageCursor.queryHash("Мяч", PriceRange.ANY);
+        String token = PageCursor.next(SortType.NO, queryHash, 2, item).encode();
+
+        // Act & Assert
+        assertNotNull(PageCursor.decode(token, SortType.NO, PageCursor.queryHash(" мяч ", PriceRange.ANY)));
+        assertNull(PageCursor.decode(token, SortType.NO, PageCursor.queryHash("кукла", PriceRange.ANY)));
+        assertNull(PageCursor.decode(token, SortType.NO, PageCursor.queryHash("мяч", new PriceRange(BigDecimal.ONE, null))));
+    }
+}
@@ -0,0 +1,126 @@
+package yandex.practicum.market.integration;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import yandex.practicum.market.cart.CartStore;
+import yandex.practicum.market.dto.OrderSummary;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.repository.ItemRepository;
+import yandex.practicum.market.service.CartOperationService;
+import yandex.practicum.market.service.CheckoutService;
+import yandex.practicum.market.service.OrderService;
+import yandex.practicum.market.types.ActionType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CartConcurrencyIntegrationTest {
+    private static final int THREADS = 32;
+
+    // Оба сценария выполняются в каждом режиме хранения корзины
+    @Nested
+    class DatabaseStore extends Scenarios {
+    }
+
+    @Nested
+    @TestPropertySource(properties = "cart.store.mode=write-behind")
+    class WriteBehindStore extends Scenarios {
+    }
+
+    abstract static class Scenarios {
+        @Autowired
+        private CartOperationService cartOperationService;
+
+        @Autowired
+        private CheckoutService checkoutService;
+
+        @Autowired
+        private OrderService orderService;
+
+        @Autowired
+        private CartStore cartStore;
+
+        @Autowired
+        private ItemRepository itemRepository;
+
+        @Test
+        void parallelPlus_shouldNotLoseIncrements() throws Exception {
+            // Arrange
+            int requests = 10_000;
+            ItemEntity item = itemRepository.save(new ItemEntity("Concurrent item", "desc", "img.jpg", BigDecimal.ONE));
+            String sessionId = "concurrent-" + UUID.randomUUID();
+
+            // Act
+            runInParallel(requests, i -> cartOperationService.updateCart(sessionId, item.getId(), ActionType.PLUS));
+
+            // Assert
+            assertEquals(requests, cartStore.getQuantities(sessionId).get(item.getId()));
+        }
+
+        @Test
+        void checkoutDuringParallelPlus_shouldOrderOrKeepEveryUnit() throws Exception {
+            // Arrange
+            int requests = 2_000;
+            ItemEntity item = itemRepository.save(new ItemEntity("Concurrent item", "desc", "img.jpg", BigDecimal.ONE));
+            String sessionId = "checkout-" + UUID.randomUUID();
+            // Пустую корзину заказать нельзя: к моменту заказа в ней уже есть товар
+            cartOperationService.updateCart(sessionId, item.getId(), ActionType.PLUS);
+
+            // Act: заказ оформляется посреди нажатий
+            runInParallel(requests + 1, i -> {
+                if (i == requests / 2) {
+                    checkoutService.checkout(sessionId);
+                } else {
+                    cartOperationService.updateCart(sessionId, item.getId(), ActionType.PLUS);
+                }
+            });
+
+            // Assert: каждая единица товара либо попала в заказ, либо осталась в корзине
+            int ordered = 0;
+            for (OrderSummary order : orderService.getOrderSummaries(sessionId, PageRequest.of(0, 10))) {
+                ordered += order.itemCount();
+            }
+            int remaining = cartStore.getQuantities(sessionId).get(item.getId());
+            assertEquals(requests + 1, ordered + remaining);
+        }
+    }
+
+    private static void runInParallel(int count, IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.accept(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
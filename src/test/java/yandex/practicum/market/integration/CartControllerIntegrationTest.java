@@ -17,6 +17,7 @@ import yandex.practicum.market.repository.ItemRepository;
 import java.math.BigDecimal;
 
 import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -58,9 +59,9 @@ public class CartControllerIntegrationTest {
         cartDetail1 = new CartItemEntity(cart, item1, 1, item1.getPrice());
         cartDetail2 = new CartItemEntity(cart, item2, 2, item2.getPrice());
 
-        cart.getItems().put(item1, cartDetail1);
+        cart.getItems().put(item1.getId(), cartDetail1);
         cartRepository.save(cart);
-        cart.getItems().put(item2, cartDetail2);
+        cart.getItems().put(item2.getId(), cartDetail2);
         cartRepository.save(cart);
 
         // Подготовка данных корзины
@@ -89,6 +90,33 @@ public class CartControllerIntegrationTest {
                 .andExpect(model().attribute("items", empty()));
     }
 
+    @Test
+    @Transactional
+    void showCartAndMinus_shouldNotCreateCartForNewSession() throws Exception {
+        item1 = itemRepository.save(new ItemEntity("Item 1", "Desc 1", "img1.jpg", BigDecimal.ONE));
+        long cartsBefore = cartRepository.count();
+
+        MockHttpSession mockSession = new MockHttpSession(null, "new-visitor");
+
+        mockMvc.perform(get("/cart/items").session(mockSession))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("empty", true));
+        mockMvc.perform(post("/items/" + item1.getId())
+                        .session(mockSession)
+                        .param("action", "MINUS"))
+                .andExpect(status().is3xxRedirection());
+
+        assertEquals(cartsBefore, cartRepository.count());
+
+        // Строка корзины появляется только при первом добавлении товара
+        mockMvc.perform(post("/items/" + item1.getId())
+                        .session(mockSession)
+                        .param("action", "PLUS"))
+                .andExpect(status().is3xxRedirection());
+
+        assertEquals(cartsBefore + 1, cartRepository.count());
+    }
+
     @Test
     @Transactional
     void updateCartByMainPage_shouldRedirectToMain() throws Exception {
@@ -100,7 +128,7 @@ public class CartControllerIntegrationTest {
         cartRepository.save(cart);
 
         cartDetail1 = new CartItemEntity(cart, item1, 1, item1.getPrice());
-        cart.getItems().put(item1, cartDetail1);
+        cart.getItems().put(item1.getId(), cartDetail1);
         cartRepository.save(cart);
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
@@ -123,7 +151,7 @@ public class CartControllerIntegrationTest {
         cartRepository.save(cart);
 
         cartDetail1 = new CartItemEntity(cart, item1, 1, item1.getPrice());
-        cart.getItems().put(item1, cartDetail1);
+        cart.getItems().put(item1.getId(), cartDetail1);
         cartRepository.save(cart);
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
@@ -147,7 +175,7 @@ public class CartControllerIntegrationTest {
         cartRepository.save(cart);
 
         cartDetail1 = new CartItemEntity(cart, item1, 1, item1.getPrice());
-        cart.getItems().put(item1, cartDetail1);
+        cart.getItems().put(item1.getId(), cartDetail1);
         cartRepository.save(cart);
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
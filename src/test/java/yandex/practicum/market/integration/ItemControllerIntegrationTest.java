@@ -69,6 +69,22 @@ public class ItemControllerIntegrationTest {
                 .andExpect(model().attributeExists("paging"));
     }
 
+    @Test
+    @Transactional
+    public void showItems_WithHugePriceBounds_ShouldReturnMainView() throws Exception {
+        itemRepository.save(new ItemEntity("Item 1", "Desc 1", "img1.jpg", BigDecimal.ONE));
+        MockHttpSession mockSession = new MockHttpSession(null, "1");
+
+        // Act & Assert
+        mockMvc.perform(get("/items")
+                        .session(mockSession)
+                        .param("minPrice", "-1e20")
+                        .param("maxPrice", "1e20"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("main"))
+                .andExpect(model().attributeExists("items"));
+    }
+
     @Test
     @Transactional
     public void showItem_ShouldReturnItemView_WhenItemExists() throws Exception {
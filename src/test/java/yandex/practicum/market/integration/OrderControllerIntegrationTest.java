@@ -16,6 +16,7 @@ import yandex.practicum.market.repository.OrderRepository;
 
 import java.math.BigDecimal;
 
+import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -48,7 +49,7 @@ public class OrderControllerIntegrationTest {
         cartRepository.save(cart);
 
         CartItemEntity cartDetail = new CartItemEntity(cart, item1, 2, item1.getPrice());
-        cart.getItems().put(item1, cartDetail);
+        cart.getItems().put(item1.getId(), cartDetail);
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
 
@@ -72,14 +73,14 @@ public class OrderControllerIntegrationTest {
 
         OrderEntity order1 = new OrderEntity(cart);
         OrderItemEntity orderDetail1 = new OrderItemEntity(order1, item1, 1, item1.getPrice());
-        order1.getItems().put(item1, orderDetail1);
+        order1.getItems().put(item1.getId(), orderDetail1);
         OrderItemEntity orderDetail2 = new OrderItemEntity(order1, item2, 2, item1.getPrice());
-        order1.getItems().put(item1, orderDetail2);
+        order1.getItems().put(item1.getId(), orderDetail2);
         orderRepository.save(order1);
 
         OrderEntity order2 = new OrderEntity(cart);
         OrderItemEntity orderDetail3 = new OrderItemEntity(order2, item1, 2, item1.getPrice());
-        order2.getItems().put(item1, orderDetail3);
+        order2.getItems().put(item1.getId(), orderDetail3);
         orderRepository.save(order2);
 
         MockHttpSession mockSession = new MockHttpSession(null, sessionId);
@@ -88,7 +89,9 @@ public class OrderControllerIntegrationTest {
         mockMvc.perform(get("/orders").session(mockSession))
                 .andExpect(status().isOk())
                 .andExpect(view().name("orders"))
-                .andExpect(model().attributeExists("orders"));
+                .andExpect(model().attributeExists("orders"))
+                .andExpect(model().attribute("orders", hasSize(2)))
+                .andExpect(model().attributeExists("paging"));
     }
 
     @Test
@@ -107,9 +110,9 @@ public class OrderControllerIntegrationTest {
 
         OrderEntity order1 = new OrderEntity(cart);
         OrderItemEntity orderDetail1 = new OrderItemEntity(order1, item1, 1, item1.getPrice());
-        order1.getItems().put(item1, orderDetail1);
+        order1.getItems().put(item1.getId(), orderDetail1);
         OrderItemEntity orderDetail2 = new OrderItemEntity(order1, item2, 2, item1.getPrice());
-        order1.getItems().put(item1, orderDetail2);
+        order1.getItems().put(item1.getId(), orderDetail2);
         order1 = orderRepository.save(order1);
         Long orderId = order1.getId();
 
@@ -1,17 +1,26 @@
 package yandex.practicum.market.repository;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import yandex.practicum.market.dto.CartLine;
+import yandex.practicum.market.dto.CartLinePrice;
+import yandex.practicum.market.dto.CartQuantity;
 import yandex.practicum.market.entity.CartEntity;
 import yandex.practicum.market.entity.CartItemEntity;
 import yandex.practicum.market.entity.ItemEntity;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,6 +34,9 @@ class CartItemRepositoryTest {
     @Autowired
     private TestEntityManager entityManager;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Test
     @Transactional
     void deleteAllBySessionId_shouldRemoveAllDetailsForCart() {
@@ -54,7 +66,7 @@ class CartItemRepositoryTest {
 
     @Test
     @Transactional
-    void sumTotalCostInCart_shouldReturnCorrectSumBySessionId() {
+    void findLinesBySessionId_shouldProjectLinesWithItemDataAndCartPrice() {
         // Arrange
         CartEntity cart = new CartEntity("session1");
         entityManager.persist(cart);
@@ -64,33 +76,94 @@ class CartItemRepositoryTest {
         entityManager.persist(item1);
         entityManager.persist(item2);
 
-        CartItemEntity detail1 = new CartItemEntity(cart, item1, 2, item1.getPrice()); // 1 * 2 = 2
-        CartItemEntity detail2 = new CartItemEntity(cart, item2, 1, item2.getPrice()); // 2 * 1 = 2
-        entityManager.persist(detail1);
-        entityManager.persist(detail2);
+        entityManager.persist(new CartItemEntity(cart, item1, 2, item1.getPrice())); // 1 * 2 = 2
+        entityManager.persist(new CartItemEntity(cart, item2, 1, new BigDecimal("1.50"))); // цена на момент добавления
         entityManager.flush();
+        entityManager.clear();
 
         // Act
-        Optional<BigDecimal> result = cartItemRepository.sumTotalCostInCartBySessionId(cart.getId());
+        List<CartLine> result = cartItemRepository.findLinesBySessionId("session1");
 
         // Assert
-        assertTrue(result.isPresent());
-        assertEquals(new BigDecimal("4.00"), result.get());
+        assertEquals(2, result.size());
+        assertEquals(item1.getId(), result.get(0).itemId());
+        assertEquals("title1", result.get(0).title());
+        assertEquals(2, result.get(0).quantity());
+        assertEquals(new BigDecimal("1.50"), result.get(1).price());
+        assertEquals(new BigDecimal("3.50"), result.get(0).cost().add(result.get(1).cost()));
+        assertTrue(cartItemRepository.findLinesBySessionId("session2").isEmpty());
     }
 
     @Test
     @Transactional
-    void sumTotalCostInCart_shouldReturnEmptyForEmptyCartBySessionId() {
+    void sumCostBySessionId_shouldSumCartPricesAndReturnZeroForMissingCart() {
         // Arrange
-        CartEntity cart = new CartEntity("1");
+        CartEntity cart = new CartEntity("session1");
+        entityManager.persist(cart);
+
+        ItemEntity item1 = new ItemEntity("title1", "desc1", "img1.jpg", BigDecimal.ONE);
+        ItemEntity item2 = new ItemEntity("title2", "desc2", "img2.jpg", BigDecimal.TWO);
+        entityManager.persist(item1);
+        entityManager.persist(item2);
+
+        entityManager.persist(new CartItemEntity(cart, item1, 2, item1.getPrice()));
+        entityManager.persist(new CartItemEntity(cart, item2, 1, new BigDecimal("1.50")));
+        entityManager.flush();
+
+        // Act & Assert
+        assertEquals(0, new BigDecimal("3.50").compareTo(cartItemRepository.sumCostBySessionId("session1")));
+        assertEquals(0, BigDecimal.ZERO.compareTo(cartItemRepository.sumCostBySessionId("session2")));
+    }
+
+    @Test
+    @Transactional
+    void findQuantitiesBySessionId_shouldProjectItemQuantities() {
+        // Arrange
+        CartEntity cart = new CartEntity("session1");
+        entityManager.persist(cart);
+
+        ItemEntity item1 = new ItemEntity("title1", "desc1", "img1.jpg", BigDecimal.ONE);
+        ItemEntity item2 = new ItemEntity("title2", "desc2", "img2.jpg", BigDecimal.TWO);
+        entityManager.persist(item1);
+        entityManager.persist(item2);
+
+        entityManager.persist(new CartItemEntity(cart, item1, 2, item1.getPrice()));
+        entityManager.persist(new CartItemEntity(cart, item2, 1, item2.getPrice()));
+        entityManager.flush();
+
+        // Act
+        List<CartQuantity> result = cartItemRepository.findQuantitiesBySessionId("session1");
+
+        // Assert
+        assertEquals(
+                Set.of(new CartQuantity(item1.getId(), 2), new CartQuantity(item2.getId(), 1)),
+                Set.copyOf(result)
+        );
+        assertTrue(cartItemRepository.findQuantitiesBySessionId("session2").isEmpty());
+    }
+
+    @Test
+    void findLinePricesBySessionId_shouldProjectQuantitiesWithCartPrice() {
+        // Arrange
+        CartEntity cart = new CartEntity("session1");
         entityManager.persist(cart);
+
+        ItemEntity item = new ItemEntity("title1", "desc1", "img1.jpg", BigDecimal.TEN);
+        entityManager.persist(item);
+
+        // Цена в корзине - цена на момент добавления, она отличается от текущей цены товара
+        entityManager.persist(new CartItemEntity(cart, item, 2, new BigDecimal("7.50")));
         entityManager.flush();
 
         // Act
-        Optional<BigDecimal> result = cartItemRepository.sumTotalCostInCartBySessionId(cart.getId());
+        List<CartLinePrice> result = cartItemRepository.findLinePricesBySessionId("session1");
 
         // Assert
-        assertFalse(result.isPresent());
+        assertEquals(1, result.size());
+        assertEquals(item.getId(), result.get(0).itemId());
+        assertEquals(2, result.get(0).quantity());
+        assertEquals(0, new BigDecimal("7.50").compareTo(result.get(0).price()));
+        assertTrue(cartItemRepository.findLinePricesBySessionId("session2").isEmpty());
     }
 
     @Test
@@ -114,4 +187,99 @@ class CartItemRepositoryTest {
         assertEquals(cart.getId(), savedDetail.getId().getCartId());
         assertEquals(item.getId(), savedDetail.getId().getItemId());
     }
-}
\ No newline at end of file
+
+    @Test
+    @Transactional
+    void incrementAndDecrementQuantity_shouldChangeCartDetailInPlace() {
+        // Arrange
+        CartEntity cart = new CartEntity("1");
+        entityManager.persist(cart);
+
+        ItemEntity item = new ItemEntity("title1", "desc1", "img1.jpg", BigDecimal.ONE);
+        entityManager.persist(item);
+        entityManager.flush();
+
+        // Act & Assert
+        assertEquals(1, cartItemRepository.incrementQuantity(cart.getId(), item.getId(), item.getPrice()));
+        assertEquals(2, cartItemRepository.incrementQuantity(cart.getId(), item.getId(), item.getPrice()));
+        assertEquals(Optional.of(1), cartItemRepository.decrementQuantity(cart.getId(), item.getId()));
+
+        // Последняя единица товара не уменьшается, а удаляется вместе с позицией
+        assertEquals(Optional.empty(), cartItemRepository.decrementQuantity(cart.getId(), item.getId()));
+        assertEquals(1, cartItemRepository.deleteLastUnit(cart.getId(), item.getId()));
+        assertEquals(0, cartItemRepository.count());
+    }
+
+    @Test
+    @Transactional
+    void setQuantity_shouldInsertOrReplaceQuantity() {
+        // Arrange
+        CartEntity cart = new CartEntity("1");
+        entityManager.persist(cart);
+
+        ItemEntity item = new ItemEntity("title1", "desc1", "img1.jpg", BigDecimal.ONE);
+        entityManager.persist(item);
+        entityManager.flush();
+
+        // Act
+        cartItemRepository.setQuantity(cart.getId(), item.getId(), 20, item.getPrice());
+        cartItemRepository.setQuantity(cart.getId(), item.getId(), 5, item.getPrice());
+        entityManager.clear();
+
+        // Assert
+        List<CartQuantity> quantities = cartItemRepository.findQuantitiesBySessionId("1");
+        assertEquals(List.of(new CartQuantity(item.getId(), 5)), quantities);
+    }
+
+    @Test
+    @Transactional
+    void cartPageAndCatalogQueries_shouldIssueOneStatementRegardlessOfCartSize() {
+        // Arrange
+        CartEntity cart = new CartEntity("1");
+        entityManager.persist(cart);
+        for (int i = 1; i <= 5; i++) {
+            ItemEntity item = new ItemEntity("title" + i, "desc" + i, "img" + i + ".jpg", BigDecimal.valueOf(i));
+            entityManager.persist(item);
+            entityManager.persist(new CartItemEntity(cart, item, i, item.getPrice()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Act & Assert
+        statistics.clear();
+        assertEquals(5, cartItemRepository.findLinesBySessionId("1").size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        assertEquals(5, cartItemRepository.findQuantitiesBySessionId("1").size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @Transactional
+    void findById_shouldNotLoadCartAndItemAssociations() {
+        // Arrange
+        CartEntity cart = new CartEntity("1");
+        entityManager.persist(cart);
+        ItemEntity item = new ItemEntity("title1", "desc1", "img1.jpg", BigDecimal.ONE);
+        entityManager.persist(item);
+        CartItemEntity cartItem = entityManager.persist(new CartItemEntity(cart, item, 1, item.getPrice()));
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        CartItemEntity found = cartItemRepository.findById(cartItem.getId()).orElseThrow();
+
+        // Assert
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertFalse(Hibernate.isInitialized(found.getItem()));
+        assertFalse(Hibernate.isInitialized(found.getSession()));
+    }
+}
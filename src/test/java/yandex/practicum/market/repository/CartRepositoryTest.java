@@ -1,5 +1,8 @@
 package yandex.practicum.market.repository;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
@@ -10,8 +13,10 @@ import org.springframework.transaction.annotation.Transactional;
 import yandex.practicum.market.entity.CartEntity;
 import yandex.practicum.market.entity.CartItemEntity;
 import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.entity.OrderEntity;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,6 +30,9 @@ class CartRepositoryTest {
     @Autowired
     private TestEntityManager entityManager;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Test
     @Transactional
     void findBySessionId_shouldReturnSessionWhenExists() {
@@ -41,6 +49,37 @@ class CartRepositoryTest {
         assertEquals(sessionId, foundSessionEntity.get().getSessionId());
     }
 
+    @Test
+    @Transactional
+    void findBySessionId_shouldLoadCartItemsAndProductsInOneQuery() {
+        // Arrange
+        CartEntity cart = new CartEntity("1");
+        entityManager.persist(cart);
+        for (int i = 1; i <= 3; i++) {
+            ItemEntity item = new ItemEntity("title" + i, "desc" + i, "img" + i + ".jpg", BigDecimal.valueOf(i));
+            entityManager.persist(item);
+            entityManager.persist(new CartItemEntity(cart, item, i, item.getPrice()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        CartEntity found = cartRepository.findBySessionId("1").orElseThrow();
+        int quantity = 0;
+        for (CartItemEntity cartItem : found.getItems().values()) {
+            quantity += cartItem.getQuantity();
+            assertNotNull(cartItem.getItem().getTitle());
+        }
+
+        // Assert
+        assertEquals(3, found.getItems().size());
+        assertEquals(6, quantity);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
     @Test
     void findBySessionId_shouldReturnEmptyWhenNotExists() {
         // Act
@@ -111,7 +150,7 @@ class CartRepositoryTest {
 
         CartEntity cartEntity = new CartEntity("1");
         CartItemEntity detail = new CartItemEntity(cartEntity, item, 1, BigDecimal.ONE);
-        cartEntity.getItems().put(item, detail);
+        cartEntity.getItems().put(item.getId(), detail);
 
         // Act
         CartEntity savedCartEntity = cartRepository.save(cartEntity);
@@ -121,4 +160,68 @@ class CartRepositoryTest {
         assertEquals(1, savedCartEntity.getItems().size());
     }
 
+
+    @Test
+    @Transactional
+    void incrementVersion_shouldBumpVersionOfCart() {
+        // Arrange
+        CartEntity cart = entityManager.persist(new CartEntity("1"));
+        entityManager.flush();
+        long version = cart.getVersion();
+
+        // Act
+        int updated = cartRepository.incrementVersion(cart.getId());
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(version + 1, entityManager.find(CartEntity.class, cart.getId()).getVersion());
+    }
+
+    @Test
+    @Transactional
+    void deleteAbandoned_shouldDeleteOnlyIdleCartsWithoutOrders() {
+        // Arrange
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(30);
+        ItemEntity item = entityManager.persist(new ItemEntity("title1", "desc1", "img1.jpg", BigDecimal.ONE));
+
+        CartEntity abandoned = new CartEntity("abandoned");
+        abandoned.setLastActivity(longAgo);
+        entityManager.persist(abandoned);
+        entityManager.persist(new CartItemEntity(abandoned, item, 1, item.getPrice()));
+
+        CartEntity ordered = new CartEntity("ordered");
+        ordered.setLastActivity(longAgo);
+        entityManager.persist(ordered);
+        entityManager.persist(new OrderEntity(ordered));
+
+        entityManager.persist(new CartEntity("active"));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        int deleted = cartRepository.deleteAbandoned(LocalDateTime.now().minusDays(7), 100);
+
+        // Assert
+        assertEquals(1, deleted);
+        assertTrue(cartRepository.findIdBySessionId("abandoned").isEmpty());
+        assertTrue(cartRepository.findIdBySessionId("ordered").isPresent());
+        assertTrue(cartRepository.findIdBySessionId("active").isPresent());
+    }
+
+    @Test
+    @Transactional
+    void deleteAbandoned_shouldDeleteAtMostLimitCarts() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            CartEntity cart = new CartEntity("abandoned" + i);
+            cart.setLastActivity(LocalDateTime.now().minusDays(30));
+            entityManager.persist(cart);
+        }
+        entityManager.flush();
+
+        // Act & Assert
+        assertEquals(2, cartRepository.deleteAbandoned(LocalDateTime.now().minusDays(7), 2));
+        assertEquals(1, cartRepository.deleteAbandoned(LocalDateTime.now().minusDays(7), 2));
+    }
 }
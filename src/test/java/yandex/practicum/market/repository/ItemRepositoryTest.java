@@ -5,10 +5,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
+import yandex.practicum.market.dto.ItemView;
 import yandex.practicum.market.entity.ItemEntity;
 
 import java.math.BigDecimal;
@@ -97,6 +101,95 @@ class ItemRepositoryTest {
         assertEquals(1, result2.getTotalElements());
     }
 
+    @Test
+    void findSliceBySearchTerm_shouldDetectNextPageWithoutCount() {
+        // Act
+        Slice<ItemView> firstPage = itemRepository.findSliceBySearchTerm(null, PageRequest.of(0, 1));
+        Slice<ItemView> lastPage = itemRepository.findSliceBySearchTerm(null, PageRequest.of(1, 1));
+
+        // Assert
+        assertEquals(1, firstPage.getNumberOfElements());
+        assertTrue(firstPage.hasNext());
+        assertFalse(lastPage.hasNext());
+        assertTrue(lastPage.hasPrevious());
+    }
+
+    @Test
+    void findAfterTitle_shouldReturnItemsAfterCursorKey() {
+        // Arrange
+        ItemEntity sameTitle = itemRepository.save(new ItemEntity(null, title1, "desc3", "img3.jpg", BigDecimal.TEN));
+        ItemEntity first = itemRepository.findAllBySearchTerm("desc1", pageable).getContent().get(0);
+
+        // Act
+        List<ItemView> result = itemRepository.findAfterTitle(title1, first.getId(), Limit.of(10));
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(sameTitle.getId(), result.get(0).id());
+        assertEquals(title2, result.get(1).title());
+    }
+
+    @Test
+    void findBeforePrice_shouldReturnItemsBeforeCursorKeyInReverseOrder() {
+        // Arrange
+        itemRepository.save(new ItemEntity(null, "title3", "desc3", "img3.jpg", BigDecimal.TEN));
+
+        // Act
+        List<ItemView> result = itemRepository.findBeforePrice(BigDecimal.TEN, 0L, Limit.of(1));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(title2, result.get(0).title());
+    }
+
+    @Test
+    void findByIdGreaterThanOrderByIdAsc_shouldLimitPage() {
+        // Act
+        List<ItemView> result = itemRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(1));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(title1, result.get(0).title());
+    }
+
+    @Test
+    void findSliceBy_shouldBrowseInSortOrderWithoutSearchCondition() {
+        // Act
+        Slice<ItemView> byPrice = itemRepository.findSliceBy(PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id"))));
+
+        // Assert
+        assertEquals(List.of(title2), byPrice.getContent().stream().map(ItemView::title).toList());
+        assertTrue(byPrice.hasNext());
+    }
+
+    @Test
+    void findSliceBySearchTermAndPrice_shouldFilterByInclusiveBounds() {
+        // Act
+        Slice<ItemView> fromTwo = itemRepository.findSliceBySearchTermAndPrice("title", BigDecimal.TWO, null, pageable);
+        Slice<ItemView> upToOne = itemRepository.findSliceBySearchTermAndPrice(null, null, BigDecimal.ONE, pageable);
+        Slice<ItemView> both = itemRepository.findSliceBySearchTermAndPrice(null, BigDecimal.ONE, BigDecimal.TWO, pageable);
+
+        // Assert
+        assertEquals(List.of(title2), fromTwo.getContent().stream().map(ItemView::title).toList());
+        assertEquals(List.of(title1), upToOne.getContent().stream().map(ItemView::title).toList());
+        assertEquals(2, both.getNumberOfElements());
+    }
+
+    @Test
+    void findViewsByIdIn_shouldProjectItemsById() {
+        // Arrange
+        ItemEntity item = itemRepository.findAllBySearchTerm(title2, pageable).getContent().get(0);
+
+        // Act
+        List<ItemView> views = itemRepository.findViewsByIdIn(List.of(item.getId()));
+        ItemView view = itemRepository.findViewById(item.getId()).orElseThrow();
+
+        // Assert
+        assertEquals(List.of(ItemView.of(item)), views);
+        assertEquals(ItemView.of(item), view);
+        assertTrue(itemRepository.findViewById(0L).isEmpty());
+    }
+
     @Test
     void existsByTitle_shouldReturnTrueWhenTitleExists() {
         // Act
@@ -6,13 +6,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
+import yandex.practicum.market.dto.OrderLine;
 import yandex.practicum.market.entity.CartEntity;
 import yandex.practicum.market.entity.ItemEntity;
 import yandex.practicum.market.entity.OrderEntity;
 import yandex.practicum.market.entity.OrderItemEntity;
+import yandex.practicum.market.search.ItemPopularity;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,52 +30,54 @@ class OrderItemRepositoryTest {
 
     @Test
     @Transactional
-    void sumTotalCostInOrder_shouldCalculateCorrectTotal() {
+    void findLinesByOrderId_shouldProjectLinesOfOrderOnly() {
         // Arrange
-        CartEntity cart = new CartEntity("1");
-        CartEntity savedCart = entityManager.persist(cart);
-
-        ItemEntity item1 = new ItemEntity("title1", "desc1", "img1.jpg", BigDecimal.ONE);
-        ItemEntity item2 = new ItemEntity("title2", "desc2", "img2.jpg", BigDecimal.TWO);
-        entityManager.persist(item1);
-        entityManager.persist(item2);
-
-        OrderEntity order = new OrderEntity(savedCart);
-
-        entityManager.persist(order.getSession());
-
-        entityManager.persist(order);
-
-        OrderItemEntity orderDetail1 = new OrderItemEntity(order, item1, 2, item1.getPrice()); // 1 * 2 = 2
-        OrderItemEntity orderDetail2 = new OrderItemEntity(order, item2, 3, item2.getPrice()); // 2 * 3 = 6
-        entityManager.persist(orderDetail1);
-        entityManager.persist(orderDetail2);
+        CartEntity cart = entityManager.persist(new CartEntity("1"));
+        CartEntity otherCart = entityManager.persist(new CartEntity("2"));
+        ItemEntity item = entityManager.persist(new ItemEntity("title1", "desc1", "img1.jpg", BigDecimal.ONE));
+
+        OrderEntity order = entityManager.persist(new OrderEntity(cart));
+        OrderEntity otherOrder = entityManager.persist(new OrderEntity(otherCart));
+        entityManager.persist(new OrderItemEntity(order, item, 2, item.getPrice()));
+        entityManager.persist(new OrderItemEntity(otherOrder, item, 5, item.getPrice()));
         entityManager.flush();
-
-        entityManager.persist(order);
+        entityManager.clear();
 
         // Act
-        Optional<BigDecimal> result = orderItemRepository.sumTotalCostInOrder(order.getId());
+        List<OrderLine> lines = orderItemRepository.findLinesByOrderId(order.getId());
 
         // Assert
-        assertTrue(result.isPresent());
-        assertEquals(new BigDecimal("8.00"), result.get());
+        assertEquals(1, lines.size());
+        OrderLine line = lines.get(0);
+        assertEquals(order.getId(), line.orderId());
+        assertEquals(item.getId(), line.itemId());
+        assertEquals("title1", line.title());
+        assertEquals(2, line.quantity());
+        assertEquals(new BigDecimal("2.00"), line.cost());
     }
 
     @Test
     @Transactional
-    void sumTotalCostInOrder_shouldReturnEmptyForEmptyOrder() {
+    void sumQuantityByItem_shouldSumQuantitiesAcrossOrders() {
         // Arrange
-        OrderEntity order = new OrderEntity(new CartEntity("1"));
-        entityManager.persist(order.getSession());
-        entityManager.persist(order);
+        ItemEntity item1 = entityManager.persist(new ItemEntity("title1", "desc1", null, BigDecimal.ONE));
+        ItemEntity item2 = entityManager.persist(new ItemEntity("title2", "desc2", null, BigDecimal.TWO));
+        CartEntity cart = entityManager.persist(new CartEntity("1"));
+
+        OrderEntity order1 = entityManager.persist(new OrderEntity(cart));
+        OrderEntity order2 = entityManager.persist(new OrderEntity(cart));
+        entityManager.persist(new OrderItemEntity(order1, item1, 2, item1.getPrice()));
+        entityManager.persist(new OrderItemEntity(order2, item1, 3, item1.getPrice()));
+        entityManager.persist(new OrderItemEntity(order2, item2, 1, item2.getPrice()));
         entityManager.flush();
 
         // Act
-        Optional<BigDecimal> result = orderItemRepository.sumTotalCostInOrder(order.getId());
+        List<ItemPopularity> result = orderItemRepository.sumQuantityByItem();
 
         // Assert
-        assertFalse(result.isPresent());
+        assertEquals(2, result.size());
+        assertTrue(result.contains(new ItemPopularity(item1.getId(), 5L)));
+        assertTrue(result.contains(new ItemPopularity(item2.getId(), 1L)));
     }
 
     @Test
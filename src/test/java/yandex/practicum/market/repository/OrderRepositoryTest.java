@@ -1,15 +1,22 @@
 package yandex.practicum.market.repository;
 
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
+import yandex.practicum.market.dto.OrderSummary;
 import yandex.practicum.market.entity.CartEntity;
 import yandex.practicum.market.entity.CartItemEntity;
 import yandex.practicum.market.entity.ItemEntity;
 import yandex.practicum.market.entity.OrderEntity;
+import yandex.practicum.market.entity.OrderItemEntity;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -26,42 +33,8 @@ class OrderRepositoryTest {
     @Autowired
     private TestEntityManager entityManager;
 
-    @Test
-    @Transactional
-    void findByCartId_shouldReturnOrdersForSession() {
-        // Arrange
-        CartEntity cart1 = new CartEntity("1");
-        CartEntity cart2 = new CartEntity("2");
-        CartEntity savedCart1 = entityManager.persist(cart1);
-        CartEntity savedCart2 = entityManager.persist(cart2);
-
-        OrderEntity order1 = new OrderEntity(savedCart1);
-        OrderEntity order2 = new OrderEntity(savedCart1); // Два заказа для cart1
-        OrderEntity order3 = new OrderEntity(savedCart2); // Один заказ для cart2
-        entityManager.persist(order1);
-        entityManager.persist(order2);
-        entityManager.persist(order3);
-        entityManager.flush();
-
-        // Act
-        List<OrderEntity> orderList1 = orderRepository.findBySessionId(cart1.getId());
-        List<OrderEntity> orderList2 = orderRepository.findBySessionId(cart2.getId());
-
-        // Assert
-        assertEquals(2, orderList1.size());
-        assertEquals(1, orderList2.size());
-        assertTrue(orderList1.stream().allMatch(o -> o.getSession().getId().equals(cart1.getId())));
-        assertTrue(orderList2.stream().allMatch(o -> o.getSession().getId().equals(cart2.getId())));
-    }
-
-    @Test
-    void findByCartId_shouldReturnEmptyListForNonExistingSession() {
-        // Act
-        List<OrderEntity> result = orderRepository.findBySessionId(0L);
-
-        // Assert
-        assertTrue(result.isEmpty());
-    }
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     @Test
     @Transactional
@@ -77,8 +50,8 @@ class OrderRepositoryTest {
 
         CartItemEntity detail1 = new CartItemEntity(cart, item1, 1, item1.getPrice());
         CartItemEntity detail2 = new CartItemEntity(cart, item2, 2, item2.getPrice());
-        cart.getItems().put(item1, detail1);
-        cart.getItems().put(item2, detail2);
+        cart.getItems().put(item1.getId(), detail1);
+        cart.getItems().put(item2.getId(), detail2);
         entityManager.persist(cart);
 
         // Act
@@ -89,6 +62,47 @@ class OrderRepositoryTest {
         assertNotNull(savedOrder.getId());
         assertEquals(cart.getId(), savedOrder.getSession().getId());
         assertEquals(2, savedOrder.getItems().size());
+        assertEquals(new BigDecimal("5.00"), savedOrder.getTotalCost().setScale(2));
+        assertEquals(3, savedOrder.getItemCount());
+    }
+
+    @Test
+    @Transactional
+    void findSummariesBySessionId_shouldReturnNewestFirstInOneQuery() {
+        // Arrange
+        ItemEntity item = entityManager.persist(new ItemEntity("title1", "desc1", "img1.jpg", BigDecimal.TEN));
+        CartEntity cart = entityManager.persist(new CartEntity("1"));
+        CartEntity otherCart = entityManager.persist(new CartEntity("2"));
+
+        OrderEntity[] orders = new OrderEntity[3];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new OrderEntity(cart);
+            orders[i].getItems().put(item.getId(), new OrderItemEntity(orders[i], item, i + 1, item.getPrice()));
+            entityManager.persist(orders[i]);
+        }
+        entityManager.persist(new OrderEntity(otherCart));
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        Slice<OrderSummary> firstPage = orderRepository.findSummariesBySessionId("1", PageRequest.of(0, 2));
+
+        // Assert
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(firstPage.hasNext());
+        assertEquals(2, firstPage.getNumberOfElements());
+        OrderSummary newest = firstPage.getContent().get(0);
+        assertEquals(orders[2].getId(), newest.id());
+        assertEquals(3, newest.itemCount());
+        assertEquals(new BigDecimal("30.00"), newest.totalCost());
+        assertEquals(orders[1].getId(), firstPage.getContent().get(1).id());
+
+        Slice<OrderSummary> lastPage = orderRepository.findSummariesBySessionId("1", PageRequest.of(1, 2));
+        assertFalse(lastPage.hasNext());
+        assertEquals(List.of(new OrderSummary(orders[0].getId(), new BigDecimal("10.00"), 1)), lastPage.getContent());
     }
 
     @Test
@@ -101,7 +115,7 @@ class OrderRepositoryTest {
         entityManager.persist(item);
 
         CartItemEntity cartDetail = new CartItemEntity(cart, item, 1, item.getPrice());
-        cart.getItems().put(item, cartDetail);
+        cart.getItems().put(item.getId(), cartDetail);
         entityManager.persist(cart);
 
         // Act
@@ -0,0 +1,84 @@
+package yandex.practicum.market.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionsTest {
+
+    private final Completions completions = Completions.of(
+            Map.of(
+                    1L, "Мяч футбольный",
+                    2L, "Мяч теннисный",
+                    3L, "Мышь компьютерная",
+                    4L, "Мяч баскетбольный",
+                    5L, "Стол"
+            ),
+            Map.of(2L, 5L, 4L, 10L)
+    );
+
+    @Test
+    void top_shouldReturnMostPopularTitlesWithPrefix() {
+        // Act
+        List<String> result = completions.top("мяч", 10);
+
+        // Assert
+        assertEquals(List.of("Мяч баскетбольный", "Мяч теннисный", "Мяч футбольный"), result);
+    }
+
+    @Test
+    void top_shouldRespectLimit() {
+        // Act & Assert
+        assertEquals(List.of("Мяч баскетбольный", "Мяч теннисный"), completions.top("М", 2));
+    }
+
+    @Test
+    void top_shouldReturnEmptyListWhenNothingMatches() {
+        // Act & Assert
+        assertTrue(completions.top("лампа", 10).isEmpty());
+        assertTrue(Completions.EMPTY.top("мяч", 10).isEmpty());
+    }
+
+    @Test
+    void top_shouldReturnEachTitleOnce() {
+        // Arrange
+        Completions duplicates = Completions.of(Map.of(1L, "Зонт", 2L, "зонт", 3L, "Зонтик"), Map.of());
+
+        // Act & Assert
+        assertEquals(List.of("Зонт", "Зонтик"), duplicates.top("зон", 10));
+    }
+
+    @Test
+    void with_shouldRenameItemAndKeepPopularity() {
+        // Act
+        Completions renamed = completions.with(4L, "Стул");
+
+        // Assert
+        assertEquals(5, renamed.size());
+        assertEquals(List.of("Мяч теннисный", "Мяч футбольный"), renamed.top("мяч", 10));
+        assertEquals(List.of("Стул", "Стол"), renamed.top("ст", 10));
+        assertEquals(3, completions.top("мяч", 10).size());
+    }
+
+    @Test
+    void with_shouldAddNewItem() {
+        // Act
+        Completions added = completions.with(6L, "Мяч волейбольный");
+
+        // Assert
+        assertEquals(6, added.size());
+        assertEquals(4, added.top("мяч", 10).size());
+    }
+
+    @Test
+    void withSales_shouldRaisePopularity() {
+        // Act
+        Completions updated = completions.withSales(Map.of(1L, 20));
+
+        // Assert
+        assertEquals(List.of("Мяч футбольный", "Мяч баскетбольный", "Мяч теннисный"), updated.top("мяч", 10));
+    }
+}
@@ -0,0 +1,83 @@
+package yandex.practicum.market.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    @Test
+    void tokenize_shouldSplitByNonLetterCharactersAndLowercase() {
+        // Act
+        Set<String> tokens = SearchTokenizer.tokenize("Красный Мяч, size-XL title1");
+
+        // Assert
+        assertEquals(List.of("красный", "мяч", "size", "xl", "title1"), List.copyOf(tokens));
+    }
+
+    @Test
+    void trigrams_shouldReturnAllSubstringsOfLengthThree() {
+        // Act & Assert
+        assertEquals(List.of("red", "ed ", "d b", " ba", "bal", "all"), List.copyOf(SearchTokenizer.trigrams("red ball")));
+        assertTrue(SearchTokenizer.trigrams("ab").isEmpty());
+    }
+
+    @Test
+    void builder_shouldKeepPostingListsSortedAndUnique() {
+        // Arrange
+        InvertedIndex index = InvertedIndex.builder()
+                .add(3L, Set.of("ball"))
+                .add(1L, Set.of("ball", "red"))
+                .add(3L, Set.of("ball"))
+                .build();
+
+        // Act & Assert
+        assertArrayEquals(new long[]{1L, 3L}, index.get("ball"));
+        assertArrayEquals(new long[]{1L}, index.get("red"));
+        assertArrayEquals(new long[0], index.get("blue"));
+    }
+
+    @Test
+    void search_shouldIntersectPostingListsOfAllTokens() {
+        // Arrange
+        InvertedIndex index = new InvertedIndex();
+        index.add(1L, Set.of("red", "ball"));
+        index.add(2L, Set.of("blue", "ball"));
+        index.add(3L, Set.of("red", "cube"));
+
+        // Act & Assert
+        assertArrayEquals(new long[]{1L}, index.search(List.of("red", "ball")));
+        assertArrayEquals(new long[]{1L, 2L}, index.search(List.of("ball")));
+        assertArrayEquals(new long[0], index.search(List.of("red", "green")));
+    }
+
+    @Test
+    void remove_shouldDropIdAndEmptyTerms() {
+        // Arrange
+        InvertedIndex index = new InvertedIndex();
+        index.add(1L, Set.of("red", "ball"));
+        index.add(2L, Set.of("ball"));
+
+        // Act
+        index.remove(1L, Set.of("red", "ball"));
+
+        // Assert
+        assertArrayEquals(new long[]{2L}, index.get("ball"));
+        assertFalse(index.terms().contains("red"));
+    }
+
+    @Test
+    void longArrays_shouldInsertRemoveAndIntersectSortedArrays() {
+        long[] ids = LongArrays.insert(null, 5L);
+        ids = LongArrays.insert(ids, 1L);
+        ids = LongArrays.insert(ids, 3L);
+        ids = LongArrays.insert(ids, 3L);
+
+        assertArrayEquals(new long[]{1L, 3L, 5L}, ids);
+        assertArrayEquals(new long[]{1L, 5L}, LongArrays.remove(ids, 3L));
+        assertArrayEquals(new long[]{3L, 5L}, LongArrays.intersect(ids, new long[]{2L, 3L, 4L, 5L}));
+    }
+}
@@ -0,0 +1,30 @@
+package yandex.practicum.market.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemDocumentTest {
+
+    @Test
+    void comparator_shouldOrderTitlesByRussianCollation() {
+        // Arrange
+        List<ItemDocument> documents = new ArrayList<>(List.of(
+                new ItemDocument(1L, "яблоко", "", BigDecimal.ONE),
+                new ItemDocument(2L, "Банан", "", BigDecimal.ONE),
+                new ItemDocument(3L, "арбуз", "", BigDecimal.ONE),
+                new ItemDocument(4L, "арбуз", "", BigDecimal.ONE)
+        ));
+
+        // Act
+        documents.sort(ItemDocument.comparator(Sort.by("title")));
+
+        // Assert
+        assertEquals(List.of(3L, 4L, 2L, 1L), documents.stream().map(ItemDocument::id).toList());
+    }
+}
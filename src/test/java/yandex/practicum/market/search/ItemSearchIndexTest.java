@@ -0,0 +1,172 @@
+package yandex.practicum.market.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import yandex.practicum.market.entity.ItemEntity;
+import yandex.practicum.market.repository.ItemRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private ItemSearchIndex searchIndex;
+
+    @Test
+    void isSearchable_shouldBeFalseUntilIndexIsBuilt() {
+        assertFalse(searchIndex.isSearchable("ball"));
+    }
+
+    @Test
+    void rebuild_shouldFindSubstringsOfTitleAndDescription() {
+        // Arrange
+        when(itemRepository.findAllDocuments()).thenReturn(List.of(
+                new ItemDocument(1L, "Red ball", "Rubber toy", BigDecimal.ONE),
+                new ItemDocument(2L, "Blue ball", "Leather", BigDecimal.TWO)
+        ));
+
+        // Act
+        searchIndex.rebuild();
+
+        // Assert
+        assertTrue(searchIndex.isSearchable("ball"));
+        assertEquals(List.of(1L, 2L), ids(searchIndex.search("BALL")));
+        assertEquals(List.of(1L), ids(searchIndex.search("ubbe")));
+        assertEquals(List.of(2L), ids(searchIndex.search("e bal")));
+        assertEquals(List.of(), ids(searchIndex.search("green")));
+    }
+
+    @Test
+    void search_shouldNotMatchTrigramsSpreadAcrossTitleAndDescription() {
+        // Arrange
+        when(itemRepository.findAllDocuments()).thenReturn(List.of(
+                new ItemDocument(1L, "abc", "def", BigDecimal.ONE)
+        ));
+        searchIndex.rebuild();
+
+        // Act & Assert
+        assertEquals(List.of(), ids(searchIndex.search("abcdef")));
+        assertEquals(List.of(1L), ids(searchIndex.search("def")));
+    }
+
+    @Test
+    void search_shouldScanDocumentsForQueriesShorterThanTrigram() {
+        // Arrange
+        when(itemRepository.findAllDocuments()).thenReturn(List.of(
+                new ItemDocument(2L, "Мяч", "Резина", BigDecimal.ONE),
+                new ItemDocument(1L, "Стол", "Дерево", BigDecimal.TWO)
+        ));
+        searchIndex.rebuild();
+
+        // Act & Assert
+        assertEquals(List.of(1L, 2L), ids(searchIndex.search("е")));
+        assertEquals(List.of(2L), ids(searchIndex.search("МЯ")));
+    }
+
+    @Test
+    void index_shouldReplaceTokensOfUpdatedItem() {
+        // Arrange
+        when(itemRepository.findAllDocuments()).thenReturn(List.of());
+        searchIndex.rebuild();
+
+        // Act
+        searchIndex.index(new ItemEntity(1L, "Red ball", "toy", null, BigDecimal.ONE));
+        searchIndex.index(new ItemEntity(1L, "Blue cube", "toy", null, BigDecimal.ONE));
+
+        // Assert
+        assertEquals(List.of(), ids(searchIndex.search("ball")));
+        assertEquals(List.of(1L), ids(searchIndex.search("cube")));
+        assertEquals(List.of(1L), ids(searchIndex.search("lue c")));
+    }
+
+    @Test
+    void searchFuzzy_shouldMatchEveryQueryWordWithTypos() {
+        // Arrange
+        when(itemRepository.findAllDocuments()).thenReturn(List.of(
+                new ItemDocument(1L, "Футбольный мяч", "Резина", BigDecimal.ONE),
+                new ItemDocument(2L, "Теннисный мяч", "Войлок", BigDecimal.TWO),
+                new ItemDocument(3L, "Стол", "Дерево", BigDecimal.TEN)
+        ));
+        searchIndex.rebuild();
+
+        // Act & Assert
+        assertEquals(List.of(), ids(searchIndex.search("футбольнй мячь")));
+        assertEquals(List.of(1L), ids(searchIndex.searchFuzzy("футбольнй мячь")));
+        assertEquals(List.of(1L, 2L), ids(searchIndex.searchFuzzy("меч")));
+        assertEquals(List.of(3L), ids(searchIndex.searchFuzzy("стл")));
+        assertEquals(List.of(), ids(searchIndex.searchFuzzy("лампа")));
+    }
+
+    @Test
+    void searchFuzzy_shouldUseTermsOfIndexedItems() {
+        // Arrange
+        when(itemRepository.findAllDocuments()).thenReturn(List.of());
+        searchIndex.rebuild();
+
+        // Act
+        searchIndex.index(new ItemEntity(1L, "Red ball", "toy", null, BigDecimal.ONE));
+        searchIndex.index(new ItemEntity(1L, "Blue cube", "toy", null, BigDecimal.ONE));
+
+        // Assert
+        assertEquals(List.of(1L), ids(searchIndex.searchFuzzy("cuve")));
+        assertEquals(List.of(), ids(searchIndex.searchFuzzy("bal")));
+    }
+
+    @Test
+    void rank_shouldPutTitleMatchesAndRareTermsFirst() {
+        // Arrange
+        List<ItemDocument> documents = List.of(
+                new ItemDocument(1L, "Стол", "Подставка под мяч", BigDecimal.ONE),
+                new ItemDocument(2L, "Мяч", "Резиновый", BigDecimal.ONE),
+                new ItemDocument(3L, "Футбольный мяч", "Кожаный", BigDecimal.ONE),
+                new ItemDocument(4L, "Лампа", "Настольная", BigDecimal.ONE)
+        );
+        when(itemRepository.findAllDocuments()).thenReturn(documents);
+        searchIndex.rebuild();
+
+        // Act & Assert
+        assertEquals(List.of(2L, 3L, 1L), ids(searchIndex.rank("мяч", searchIndex.search("мяч"), 10)));
+        assertEquals(List.of(3L, 2L), ids(searchIndex.rank("футбольный мяч", searchIndex.search("мяч"), 2)));
+        assertEquals(List.of(1L), ids(searchIndex.rank("подставка", searchIndex.search("подставка"), 1)));
+    }
+
+    @Test
+    void rank_shouldScoreMisspelledWordsBySimilarTerms() {
+        // Arrange
+        when(itemRepository.findAllDocuments()).thenReturn(List.of(
+                new ItemDocument(1L, "Стол", "Дерево", BigDecimal.ONE),
+                new ItemDocument(2L, "Мяч", "Резина", BigDecimal.ONE)
+        ));
+        searchIndex.rebuild();
+        List<ItemDocument> hits = List.of(
+                new ItemDocument(1L, "Стол", "Дерево", BigDecimal.ONE),
+                new ItemDocument(2L, "Мяч", "Резина", BigDecimal.ONE)
+        );
+
+        // Act & Assert
+        assertEquals(List.of(2L, 1L), ids(searchIndex.rank("резна", hits, 10)));
+        assertEquals(List.of(), ids(searchIndex.rank("резна", hits, 0)));
+    }
+
+    @Test
+    void maxEdits_shouldDependOnWordLength() {
+        assertEquals(0, ItemSearchIndex.maxEdits("мя"));
+        assertEquals(1, ItemSearchIndex.maxEdits("мяч"));
+        assertEquals(2, ItemSearchIndex.maxEdits("футбол"));
+    }
+
+    private static List<Long> ids(List<ItemDocument> documents) {
+        return documents.stream().map(ItemDocument::id).toList();
+    }
+}
@@ -0,0 +1,50 @@
+package yandex.practicum.market.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermDictionaryTest {
+
+    private final TermDictionary dictionary = TermDictionary.of(
+            List.of("мяч", "мячик", "меч", "мат", "стол", "стул", "столик", "рюкзак")
+    );
+
+    @Test
+    void search_shouldFindTermsWithinDistance() {
+        // Act & Assert
+        assertEquals(Set.of("мяч"), Set.copyOf(dictionary.search("мяч", 0)));
+        assertEquals(Set.of("мяч", "меч"), Set.copyOf(dictionary.search("мяч", 1)));
+        assertEquals(Set.of("мяч", "меч", "мат", "мячик"), Set.copyOf(dictionary.search("мяч", 2)));
+    }
+
+    @Test
+    void search_shouldHandleInsertionsDeletionsAndSubstitutions() {
+        // Act & Assert
+        assertEquals(List.of("рюкзак"), dictionary.search("рюкзк", 1));
+        assertEquals(List.of("рюкзак"), dictionary.search("рюкзаак", 1));
+        assertEquals(List.of("рюкзак"), dictionary.search("рюгзак", 1));
+        assertEquals(List.of("рюкзак"), dictionary.search("рюзкак", 2));
+        assertTrue(dictionary.search("рюзкак", 1).isEmpty());
+    }
+
+    @Test
+    void search_shouldReturnNothingForEmptyDictionary() {
+        assertTrue(TermDictionary.EMPTY.search("мяч", 2).isEmpty());
+    }
+
+    @Test
+    void with_shouldAddOnlyNewTerms() {
+        // Act
+        TermDictionary updated = dictionary.with(List.of("мяч", "лампа"));
+
+        // Assert
+        assertEquals(9, updated.size());
+        assertEquals(List.of("лампа"), updated.search("лампы", 1));
+        assertSame(dictionary, dictionary.with(List.of("мяч", "стол")));
+        assertEquals(8, dictionary.size());
+    }
+}
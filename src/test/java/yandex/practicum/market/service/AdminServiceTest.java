@@ -5,8 +5,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import yandex.practicum.market.cache.ItemCache;
+import yandex.practicum.market.catalog.Catalog;
 import yandex.practicum.market.entity.ItemEntity;
 import yandex.practicum.market.repository.ItemRepository;
+import yandex.practicum.market.search.ItemSearchIndex;
+import yandex.practicum.market.search.ItemSuggestIndex;
 
 import java.math.BigDecimal;
 
@@ -19,6 +23,18 @@ class AdminServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private Catalog catalog;
+
+    @Mock
+    private ItemCache itemCache;
+
+    @Mock
+    private ItemSuggestIndex suggestIndex;
+
     @InjectMocks
     private AdminService adminService;
 
@@ -42,6 +58,10 @@ class AdminServiceTest {
         assertEquals(BigDecimal.ONE, result.getPrice());
 
         verify(itemRepository, times(1)).save(inputItem);
+        verify(searchIndex, times(1)).index(savedItem);
+        verify(suggestIndex, times(1)).index(savedItem);
+        verify(itemCache, times(1)).invalidate(1L);
+        verify(catalog, times(1)).apply(savedItem);
     }
 
     @Test
@@ -56,6 +76,7 @@ class AdminServiceTest {
         assertThrows(RuntimeException.class, () -> adminService.saveItem(inputItem));
 
         verify(itemRepository, times(1)).save(inputItem);
+        verifyNoInteractions(searchIndex, catalog, itemCache, suggestIndex);
     }
 
     @Test
@@ -78,5 +99,7 @@ class AdminServiceTest {
         assertEquals(BigDecimal.TWO, result.getPrice());
 
         verify(itemRepository, times(1)).save(existingItem);
+        verify(searchIndex, times(1)).index(updatedItem);
+        verify(catalog, times(1)).apply(updatedItem);
     }
 }
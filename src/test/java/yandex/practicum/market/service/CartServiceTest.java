@@ -5,14 +5,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import yandex.practicum.market.cart.CartMutation;
+import yandex.practicum.market.dto.CartLine;
+import yandex.practicum.market.dto.CartQuantities;
+import yandex.practicum.market.dto.CartQuantity;
 import yandex.practicum.market.entity.CartEntity;
-import yandex.practicum.market.entity.CartItemEntity;
 import yandex.practicum.market.entity.ItemEntity;
 import yandex.practicum.market.repository.CartItemRepository;
 import yandex.practicum.market.repository.CartRepository;
 import yandex.practicum.market.types.ActionType;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -57,170 +61,155 @@ class CartServiceTest {
     }
 
     @Test
-    void updateCart_shouldIncreaseQuantityWhenActionIsPlusAndDetailExists() {
+    void updateQuantity_shouldIncrementWithoutLoadingCartWhenActionIsPlus() {
         // Arrange
-        CartEntity cart = new CartEntity(1L, "1");
         ItemEntity item = new ItemEntity(1L, "title1", "desc1", "img1.jpg", BigDecimal.TEN);
-        CartItemEntity cartDetail = new CartItemEntity(cart, item, 1, BigDecimal.TEN);
-        cart.getItems().put(item, cartDetail);
-
-        when(cartRepository.save(cart)).thenReturn(cart);
+        when(cartItemRepository.incrementQuantity(1L, 1L, BigDecimal.TEN)).thenReturn(3);
 
         // Act
-        cartService.updateCart(cart, item, ActionType.PLUS);
+        int result = cartService.updateQuantity(1L, item, ActionType.PLUS);
 
         // Assert
-        assertEquals(2, cartDetail.getQuantity());
-        verify(cartRepository, times(1)).save(cart);
+        assertEquals(3, result);
+        verify(cartRepository, times(1)).incrementVersion(1L);
+        verifyNoMoreInteractions(cartRepository);
     }
 
     @Test
-    void updateCart_shouldDecreaseQuantityWhenActionIsMinusAndQuantityRemainsPositive() {
+    void apply_shouldChangeAllItemsAndIncrementVersionOnce() {
         // Arrange
-        CartEntity cart = new CartEntity(1L, "1");
-        ItemEntity item = new ItemEntity(1L, "title1", "desc1", "img1.jpg", BigDecimal.TEN);
-        CartItemEntity cartDetail = new CartItemEntity(cart, item, 2, BigDecimal.TEN);
-        cart.getItems().put(item, cartDetail);
-
-        when(cartRepository.save(cart)).thenReturn(cart);
+        ItemEntity item1 = new ItemEntity(1L, "title1", "desc1", "img1.jpg", BigDecimal.TEN);
+        ItemEntity item2 = new ItemEntity(2L, "title2", "desc2", "img2.jpg", BigDecimal.ONE);
 
         // Act
-        cartService.updateCart(cart, item, ActionType.MINUS);
+        cartService.apply(1L, List.of(
+                CartMutation.of(item1, ActionType.PLUS),
+                CartMutation.set(item2, 20),
+                CartMutation.set(item1, 0)
+        ));
 
         // Assert
-        assertEquals(1, cartDetail.getQuantity());
-        verify(cartRepository, times(1)).save(cart);
+        verify(cartItemRepository, times(1)).incrementQuantity(1L, 1L, BigDecimal.TEN);
+        verify(cartItemRepository, times(1)).setQuantity(1L, 2L, 20, BigDecimal.ONE);
+        verify(cartItemRepository, times(1)).deleteItem(1L, 1L);
+        verify(cartRepository, times(1)).incrementVersion(1L);
     }
 
     @Test
-    void updateCart_shouldRemoveDetailWhenActionIsMinusAndQuantityBecomesZero() {
+    void updateQuantity_shouldDecrementWhenActionIsMinusAndQuantityRemainsPositive() {
         // Arrange
-        CartEntity cart = new CartEntity(1L, "1");
         ItemEntity item = new ItemEntity(1L, "title1", "desc1", "img1.jpg", BigDecimal.TEN);
-        CartItemEntity cartDetail = new CartItemEntity(cart, item, 1, BigDecimal.TEN);
-        cart.getItems().put(item, cartDetail);
-
-        when(cartRepository.save(cart)).thenReturn(cart);
+        when(cartItemRepository.decrementQuantity(1L, 1L)).thenReturn(Optional.of(1));
 
         // Act
-        cartService.updateCart(cart, item, ActionType.MINUS);
+        int result = cartService.updateQuantity(1L, item, ActionType.MINUS);
 
         // Assert
-        assertFalse(cart.getItems().containsKey(item));
-        verify(cartRepository, times(1)).save(cart);
+        assertEquals(1, result);
+        verify(cartItemRepository, never()).deleteLastUnit(anyLong(), anyLong());
     }
 
     @Test
-    void updateCart_shouldRemoveDetailWhenActionIsDelete() {
+    void updateQuantity_shouldDeleteLastUnitWhenActionIsMinus() {
         // Arrange
-        CartEntity cart = new CartEntity(1L, "1");
         ItemEntity item = new ItemEntity(1L, "title1", "desc1", "img1.jpg", BigDecimal.TEN);
-        CartItemEntity cartDetail = new CartItemEntity(cart, item, 2, BigDecimal.TEN);
-        cart.getItems().put(item, cartDetail);
-
-        when(cartRepository.save(cart)).thenReturn(cart);
+        when(cartItemRepository.decrementQuantity(1L, 1L)).thenReturn(Optional.empty());
+        when(cartItemRepository.deleteLastUnit(1L, 1L)).thenReturn(1);
 
         // Act
-        cartService.updateCart(cart, item, ActionType.DELETE);
+        int result = cartService.updateQuantity(1L, item, ActionType.MINUS);
 
         // Assert
-        assertFalse(cart.getItems().containsKey(item));
-        verify(cartRepository, times(1)).save(cart);
+        assertEquals(0, result);
+        verify(cartItemRepository, times(1)).decrementQuantity(1L, 1L);
     }
 
     @Test
-    void updateCart_shouldAddNewDetailWhenActionIsPlusAndDetailNotExists() {
+    void updateQuantity_shouldDeleteItemWhenActionIsDelete() {
         // Arrange
-        CartEntity cart = new CartEntity(1L, "1");
         ItemEntity item = new ItemEntity(1L, "title1", "desc1", "img1.jpg", BigDecimal.TEN);
 
-        when(cartRepository.save(cart)).thenReturn(cart);
-
         // Act
-        cartService.updateCart(cart, item, ActionType.PLUS);
+        int result = cartService.updateQuantity(1L, item, ActionType.DELETE);
 
         // Assert
-        assertTrue(cart.getItems().containsKey(item));
-        assertEquals(1, cart.getItems().get(item).getQuantity());
-        verify(cartRepository, times(1)).save(cart);
+        assertEquals(0, result);
+        verify(cartItemRepository, times(1)).deleteItem(1L, 1L);
     }
 
     @Test
-    void getOrCreateCartBySessionId_shouldReturnExistingCartBy() {
+    void setQuantity_shouldReplaceQuantityOrDeleteItemWhenZero() {
         // Arrange
-        String sessionId = "1";
-        CartEntity existingCart = new CartEntity(1L, sessionId);
-        when(cartRepository.findBySessionId(sessionId)).thenReturn(Optional.of(existingCart));
+        ItemEntity item = new ItemEntity(1L, "title1", "desc1", "img1.jpg", BigDecimal.TEN);
 
         // Act
-        CartEntity result = cartService.getOrCreateSessionById(sessionId);
+        int set = cartService.setQuantity(1L, item, 20);
+        int deleted = cartService.setQuantity(1L, item, 0);
 
         // Assert
-        assertEquals(existingCart, result);
-        verify(cartRepository, times(1)).findBySessionId(sessionId);
-        verify(cartRepository, never()).save(any());
+        assertEquals(20, set);
+        assertEquals(0, deleted);
+        verify(cartItemRepository, times(1)).setQuantity(1L, 1L, 20, BigDecimal.TEN);
+        verify(cartItemRepository, times(1)).deleteItem(1L, 1L);
     }
 
     @Test
-    void getOrCreateCartBySessionId_shouldCreateNewCartWhenNotExistsBy() {
+    void getOrCreateCartId_shouldReturnExistingCartIdWithoutLoadingCart() {
         // Arrange
-        String sessionId = "1";
-        CartEntity newCart = new CartEntity(sessionId);
-        when(cartRepository.findBySessionId(sessionId)).thenReturn(Optional.empty());
-        when(cartRepository.save(any(CartEntity.class))).thenReturn(newCart);
+        when(cartRepository.findIdBySessionId("1")).thenReturn(Optional.of(5L));
 
         // Act
-        CartEntity result = cartService.getOrCreateSessionById(sessionId);
+        long result = cartService.getOrCreateCartId("1");
 
         // Assert
-        assertNotNull(result);
-        assertEquals(sessionId, result.getSessionId());
-        verify(cartRepository, times(1)).findBySessionId(sessionId);
-        verify(cartRepository, times(1)).save(any(CartEntity.class));
+        assertEquals(5L, result);
+        verify(cartRepository, never()).save(any());
     }
 
     @Test
-    void saveCart_shouldCallRepositorySave() {
+    void getOrCreateCartId_shouldCreateCartWhenSessionHasNone() {
         // Arrange
-        CartEntity cart = new CartEntity("1");
-        when(cartRepository.save(cart)).thenReturn(cart);
+        when(cartRepository.findIdBySessionId("1")).thenReturn(Optional.empty());
+        when(cartRepository.save(any(CartEntity.class))).thenReturn(new CartEntity(5L, "1"));
 
         // Act
-        CartEntity result = cartService.saveSession(cart);
+        long result = cartService.getOrCreateCartId("1");
 
         // Assert
-        assertNotNull(result);
-        verify(cartRepository, times(1)).save(cart);
+        assertEquals(5L, result);
+        verify(cartRepository, times(1)).save(argThat(cart -> "1".equals(cart.getSessionId())));
     }
 
     @Test
-    void getCartTotalCost_BySessionId_shouldReturnSumFromRepository() {
+    void getLines_shouldReturnProjectedLinesWithoutLoadingCart() {
         // Arrange
-        Long cartId = 1L;
-        CartEntity cartEntity = new CartEntity(cartId, "1");
-        BigDecimal expectedSum = new BigDecimal("100.00");
-        when(cartItemRepository.sumTotalCostInCartBySessionId(cartId)).thenReturn(Optional.of(expectedSum));
+        String sessionId = "1";
+        List<CartLine> lines = List.of(new CartLine(1L, "title1", "desc1", "img1.jpg", 2, BigDecimal.TEN));
+        when(cartItemRepository.findLinesBySessionId(sessionId)).thenReturn(lines);
 
         // Act
-        BigDecimal result = cartService.getCartTotalCostBySessionId(cartEntity.getId());
+        List<CartLine> result = cartService.getLines(sessionId);
 
         // Assert
-        assertEquals(expectedSum, result);
-        verify(cartItemRepository, times(1)).sumTotalCostInCartBySessionId(cartId);
+        assertEquals(lines, result);
+        verifyNoInteractions(cartRepository);
     }
 
     @Test
-    void getCartTotalCost_BySessionId_shouldReturnZeroWhenNoDetails() {
+    void getQuantities_shouldIndexProjectedQuantitiesByItemIdWithoutLoadingCart() {
         // Arrange
-        Long cartId = 1L;
-        CartEntity cartEntity = new CartEntity(cartId, "1");
-        when(cartItemRepository.sumTotalCostInCartBySessionId(cartId)).thenReturn(Optional.empty());
+        String sessionId = "1";
+        when(cartItemRepository.findQuantitiesBySessionId(sessionId))
+                .thenReturn(List.of(new CartQuantity(1L, 2), new CartQuantity(3L, 1)));
 
         // Act
-        BigDecimal result = cartService.getCartTotalCostBySessionId(cartEntity.getId());
+        CartQuantities result = cartService.getQuantities(sessionId);
 
         // Assert
-        assertEquals(BigDecimal.ZERO, result);
-        verify(cartItemRepository, times(1)).sumTotalCostInCartBySessionId(cartId);
+        assertEquals(2, result.size());
+        assertEquals(2, result.get(1L));
+        assertEquals(1, result.get(3L));
+        assertEquals(0, result.get(2L));
+        verifyNoInteractions(cartRepository);
     }
 }
@@ -0,0 +1,95 @@
+package yandex.practicum.market.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import yandex.practicum.market.cart.CartLocks;
+import yandex.practicum.market.cart.CartStore;
+import yandex.practicum.market.entity.CartEntity;
+import yandex.practicum.market.entity.OrderEntity;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private CartStore cartStore;
+
+    private final CartLocks cartLocks = spy(new CartLocks(4));
+
+    private CheckoutService checkoutService;
+
+    @BeforeEach
+    void setUp() {
+        checkoutService = new CheckoutService(orderService, cartStore, cartLocks, 3);
+    }
+
+    @Test
+    void checkout_shouldRetryWhenCartChangedConcurrently() {
+        // Arrange
+        OrderEntity order = new OrderEntity(new CartEntity(1L, "s1"));
+        when(orderService.checkout("s1"))
+                .thenThrow(new OptimisticLockingFailureException("cart version changed"))
+                .thenReturn(order);
+
+        // Act
+        OrderEntity result = checkoutService.checkout("s1");
+
+        // Assert
+        assertSame(order, result);
+        InOrder inOrder = inOrder(cartStore, orderService);
+        inOrder.verify(cartStore).flush("s1");
+        inOrder.verify(orderService, times(2)).checkout("s1");
+        inOrder.verify(cartStore).evict("s1");
+        verify(cartLocks, times(1)).withLock(eq("s1"), any());
+    }
+
+    @Test
+    void checkout_shouldMakeClicksWaitUntilCartIsEvicted() throws InterruptedException {
+        // Arrange
+        when(orderService.checkout("s1")).thenReturn(new OrderEntity(new CartEntity(1L, "s1")));
+        // Во время сброса корзины нажатие той же сессии пытается ее изменить
+        Thread click = new Thread(() -> cartLocks.withLock("s1", () -> null));
+        AtomicBoolean clickWaitedForEvict = new AtomicBoolean();
+        doAnswer(invocation -> {
+            click.start();
+            click.join(100);
+            return null;
+        }).when(cartStore).flush("s1");
+        doAnswer(invocation -> {
+            clickWaitedForEvict.set(click.isAlive());
+            return null;
+        }).when(cartStore).evict("s1");
+
+        // Act
+        checkoutService.checkout("s1");
+        click.join();
+
+        // Assert
+        assertTrue(clickWaitedForEvict.get());
+    }
+
+    @Test
+    void checkout_shouldGiveUpAfterMaxAttempts() {
+        // Arrange
+        when(orderService.checkout("s1")).thenThrow(new OptimisticLockingFailureException("cart version changed"));
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> checkoutService.checkout("s1"));
+        verify(orderService, times(3)).checkout("s1");
+        verify(cartStore, never()).evict("s1");
+    }
+}
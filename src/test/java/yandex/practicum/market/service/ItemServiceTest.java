@@ -5,22 +5,43 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import yandex.practicum.market.cache.ItemCache;
+import yandex.practicum.market.cache.ItemSearchCache;
+import yandex.practicum.market.catalog.Catalog;
+import yandex.practicum.market.catalog.CatalogItem;
+import yandex.practicum.market.catalog.CatalogSnapshot;
+import yandex.practicum.market.dto.CursorPage;
+import yandex.practicum.market.dto.ItemView;
+import yandex.practicum.market.dto.PageCursor;
+import yandex.practicum.market.dto.PriceFacet;
+import yandex.practicum.market.dto.PriceRange;
 import yandex.practicum.market.entity.ItemEntity;
 import yandex.practicum.market.repository.ItemRepository;
+import yandex.practicum.market.search.ItemDocument;
+import yandex.practicum.market.search.ItemSearchIndex;
+import yandex.practicum.market.types.SortType;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +50,18 @@ class ItemServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private ItemSearchCache searchCache;
+
+    @Mock
+    private ItemCache itemCache;
+
+    @Mock
+    private Catalog catalog;
+
     @InjectMocks
     private ItemService itemService;
 
@@ -36,33 +69,343 @@ class ItemServiceTest {
     void getItems_shouldReturnPageOfItems() {
         // Подготовка тестовых данных
         ItemEntity testItem = new ItemEntity(1L, "title1", "desc1", "image1.jpg", BigDecimal.valueOf(1));
-        Page<ItemEntity> expectedPage = new PageImpl<>(Collections.singletonList(testItem));
+        Slice<ItemView> expectedPage = new SliceImpl<>(Collections.singletonList(ItemView.of(testItem)));
 
-        when(itemRepository.findAllBySearchTerm(anyString(), any(Pageable.class))).thenReturn(expectedPage);
+        when(itemRepository.findSliceBySearchTerm(anyString(), any(Pageable.class))).thenReturn(expectedPage);
 
         // Тестируемое действие
-        Page<ItemEntity> result = itemService.getItems("test", Pageable.unpaged());
+        Slice<ItemEntity> result = itemService.getItems("test", Pageable.unpaged());
 
         // Проверка результатов
         assertNotNull(result);
-        assertEquals(1, result.getTotalElements());
+        assertEquals(1, result.getNumberOfElements());
         assertEquals(testItem, result.getContent().get(0));
+        verify(itemRepository, never()).findAllBySearchTerm(anyString(), any(Pageable.class));
     }
 
     @Test
     void getItems_withNullSearchTerm_shouldReturnPageOfItems() {
         // Подготовка тестовых данных
         ItemEntity testItem = new ItemEntity(1L, "title1", "desc1", "image1.jpg", BigDecimal.valueOf(1));
-        Page<ItemEntity> expectedPage = new PageImpl<>(Collections.singletonList(testItem));
+        Slice<ItemView> expectedPage = new SliceImpl<>(Collections.singletonList(ItemView.of(testItem)));
         //
-        when(itemRepository.findAllBySearchTerm(nullable(String.class), any(Pageable.class))).thenReturn(expectedPage);
+        when(itemRepository.findSliceBy(any(Pageable.class))).thenReturn(expectedPage);
 
         // Тестируемое действие
-        Page<ItemEntity> result = itemService.getItems(null, Pageable.unpaged());
+        Slice<ItemEntity> result = itemService.getItems(null, Pageable.unpaged());
 
         // Проверка результатов
         assertNotNull(result);
-        assertEquals(1, result.getTotalElements());
+        assertEquals(1, result.getNumberOfElements());
+    }
+
+    @Test
+    void getItems_shouldResolveSearchTermByIndexAndLoadOnlyPageItems() {
+        // Подготовка тестовых данных
+        searchThroughCache();
+        ItemDocument document1 = new ItemDocument(1L, "b title", "desc1", BigDecimal.valueOf(1));
+        ItemDocument document2 = new ItemDocument(2L, "a title", "desc2", BigDecimal.valueOf(2));
+        ItemDocument document3 = new ItemDocument(3L, "c title", "desc3", BigDecimal.valueOf(3));
+        ItemEntity item2 = new ItemEntity(2L, "a title", "desc2", "image2.jpg", BigDecimal.valueOf(2));
+        ItemEntity item1 = new ItemEntity(1L, "b title", "desc1", "image1.jpg", BigDecimal.valueOf(1));
+
+        when(searchIndex.isSearchable("title")).thenReturn(true);
+        when(searchIndex.search("title")).thenReturn(new ArrayList<>(List.of(document1, document2, document3)));
+        when(itemRepository.findViewsByIdIn(List.of(2L, 1L))).thenReturn(List.of(ItemView.of(item1), ItemView.of(item2)));
+
+        // Тестируемое действие
+        Slice<ItemEntity> result = itemService.getItems("title", PageRequest.of(0, 2, Sort.by("title")));
+
+        // Проверка результатов
+        assertEquals(List.of(item2, item1), result.getContent());
+        assertTrue(result.hasNext());
+        verify(itemRepository, never()).findSliceBySearchTerm(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void getItems_whenExactSearchFindsNothing_shouldFallBackToFuzzySearch() {
+        // Подготовка тестовых данных
+        searchThroughCache();
+        ItemDocument document = new ItemDocument(1L, "Мяч", "desc1", BigDecimal.ONE);
+        ItemEntity item = new ItemEntity(1L, "Мяч", "desc1", null, BigDecimal.ONE);
+
+        when(searchIndex.isSearchable("мчя")).thenReturn(true);
+        when(searchIndex.search("мчя")).thenReturn(new ArrayList<>());
+        when(searchIndex.searchFuzzy("мчя")).thenReturn(List.of(document));
+        when(itemRepository.findViewsByIdIn(List.of(1L))).thenReturn(List.of(ItemView.of(item)));
+
+        // Тестируемое действие
+        Slice<ItemEntity> result = itemService.getItems("мчя", PageRequest.of(0, 10));
+
+        // Проверка результатов
+        assertEquals(List.of(item), result.getContent());
+        verify(searchIndex, times(1)).searchFuzzy("мчя");
+    }
+
+    @Test
+    void getItems_sortedByRelevance_shouldRankOnlyRequestedPages() {
+        // Подготовка тестовых данных
+        searchThroughCache();
+        ItemDocument document1 = new ItemDocument(1L, "title", "desc1", BigDecimal.valueOf(1));
+        ItemDocument document2 = new ItemDocument(2L, "title title", "desc2", BigDecimal.valueOf(2));
+        ItemDocument document3 = new ItemDocument(3L, "other", "title", BigDecimal.valueOf(3));
+        ItemEntity item1 = new ItemEntity(1L, "title", "desc1", null, BigDecimal.valueOf(1));
+        List<ItemDocument> hits = List.of(document1, document2, document3);
+
+        when(searchIndex.isSearchable("title")).thenReturn(true);
+        when(searchIndex.search("title")).thenReturn(hits);
+        when(searchIndex.rank("title", hits, 2)).thenReturn(List.of(document2, document1));
+        when(itemRepository.findViewsByIdIn(List.of(1L))).thenReturn(List.of(ItemView.of(item1)));
+
+        // Тестируемое действие
+        Slice<ItemEntity> result = itemService.getItems("title", PageRequest.of(1, 1, SortType.toSort(SortType.RELEVANCE)));
+
+        // Проверка результатов
+        assertEquals(List.of(item1), result.getContent());
+        assertTrue(result.hasNext());
+    }
+
+    @Test
+    void getItems_sortedByRelevanceBeforeIndexIsBuilt_shouldQueryWithoutSort() {
+        // Подготовка тестовых данных
+        Slice<ItemView> page = new SliceImpl<>(List.of());
+        when(searchIndex.isSearchable("title")).thenReturn(false);
+        when(itemRepository.findSliceBySearchTerm("title", PageRequest.of(0, 10))).thenReturn(page);
+
+        // Тестируемое действие
+        Slice<ItemEntity> result = itemService.getItems("title", PageRequest.of(0, 10, SortType.toSort(SortType.RELEVANCE)));
+
+        // Проверка результатов
+        assertTrue(result.getContent().isEmpty());
+    }
+
+    @Test
+    void getItems_withCachedWindow_shouldLoadOnlyCachedIds() {
+        // Подготовка тестовых данных
+        Pageable pageable = PageRequest.of(1, 2, Sort.by("title"));
+        ItemSearchCache.Key key = new ItemSearchCache.Key(0L, "title", pageable.getSort(), 2, 2);
+        ItemEntity item1 = new ItemEntity(1L, "b title", "desc1", "image1.jpg", BigDecimal.valueOf(1));
+        ItemEntity item2 = new ItemEntity(2L, "a title", "desc2", "image2.jpg", BigDecimal.valueOf(2));
+
+        when(searchCache.key("Title", pageable)).thenReturn(key);
+        when(searchCache.get(key)).thenReturn(new ItemSearchCache.Window(List.of(2L, 1L), false));
+        when(itemRepository.findViewsByIdIn(List.of(2L, 1L))).thenReturn(List.of(ItemView.of(item1), ItemView.of(item2)));
+
+        // Тестируемое действие
+        Slice<ItemEntity> result = itemService.getItems("Title", pageable);
+
+        // Проверка результатов
+        assertEquals(List.of(item2, item1), result.getContent());
+        assertFalse(result.hasNext());
+        assertTrue(result.hasPrevious());
+        verify(searchIndex, never()).search(anyString());
+        verify(itemRepository, never()).findSliceBySearchTerm(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void getItems_onCacheMiss_shouldStoreOrderedIds() {
+        // Подготовка тестовых данных
+        Pageable pageable = PageRequest.of(0, 1);
+        ItemSearchCache.Key key = new ItemSearchCache.Key(0L, "", pageable.getSort(), 0, 1);
+        ItemEntity item = new ItemEntity(7L, "title", "desc", "image.jpg", BigDecimal.ONE);
+
+        when(searchCache.key(null, pageable)).thenReturn(key);
+        when(itemRepository.findSliceBy(any(Pageable.class))).thenReturn(new SliceImpl<>(List.of(ItemView.of(item)), pageable, true));
+
+        // Тестируемое действие
+        itemService.getItems(null, pageable);
+
+        // Проверка результатов
+        verify(searchCache).put(key, new ItemSearchCache.Window(List.of(7L), true));
+    }
+
+    @Test
+    void getItems_withBlankSearchTerm_shouldNotUseIndex() {
+        // Подготовка тестовых данных
+        Slice<ItemView> expectedPage = new SliceImpl<>(Collections.emptyList());
+        when(itemRepository.findSliceBy(any(Pageable.class))).thenReturn(expectedPage);
+
+        // Тестируемое действие
+        Slice<ItemEntity> result = itemService.getItems("  ", Pageable.unpaged());
+
+        // Проверка результатов
+        assertEquals(expectedPage, result);
+        verify(searchIndex, never()).search(anyString());
+        verify(itemRepository, never()).findSliceBySearchTerm(nullable(String.class), any(Pageable.class));
+    }
+
+    @Test
+    void getItems_browseWithoutSnapshot_shouldOrderByIndexKeyAndId() {
+        // Подготовка тестовых данных
+        Slice<ItemView> expectedPage = new SliceImpl<>(Collections.emptyList());
+        when(itemRepository.findSliceBy(PageRequest.of(1, 5, Sort.by("title").and(Sort.by("id"))))).thenReturn(expectedPage);
+
+        // Тестируемое действие
+        Slice<ItemEntity> result = itemService.getItems("", PageRequest.of(1, 5, SortType.toSort(SortType.ALPHA)));
+
+        // Проверка результатов
+        assertEquals(expectedPage, result);
+    }
+
+    @Test
+    void getItems_withNextCursor_shouldSeekAfterCursorKey() {
+        // Подготовка тестовых данных
+        ItemEntity cursorItem = new ItemEntity(2L, "b", "desc2", "image2.jpg", BigDecimal.valueOf(2));
+        ItemEntity item3 = new ItemEntity(3L, "c", "desc3", "image3.jpg", BigDecimal.valueOf(3));
+        ItemEntity item4 = new ItemEntity(4L, "d", "desc4", "image4.jpg", BigDecimal.valueOf(4));
+        ItemEntity item5 = new ItemEntity(5L, "e", "desc5", "image5.jpg", BigDecimal.valueOf(5));
+        PageCursor cursor = PageCursor.next(SortType.ALPHA, 0, 2, cursorItem);
+
+        when(itemRepository.findAfterTitle("b", 2L, Limit.of(3))).thenReturn(List.of(ItemView.of(item3), ItemView.of(item4), ItemView.of(item5)));
+
+        // Тестируемое действие
+        CursorPage<ItemEntity> result = itemService.getItems("", cursor, 2);
+
+        // Проверка результатов
+        assertEquals(List.of(item3, item4), result.content());
+        assertTrue(result.hasPrevious());
+        assertTrue(result.hasNext());
+        verify(itemRepository, never()).findSliceBySearchTerm(nullable(String.class), any(Pageable.class));
+    }
+
+    @Test
+    void getItems_withPreviousCursor_shouldReturnItemsInSortOrder() {
+        // Подготовка тестовых данных
+        ItemEntity cursorItem = new ItemEntity(3L, "c", "desc3", "image3.jpg", BigDecimal.valueOf(3));
+        ItemEntity item1 = new ItemEntity(1L, "a", "desc1", "image1.jpg", BigDecimal.valueOf(1));
+        ItemEntity item2 = new ItemEntity(2L, "b", "desc2", "image2.jpg", BigDecimal.valueOf(2));
+        PageCursor cursor = PageCursor.previous(SortType.NO, 0, 1, cursorItem);
+
+        when(itemRepository.findByIdLessThanOrderByIdDesc(3L, Limit.of(3))).thenReturn(List.of(ItemView.of(item2), ItemView.of(item1)));
+
+        // Тестируемое действие
+        CursorPage<ItemEntity> result = itemService.getItems(null, cursor, 2);
+
+        // Проверка результатов
+        assertEquals(List.of(item1, item2), result.content());
+        assertFalse(result.hasPrevious());
+        assertTrue(result.hasNext());
+    }
+
+    @Test
+    void getItems_withCursorAndSearchTerm_shouldSliceIndexHitsAfterCursor() {
+        // Подготовка тестовых данных
+        searchThroughCache();
+        ItemDocument document1 = new ItemDocument(1L, "title1", "desc1", BigDecimal.valueOf(30));
+        ItemDocument document2 = new ItemDocument(2L, "title2", "desc2", BigDecimal.valueOf(10));
+        ItemDocument document3 = new ItemDocument(3L, "title3", "desc3", BigDecimal.valueOf(20));
+        ItemEntity cursorItem = new ItemEntity(2L, "title2", "desc2", "image2.jpg", BigDecimal.valueOf(10));
+        ItemEntity item3 = new ItemEntity(3L, "title3", "desc3", "image3.jpg", BigDecimal.valueOf(20));
+        PageCursor cursor = PageCursor.next(SortType.PRICE, 0, 2, cursorItem);
+
+        when(searchIndex.isSearchable("title")).thenReturn(true);
+        when(searchIndex.search("title")).thenReturn(new ArrayList<>(List.of(document1, document2, document3)));
+        when(itemRepository.findViewsByIdIn(List.of(3L))).thenReturn(List.of(ItemView.of(item3)));
+
+        // Тестируемое действие
+        CursorPage<ItemEntity> result = itemService.getItems("title", cursor, 1);
+
+        // Проверка результатов
+        assertEquals(List.of(item3), result.content());
+        assertTrue(result.hasPrevious());
+        assertTrue(result.hasNext());
+    }
+
+    @Test
+    void getItems_withSnapshot_shouldBrowseWithoutDatabase() {
+        // Подготовка тестовых данных
+        when(catalog.snapshot()).thenReturn(snapshot());
+
+        // Тестируемое действие
+        Slice<ItemEntity> result = itemService.getItems("", PageRequest.of(0, 2, SortType.toSort(SortType.PRICE)));
+
+        // Проверка результатов
+        assertEquals(List.of(2L, 3L), result.getContent().stream().map(ItemEntity::getId).toList());
+        assertTrue(result.hasNext());
+        verifyNoInteractions(itemRepository, searchCache);
+    }
+
+    @Test
+    void getItems_withSnapshotAndPriceRange_shouldBrowseItemsInRange() {
+        // Подготовка тестовых данных
+        when(catalog.snapshot()).thenReturn(snapshot());
+        PriceRange priceRange = new PriceRange(BigDecimal.valueOf(15), null);
+
+        // Тестируемое действие
+        Slice<ItemEntity> result = itemService.getItems("", priceRange, PageRequest.of(0, 10, SortType.toSort(SortType.ALPHA)));
+
+        // Проверка результатов
+        assertEquals(List.of(1L, 3L), result.getContent().stream().map(ItemEntity::getId).toList());
+        verifyNoInteractions(itemRepository, searchCache);
+    }
+
+    @Test
+    void getItems_withSearchTermAndPriceRange_shouldFilterIndexHits() {
+        // Подготовка тестовых данных
+        searchThroughCache();
+        when(catalog.snapshot()).thenReturn(snapshot());
+        when(searchIndex.isSearchable("desc")).thenReturn(true);
+        when(searchIndex.search("desc")).thenReturn(List.of(
+                new ItemDocument(1L, "b", "desc1", BigDecimal.valueOf(30)),
+                new ItemDocument(2L, "a", "desc2", BigDecimal.valueOf(10)),
+                new ItemDocument(3L, "c", "desc3", BigDecimal.valueOf(20))
+        ));
+
+        // Тестируемое действие
+        Slice<ItemEntity> result = itemService.getItems("desc", new PriceRange(null, BigDecimal.valueOf(20)), PageRequest.of(0, 10));
+
+        // Проверка результатов
+        assertEquals(List.of(2L, 3L), result.getContent().stream().map(ItemEntity::getId).toList());
+        verifyNoInteractions(itemRepository);
+        verify(searchCache, never()).put(any(), any());
+    }
+
+    @Test
+    void getPriceFacets_shouldCountSearchHitsInCatalogBuckets() {
+        // Подготовка тестовых данных
+        searchThroughCache();
+        when(catalog.snapshot()).thenReturn(snapshot());
+        when(searchIndex.isSearchable("b")).thenReturn(true);
+        when(searchIndex.search("b")).thenReturn(List.of(new ItemDocument(1L, "b", "desc1", BigDecimal.valueOf(30))));
+
+        // Тестируемое действие
+        List<PriceFacet> browseFacets = itemService.getPriceFacets("");
+        List<PriceFacet> searchFacets = itemService.getPriceFacets("b");
+
+        // Проверка результатов
+        assertEquals(List.of(1L, 1L, 1L), browseFacets.stream().map(PriceFacet::count).toList());
+        assertEquals(List.of(0L, 0L, 1L), searchFacets.stream().map(PriceFacet::count).toList());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void getItems_withSnapshotAndCursor_shouldSeekInSnapshot() {
+        // Подготовка тестовых данных
+        when(catalog.snapshot()).thenReturn(snapshot());
+        ItemEntity cursorItem = new ItemEntity(1L, "b", "desc1", null, BigDecimal.valueOf(30));
+        PageCursor cursor = PageCursor.previous(SortType.ALPHA, 0, 1, cursorItem);
+
+        // Тестируемое действие
+        CursorPage<ItemEntity> result = itemService.getItems(null, cursor, 5);
+
+        // Проверка результатов
+        assertEquals(List.of(2L), result.content().stream().map(ItemEntity::getId).toList());
+        assertFalse(result.hasPrevious());
+        assertTrue(result.hasNext());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void getItem_withSnapshot_shouldNotQueryRepository() {
+        // Подготовка тестовых данных
+        when(catalog.snapshot()).thenReturn(snapshot());
+
+        // Тестируемое действие
+        ItemEntity result = itemService.getItem(3L);
+
+        // Проверка результатов
+        assertEquals("c", result.getTitle());
+        verifyNoInteractions(itemRepository, itemCache);
     }
 
     @Test
@@ -71,7 +414,7 @@ class ItemServiceTest {
         Long itemId = 1L;
         ItemEntity expectedItem = new ItemEntity(1L, "title1", "desc1", "image1.jpg", BigDecimal.valueOf(1));
 
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(expectedItem));
+        when(itemCache.get(itemId)).thenReturn(ItemView.of(expectedItem));
 
         // Тестируемое действие
         ItemEntity result = itemService.getItem(itemId);
@@ -80,11 +423,44 @@ class ItemServiceTest {
         assertEquals(expectedItem, result);
     }
 
+    @Test
+    void getItem_shouldReturnSeparateCopiesOfCachedItem() {
+        // Подготовка тестовых данных
+        ItemEntity expectedItem = new ItemEntity(1L, "title1", "desc1", "image1.jpg", BigDecimal.valueOf(1));
+        when(itemCache.get(1L)).thenReturn(ItemView.of(expectedItem));
+
+        // Тестируемое действие
+        ItemEntity first = itemService.getItem(1L);
+        ItemEntity second = itemService.getItem(1L);
+
+        // Проверка результатов
+        assertEquals(expectedItem, first);
+        assertEquals(expectedItem, second);
+        assertNotSame(first, second);
+        verifyNoInteractions(itemRepository);
+    }
+
     @Test
     void getItem_shouldReturnEmptyWhenNotExists() {
         // Подготовка тестовых данных
-        when(itemRepository.findById(anyLong())).thenThrow(NoSuchElementException.class);
+        when(itemCache.get(anyLong())).thenThrow(NoSuchElementException.class);
 
         assertThrows(NoSuchElementException.class, () -> itemService.getItem(anyLong()));
     }
+
+    // Кэш поиска выполняет поиск по индексу при каждом обращении
+    private void searchThroughCache() {
+        when(searchCache.hits(anyString(), any())).thenAnswer(invocation -> {
+            Function<String, List<ItemDocument>> search = invocation.getArgument(1);
+            return new ItemSearchCache.Hits(search.apply(invocation.getArgument(0)));
+        });
+    }
+
+    private static CatalogSnapshot snapshot() {
+        return CatalogSnapshot.of(1L, List.of(
+                new CatalogItem(new ItemView(1L, "b", "desc1", null, BigDecimal.valueOf(30)), null),
+                new CatalogItem(new ItemView(2L, "a", "desc2", null, BigDecimal.valueOf(10)), null),
+                new CatalogItem(new ItemView(3L, "c", "desc3", null, BigDecimal.valueOf(20)), null)
+        ));
+    }
 }
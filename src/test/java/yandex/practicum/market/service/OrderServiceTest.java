@@ -2,16 +2,26 @@ package yandex.practicum.market.service;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import yandex.practicum.market.dto.OrderLine;
+import yandex.practicum.market.dto.OrderSummary;
 import yandex.practicum.market.entity.CartEntity;
 import yandex.practicum.market.entity.CartItemEntity;
 import yandex.practicum.market.entity.ItemEntity;
 import yandex.practicum.market.entity.OrderEntity;
 import yandex.practicum.market.repository.OrderItemRepository;
 import yandex.practicum.market.repository.OrderRepository;
+import yandex.practicum.market.search.ItemSuggestIndex;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -28,6 +38,12 @@ class OrderServiceTest {
     @Mock
     private OrderItemRepository orderItemRepository;
 
+    @Mock
+    private ItemSuggestIndex suggestIndex;
+
+    @Mock
+    private CartService cartService;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -41,9 +57,9 @@ class OrderServiceTest {
         ItemEntity item1 = new ItemEntity(1L, "title1", "desc1", "img1.jpg", new BigDecimal("10.00"));
         ItemEntity item2 = new ItemEntity(2L, "title2", "desc2", "img2.jpg", new BigDecimal("20.00"));
 
-        Map<ItemEntity, CartItemEntity> cartDetails = new HashMap<>();
-        cartDetails.put(item1, new CartItemEntity(session, item1, 2, new BigDecimal("10.00")));
-        cartDetails.put(item2, new CartItemEntity(session, item2, 1, new BigDecimal("20.00")));
+        Map<Long, CartItemEntity> cartDetails = new HashMap<>();
+        cartDetails.put(item1.getId(), new CartItemEntity(session, item1, 2, new BigDecimal("10.00")));
+        cartDetails.put(item2.getId(), new CartItemEntity(session, item2, 1, new BigDecimal("20.00")));
 
         when(session.getItems()).thenReturn(cartDetails);
 
@@ -56,85 +72,104 @@ class OrderServiceTest {
         assertEquals(session, result.getSession());
         assertEquals(2, result.getItems().size());
         verify(orderRepository, times(1)).save(any(OrderEntity.class));
+        verify(suggestIndex, times(1)).recordSales(Map.of(1L, 2, 2L, 1));
     }
 
     @Test
-    void getAllOrders_shouldReturnOrdersBySessionIdForCart() {
-        CartEntity session = Mockito.mock(CartEntity.class);
-        Long sessionId = 32L;
-        when(session.getId()).thenReturn(sessionId);
-
-        List<OrderEntity> expectedOrders = Arrays.asList(
-                new OrderEntity(session),
-                new OrderEntity(session)
-        );
-
-        when(orderRepository.findBySessionId(sessionId)).thenReturn(expectedOrders);
-
-        List<OrderEntity> result = orderService.getAllOrdersBySessionId(session.getId());
-
-        assertEquals(2, result.size());
-        verify(orderRepository, times(1)).findBySessionId(sessionId);
+    void buy_shouldRecordSalesOnlyAfterCommit() {
+        CartEntity cart = new CartEntity(31L, "31");
+        ItemEntity item = new ItemEntity(1L, "title1", "desc1", "img1.jpg", new BigDecimal("10.00"));
+        cart.getItems().put(item.getId(), new CartItemEntity(cart, item, 2, item.getPrice()));
+        when(orderRepository.save(any(OrderEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            orderService.buy(cart);
+            verifyNoInteractions(suggestIndex);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(suggestIndex, times(1)).recordSales(Map.of(1L, 2));
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
     }
 
     @Test
-    void getOrder_shouldReturnOrderWhenExists() {
-        CartEntity session = Mockito.mock(CartEntity.class);
-        Long orderId = 1L;
-        OrderEntity expectedOrder = new OrderEntity(session);
-        expectedOrder.setId(orderId);
-
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(expectedOrder));
-
-        OrderEntity result = orderService.getOrder(orderId);
-
-        assertEquals(expectedOrder, result);
-        verify(orderRepository, times(1)).findById(orderId);
+    void checkout_shouldOrderCartAndClearIt() {
+        CartEntity cart = new CartEntity(31L, "31");
+        ItemEntity item = new ItemEntity(1L, "title1", "desc1", "img1.jpg", new BigDecimal("10.00"));
+        cart.getItems().put(item.getId(), new CartItemEntity(cart, item, 2, item.getPrice()));
+        when(cartService.findSession("31")).thenReturn(Optional.of(cart));
+        when(orderRepository.save(any(OrderEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderEntity result = orderService.checkout("31");
+
+        assertEquals(cart, result.getSession());
+        assertEquals(1, result.getItems().size());
+        InOrder inOrder = inOrder(orderRepository, cartService);
+        inOrder.verify(orderRepository).save(result);
+        inOrder.verify(cartService).clear(cart);
     }
 
     @Test
-    void getOrder_shouldReturnEmptyWhenNotExists() {
-        Long orderId = 999L;
-        when(orderRepository.findById(orderId)).thenThrow(NoSuchElementException.class);
+    void checkout_shouldRejectUnknownSessionWithoutCreatingCart() {
+        when(cartService.findSession("31")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.checkout("31"));
 
-        assertThrows(NoSuchElementException.class, () -> orderService.getOrder(orderId));
-        verify(orderRepository, times(1)).findById(orderId);
+        verify(cartService, never()).getOrCreateCartId(anyString());
+        verifyNoInteractions(orderRepository, suggestIndex);
     }
 
     @Test
-    void getOrderTotalCost_shouldReturnSumForOrder() {
+    void checkout_shouldRejectEmptyCart() {
+        CartEntity cart = new CartEntity(31L, "31");
+        when(cartService.findSession("31")).thenReturn(Optional.of(cart));
 
-        Long orderId = 1L;
-        CartEntity session = Mockito.mock(CartEntity.class);
-        OrderEntity order = new OrderEntity(session);
-        order.setId(orderId);
+        assertThrows(IllegalArgumentException.class, () -> orderService.checkout("31"));
 
-        BigDecimal expectedSum = new BigDecimal("50.00");
-        when(orderItemRepository.sumTotalCostInOrder(orderId)).thenReturn(Optional.of(expectedSum));
+        verify(cartService, never()).clear(any());
+        verifyNoInteractions(orderRepository, suggestIndex);
+    }
 
+    @Test
+    void getOrderSummaries_shouldReadSummariesWithoutLoadingLines() {
+        String sessionId = "32";
+        Pageable pageable = PageRequest.of(0, 20);
+        Slice<OrderSummary> summaries = new SliceImpl<>(List.of(
+                new OrderSummary(3L, BigDecimal.TEN, 2),
+                new OrderSummary(1L, BigDecimal.ONE, 1)
+        ), pageable, false);
 
-        BigDecimal result = orderService.getOrderTotalCost(order.getId());
+        when(orderRepository.findSummariesBySessionId(sessionId, pageable)).thenReturn(summaries);
 
+        Slice<OrderSummary> result = orderService.getOrderSummaries(sessionId, pageable);
 
-        assertEquals(expectedSum, result);
-        verify(orderItemRepository, times(1)).sumTotalCostInOrder(orderId);
+        assertSame(summaries, result);
+        verifyNoInteractions(orderItemRepository);
     }
 
     @Test
-    void getOrderTotalCost_shouldReturnZeroWhenNoDetails() {
-
+    void getOrderLines_shouldReturnLinesWithoutLoadingOrder() {
         Long orderId = 1L;
-        CartEntity session = Mockito.mock(CartEntity.class);
-        OrderEntity order = new OrderEntity(session);
-        order.setId(orderId);
+        List<OrderLine> expectedLines = List.of(new OrderLine(orderId, 10L, "title1", "desc1", null, 2, BigDecimal.ONE));
 
-        when(orderItemRepository.sumTotalCostInOrder(orderId)).thenReturn(Optional.empty());
+        when(orderItemRepository.findLinesByOrderId(orderId)).thenReturn(expectedLines);
 
+        List<OrderLine> result = orderService.getOrderLines(orderId);
 
-        BigDecimal result = orderService.getOrderTotalCost(order.getId());
+        assertEquals(expectedLines, result);
+        verify(orderRepository, never()).findById(orderId);
+        verify(orderRepository, never()).existsById(orderId);
+    }
 
+    @Test
+    void getOrderLines_shouldThrowWhenOrderNotExists() {
+        Long orderId = 999L;
+        when(orderItemRepository.findLinesByOrderId(orderId)).thenReturn(List.of());
+        when(orderRepository.existsById(orderId)).thenReturn(false);
 
-        assertEquals(BigDecimal.ZERO, result);
-        verify(orderItemRepository, times(1)).sumTotalCostInOrder(orderId);
+        assertThrows(NoSuchElementException.class, () -> orderService.getOrderLines(orderId));
+        verify(orderRepository, times(1)).existsById(orderId);
     }
-}
\ No newline at end of file
+}